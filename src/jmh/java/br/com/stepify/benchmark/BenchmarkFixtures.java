@@ -0,0 +1,66 @@
+package br.com.stepify.benchmark;
+
+import br.com.stepify.command.microtask.inputs.CreateMicroTaskCommand;
+import br.com.stepify.command.microtask.inputs.UpdateMicroTaskCommand;
+import br.com.stepify.command.task.inputs.CreateTaskCommand;
+import br.com.stepify.command.task.inputs.UpdateTaskCommand;
+import br.com.stepify.enums.ETaskPriority;
+import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+
+final class BenchmarkFixtures {
+    static final String OWNER_ID = "benchmark-owner";
+    static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 15, 10, 30, 15, 123_000_000);
+
+    private BenchmarkFixtures() {
+    }
+
+    static Task task(int index) {
+        return Task.builder()
+                .id(new ObjectId().toHexString())
+                .ownerId(OWNER_ID)
+                .title("Task " + index)
+                .description("Break the quarterly report into small steps " + index)
+                .status(ETaskStatus.values()[index % ETaskStatus.values().length])
+                .priority(ETaskPriority.values()[index % ETaskPriority.values().length])
+                .dueDate(NOW.plusDays(index % 30))
+                .completedAt(index % 4 == 0 ? NOW.plusHours(index % 24) : null)
+                .createdAt(NOW.minusDays(index % 60))
+                .updatedAt(NOW)
+                .build();
+    }
+
+    static MicroTask microTask(int index) {
+        return MicroTask.builder()
+                .id(new ObjectId().toHexString())
+                .ownerId(OWNER_ID)
+                .taskId(new ObjectId().toHexString())
+                .title("Step " + index)
+                .description("Open the spreadsheet " + index)
+                .status(ETaskStatus.PENDING)
+                .order(index)
+                .createdAt(NOW)
+                .updatedAt(NOW)
+                .build();
+    }
+
+    static CreateTaskCommand createTaskCommand() {
+        return new CreateTaskCommand("Write report", "Quarterly report", ETaskStatus.PENDING, ETaskPriority.HIGH, NOW.plusDays(7));
+    }
+
+    static UpdateTaskCommand updateTaskCommand() {
+        return new UpdateTaskCommand("Write final report", null, ETaskStatus.IN_PROGRESS, null, NOW.plusDays(10), null);
+    }
+
+    static CreateMicroTaskCommand createMicroTaskCommand() {
+        return new CreateMicroTaskCommand(new ObjectId().toHexString(), "Open the spreadsheet", null, ETaskStatus.PENDING, 1);
+    }
+
+    static UpdateMicroTaskCommand updateMicroTaskCommand() {
+        return new UpdateMicroTaskCommand("Open the final spreadsheet", null, ETaskStatus.COMPLETED, 2, NOW);
+    }
+}
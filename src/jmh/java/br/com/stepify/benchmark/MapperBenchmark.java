@@ -0,0 +1,57 @@
+package br.com.stepify.benchmark;
+
+import br.com.stepify.command.microtask.inputs.CreateMicroTaskCommand;
+import br.com.stepify.command.microtask.outputs.MicroTaskDTO;
+import br.com.stepify.command.task.inputs.CreateTaskCommand;
+import br.com.stepify.command.task.outputs.TaskDTO;
+import br.com.stepify.mapper.MicroTaskMapper;
+import br.com.stepify.mapper.TaskMapper;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private final TaskMapper taskMapper = new TaskMapper();
+    private final MicroTaskMapper microTaskMapper = new MicroTaskMapper();
+
+    private Task task;
+    private MicroTask microTask;
+    private CreateTaskCommand createTaskCommand;
+    private CreateMicroTaskCommand createMicroTaskCommand;
+
+    @Setup
+    public void setUp() {
+        task = BenchmarkFixtures.task(1);
+        microTask = BenchmarkFixtures.microTask(1);
+        createTaskCommand = BenchmarkFixtures.createTaskCommand();
+        createMicroTaskCommand = BenchmarkFixtures.createMicroTaskCommand();
+    }
+
+    @Benchmark
+    public TaskDTO taskToDTO() {
+        return taskMapper.toDTO(task);
+    }
+
+    @Benchmark
+    public Task taskFromCommand() {
+        return taskMapper.fromCommand(BenchmarkFixtures.OWNER_ID, createTaskCommand);
+    }
+
+    @Benchmark
+    public MicroTaskDTO microTaskToDTO() {
+        return microTaskMapper.toDTO(microTask);
+    }
+
+    @Benchmark
+    public MicroTask microTaskFromCommand() {
+        return microTaskMapper.fromCommand(BenchmarkFixtures.OWNER_ID, createMicroTaskCommand);
+    }
+}
@@ -0,0 +1,63 @@
+package br.com.stepify.benchmark;
+
+import br.com.stepify.exception.EntityNotFoundException;
+import br.com.stepify.exception.ErrorResponse;
+import br.com.stepify.exception.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Cost of one miss: throw from a call stack of the given depth, catch, and build the 404 body. The legacy variant
+// reproduces the previous exception, which captured a stack trace and formatted its message eagerly.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundBenchmark {
+    @Param({"20", "150"})
+    private int stackDepth;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final String id = "652f1c2e9b1e8a3d4c5b6a79";
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> legacyMiss() {
+        try {
+            return throwAt(stackDepth, true);
+        } catch (LegacyNotFoundException e) {
+            return ResponseEntity.status(404)
+                    .body(new ErrorResponse(404, e.getMessage(), e.getMessage(), LocalDateTime.now()));
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> stacklessMiss() {
+        try {
+            return throwAt(stackDepth, false);
+        } catch (EntityNotFoundException e) {
+            return handler.handleEntityNotFoundException(e);
+        }
+    }
+
+    private ResponseEntity<ErrorResponse> throwAt(int depth, boolean legacy) {
+        if (depth > 0) {
+            return throwAt(depth - 1, legacy);
+        }
+
+        if (legacy) {
+            throw new LegacyNotFoundException(String.format("Task with ID: %s not found while %s", id, "searching"));
+        }
+
+        throw new EntityNotFoundException("Task", id, "searching");
+    }
+
+    private static class LegacyNotFoundException extends RuntimeException {
+        LegacyNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.stepify.benchmark;
+
+import br.com.stepify.command.microtask.inputs.UpdateMicroTaskCommand;
+import br.com.stepify.command.task.inputs.UpdateTaskCommand;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.service.action.microtask.UpdateMicroTaskAction;
+import br.com.stepify.service.action.task.UpdateTaskAction;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateActionBenchmark {
+    private final UpdateTaskAction updateTaskAction = new UpdateTaskAction();
+    private final UpdateMicroTaskAction updateMicroTaskAction = new UpdateMicroTaskAction();
+
+    private Task task;
+    private MicroTask microTask;
+    private UpdateTaskCommand updateTaskCommand;
+    private UpdateMicroTaskCommand updateMicroTaskCommand;
+
+    @Setup
+    public void setUp() {
+        task = BenchmarkFixtures.task(1);
+        microTask = BenchmarkFixtures.microTask(1);
+        updateTaskCommand = BenchmarkFixtures.updateTaskCommand();
+        updateMicroTaskCommand = BenchmarkFixtures.updateMicroTaskCommand();
+    }
+
+    @Benchmark
+    public Task executeTaskUpdate() {
+        updateTaskAction.execute(task, updateTaskCommand);
+        return task;
+    }
+
+    @Benchmark
+    public Update taskUpdateDocument() {
+        return updateTaskAction.toUpdate(updateTaskCommand);
+    }
+
+    @Benchmark
+    public MicroTask executeMicroTaskUpdate() {
+        updateMicroTaskAction.execute(microTask, updateMicroTaskCommand);
+        return microTask;
+    }
+
+    @Benchmark
+    public Update microTaskUpdateDocument() {
+        return updateMicroTaskAction.toUpdate(updateMicroTaskCommand);
+    }
+}
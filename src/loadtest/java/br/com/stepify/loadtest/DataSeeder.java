@@ -0,0 +1,101 @@
+package br.com.stepify.loadtest;
+
+import br.com.stepify.enums.ETaskPriority;
+import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class DataSeeder {
+    static final String OWNER_ID = "loadtest-owner";
+    private static final int BATCH_SIZE = 5_000;
+    private static final int MAX_SAMPLED_IDS = 100_000;
+    private static final int MICRO_TASKS_PER_SAMPLED_TASK = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    DataSeeder(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Recreates the collections and returns an evenly spread sample of task ids for the read and update workload,
+    // so large data sets do not need every id in memory. Indexes are dropped with the collections and must be
+    // ensured again once the data is loaded.
+    List<String> seed(int taskCount) {
+        mongoTemplate.dropCollection(Task.class);
+        mongoTemplate.dropCollection(MicroTask.class);
+
+        int stride = Math.max(1, taskCount / MAX_SAMPLED_IDS);
+        List<String> sampledIds = new ArrayList<>(Math.min(taskCount, MAX_SAMPLED_IDS));
+        List<Task> batch = new ArrayList<>(BATCH_SIZE);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int index = 0; index < taskCount; index++) {
+            Task task = task(index, now);
+            batch.add(task);
+
+            if (index % stride == 0 && sampledIds.size() < MAX_SAMPLED_IDS) {
+                sampledIds.add(task.getId());
+            }
+
+            if (batch.size() == BATCH_SIZE) {
+                mongoTemplate.insert(batch, Task.class);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, Task.class);
+        }
+
+        seedMicroTasks(sampledIds, now);
+        return sampledIds;
+    }
+
+    private void seedMicroTasks(List<String> taskIds, LocalDateTime now) {
+        List<MicroTask> batch = new ArrayList<>(BATCH_SIZE);
+
+        for (String taskId : taskIds) {
+            for (int order = 1; order <= MICRO_TASKS_PER_SAMPLED_TASK; order++) {
+                batch.add(MicroTask.builder()
+                        .id(new ObjectId().toHexString())
+                        .ownerId(OWNER_ID)
+                        .taskId(taskId)
+                        .title("Step " + order)
+                        .status(ETaskStatus.PENDING)
+                        .order(order)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build());
+            }
+
+            if (batch.size() >= BATCH_SIZE) {
+                mongoTemplate.insert(batch, MicroTask.class);
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, MicroTask.class);
+        }
+    }
+
+    private static Task task(int index, LocalDateTime now) {
+        return Task.builder()
+                .id(new ObjectId().toHexString())
+                .ownerId(OWNER_ID)
+                .title("Seeded task " + index)
+                .description("Seeded by the load test")
+                .status(ETaskStatus.values()[index % ETaskStatus.values().length])
+                .priority(ETaskPriority.values()[index % ETaskPriority.values().length])
+                .dueDate(now.plusDays(index % 90))
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.stepify.loadtest;
+
+import java.util.Arrays;
+
+// Single-writer latency buffer; each worker owns one per endpoint and they are merged after the run.
+final class LatencyRecorder {
+    private long[] nanos = new long[1024];
+    private int count;
+    private long errors;
+
+    void record(long elapsedNanos, boolean error) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+
+        nanos[count++] = elapsedNanos;
+
+        if (error) {
+            errors++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        if (count + other.count > nanos.length) {
+            nanos = Arrays.copyOf(nanos, count + other.count);
+        }
+
+        System.arraycopy(other.nanos, 0, nanos, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    EndpointReport report(String endpoint, double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+
+        return new EndpointReport(
+                endpoint,
+                count,
+                errors,
+                count / elapsedSeconds,
+                percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.99),
+                count == 0 ? 0 : sorted[count - 1] / 1_000_000.0
+        );
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    record EndpointReport(
+            String endpoint,
+            long requests,
+            long errors,
+            double requestsPerSecond,
+            double p50Millis,
+            double p99Millis,
+            double maxMillis
+    ) {
+    }
+}
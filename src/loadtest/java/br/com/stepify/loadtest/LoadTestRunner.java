@@ -0,0 +1,132 @@
+package br.com.stepify.loadtest;
+
+import br.com.stepify.TaskServiceApplication;
+import br.com.stepify.mongo.index.MongoIndexInitializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class LoadTestRunner {
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        try (MongoStandIn mongo = MongoStandIn.start(settings);
+             ConfigurableApplicationContext context = boot(settings, mongo)) {
+            System.out.printf("Seeding %d tasks%n", settings.tasks());
+            List<String> sampledIds = new DataSeeder(context.getBean(MongoTemplate.class)).seed(settings.tasks());
+            context.getBean(MongoIndexInitializer.class).ensureIndexes();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            Workload workload = new Workload(client, objectMapper, "http://localhost:" + port + "/tasks", sampledIds,
+                    settings.requestTimeout());
+
+            System.out.printf("Warming up for %s%n", settings.warmup());
+            run(workload, settings.concurrency(), settings.warmup());
+
+            System.out.printf("Measuring for %s with %d concurrent clients%n", settings.duration(), settings.concurrency());
+            long start = System.nanoTime();
+            Map<String, LatencyRecorder> recorders = run(workload, settings.concurrency(), settings.duration());
+            double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            report(settings, objectMapper, recorders, elapsedSeconds);
+        }
+    }
+
+    // Background jobs and change stream watchers would compete with the measured requests, so they are all off.
+    private static ConfigurableApplicationContext boot(LoadTestSettings settings, MongoStandIn mongo) {
+        return new SpringApplicationBuilder(TaskServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.data.mongodb.host=" + mongo.host(),
+                "--spring.data.mongodb.port=" + mongo.port(),
+                "--spring.data.mongodb.database=stepify-loadtest",
+                "--spring.threads.virtual.enabled=" + settings.virtualThreads(),
+                "--stepify.mongo.indexes.ensure-on-startup=false",
+                "--stepify.mongo.indexes.verify-query-plans=false",
+                "--stepify.jobs.orphan-cleanup.enabled=false",
+                "--stepify.jobs.progress-reconciliation.enabled=false",
+                "--stepify.jobs.archive.enabled=false",
+                "--stepify.events.change-streams-enabled=false"
+        );
+    }
+
+    // Every client is a virtual thread issuing blocking requests back to back until the deadline.
+    private static Map<String, LatencyRecorder> run(Workload workload, int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Map<String, LatencyRecorder>>> clients = new ArrayList<>(concurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int index = 0; index < concurrency; index++) {
+                clients.add(executor.submit(() -> {
+                    Map<String, LatencyRecorder> recorders = newRecorders();
+
+                    while (System.nanoTime() < deadline) {
+                        workload.runOnce(recorders);
+                    }
+
+                    return recorders;
+                }));
+            }
+
+            Map<String, LatencyRecorder> merged = newRecorders();
+            for (Future<Map<String, LatencyRecorder>> client : clients) {
+                client.get().forEach((endpoint, recorder) -> merged.get(endpoint).merge(recorder));
+            }
+
+            return merged;
+        }
+    }
+
+    private static Map<String, LatencyRecorder> newRecorders() {
+        Map<String, LatencyRecorder> recorders = new HashMap<>();
+        Workload.ENDPOINTS.forEach(endpoint -> recorders.put(endpoint, new LatencyRecorder()));
+        return recorders;
+    }
+
+    private static void report(LoadTestSettings settings, ObjectMapper objectMapper,
+                               Map<String, LatencyRecorder> recorders, double elapsedSeconds) throws IOException {
+        LatencyRecorder total = new LatencyRecorder();
+        List<LatencyRecorder.EndpointReport> endpoints = new ArrayList<>();
+
+        for (String endpoint : Workload.ENDPOINTS) {
+            LatencyRecorder recorder = recorders.get(endpoint);
+            endpoints.add(recorder.report(endpoint, elapsedSeconds));
+            total.merge(recorder);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings.describe());
+        report.put("total", total.report("ALL", elapsedSeconds));
+        report.put("endpoints", endpoints);
+
+        Files.createDirectories(settings.report().toAbsolutePath().getParent());
+        objectMapper.writeValue(settings.report().toFile(), report);
+
+        System.out.printf("%-28s %10s %8s %10s %10s %10s%n", "endpoint", "requests", "errors", "rps", "p50 ms", "p99 ms");
+        for (LatencyRecorder.EndpointReport endpoint : endpoints) {
+            System.out.printf("%-28s %10d %8d %10.1f %10.2f %10.2f%n", endpoint.endpoint(), endpoint.requests(),
+                    endpoint.errors(), endpoint.requestsPerSecond(), endpoint.p50Millis(), endpoint.p99Millis());
+        }
+        System.out.printf("Report written to %s%n", settings.report().toAbsolutePath());
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.stepify.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+record LoadTestSettings(
+        int tasks,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        Duration requestTimeout,
+        boolean virtualThreads,
+        String mongoHost,
+        int mongoPort,
+        Path report
+) {
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.tasks", 10_000),
+                Integer.getInteger("loadtest.concurrency", 64),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                Duration.parse(System.getProperty("loadtest.request-timeout", "PT10S")),
+                Boolean.parseBoolean(System.getProperty("loadtest.virtual-threads", "false")),
+                System.getProperty("loadtest.mongo.host", ""),
+                Integer.getInteger("loadtest.mongo.port", 27017),
+                Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json"))
+        );
+    }
+
+    boolean embeddedMongo() {
+        return mongoHost.isBlank();
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("tasks", tasks);
+        description.put("concurrency", concurrency);
+        description.put("warmup", warmup.toString());
+        description.put("duration", duration.toString());
+        description.put("requestTimeout", requestTimeout.toString());
+        description.put("virtualThreads", virtualThreads);
+        description.put("mongo", embeddedMongo() ? "embedded" : mongoHost + ":" + mongoPort);
+        return description;
+    }
+}
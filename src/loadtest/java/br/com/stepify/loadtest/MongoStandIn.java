@@ -0,0 +1,46 @@
+package br.com.stepify.loadtest;
+
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+// Either an embedded mongod started for the run or an externally managed instance.
+final class MongoStandIn implements AutoCloseable {
+    private final TransitionWalker.ReachedState<RunningMongodProcess> embedded;
+    private final String host;
+    private final int port;
+
+    private MongoStandIn(TransitionWalker.ReachedState<RunningMongodProcess> embedded, String host, int port) {
+        this.embedded = embedded;
+        this.host = host;
+        this.port = port;
+    }
+
+    static MongoStandIn start(LoadTestSettings settings) {
+        if (!settings.embeddedMongo()) {
+            return new MongoStandIn(null, settings.mongoHost(), settings.mongoPort());
+        }
+
+        TransitionWalker.ReachedState<RunningMongodProcess> running = Mongod.instance().start(Version.Main.V7_0);
+        ServerAddress address = running.current().getServerAddress();
+
+        return new MongoStandIn(running, address.getHost(), address.getPort());
+    }
+
+    String host() {
+        return host;
+    }
+
+    int port() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        if (embedded != null) {
+            embedded.close();
+        }
+    }
+}
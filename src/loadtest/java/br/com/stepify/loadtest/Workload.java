@@ -0,0 +1,132 @@
+package br.com.stepify.loadtest;
+
+import br.com.stepify.controller.support.Tenancy;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Mixed create/read/patch/delete traffic through the real HTTP stack. Weights add up to 100.
+final class Workload {
+    static final List<String> ENDPOINTS = List.of(
+            "GET /tasks",
+            "GET /tasks/{id}",
+            "GET /tasks/{id}/microtasks",
+            "POST /tasks",
+            "PATCH /tasks/{id}",
+            "DELETE /tasks/{id}",
+            "POST /microtasks"
+    );
+    private static final int[] CUMULATIVE_WEIGHTS = {20, 50, 60, 75, 90, 95, 100};
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final List<String> sampledIds;
+    private final Duration requestTimeout;
+    private final Queue<String> createdIds = new ConcurrentLinkedQueue<>();
+
+    Workload(HttpClient client, ObjectMapper objectMapper, String baseUrl, List<String> sampledIds, Duration requestTimeout) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.sampledIds = sampledIds;
+        this.requestTimeout = requestTimeout;
+    }
+
+    void runOnce(Map<String, LatencyRecorder> recorders) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        int operation = 0;
+
+        while (roll >= CUMULATIVE_WEIGHTS[operation]) {
+            operation++;
+        }
+
+        String sampledId = sampledIds.get(random.nextInt(sampledIds.size()));
+
+        switch (operation) {
+            case 0 -> send(recorders, 0, get("?size=50"));
+            case 1 -> send(recorders, 1, get("/" + sampledId));
+            case 2 -> send(recorders, 2, get("/" + sampledId + "/microtasks"));
+            case 3 -> createTask(recorders);
+            case 4 -> send(recorders, 4, patch("/" + sampledId, "{\"status\":\"IN_PROGRESS\",\"title\":\"Patched by load test\"}"));
+            case 5 -> {
+                String createdId = createdIds.poll();
+
+                if (createdId == null) {
+                    createTask(recorders);
+                } else {
+                    send(recorders, 5, request("/" + createdId).DELETE().build());
+                }
+            }
+            default -> send(recorders, 6, post("/microtasks",
+                    "{\"taskId\":\"" + sampledId + "\",\"title\":\"Load test step\",\"status\":\"PENDING\",\"order\":99}"));
+        }
+    }
+
+    private void createTask(Map<String, LatencyRecorder> recorders) {
+        HttpResponse<byte[]> response = send(recorders, 3,
+                post("", "{\"title\":\"Load test task\",\"status\":\"PENDING\",\"priority\":\"MEDIUM\"}"));
+
+        if (response != null && response.statusCode() == 201) {
+            try {
+                JsonNode body = objectMapper.readTree(response.body());
+                createdIds.add(body.get("id").asText());
+            } catch (IOException ignored) {
+                // The request was already recorded; an unreadable body only means this task is never deleted.
+            }
+        }
+    }
+
+    private HttpResponse<byte[]> send(Map<String, LatencyRecorder> recorders, int endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = null;
+
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            // Counted as an error below, timeouts included.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        boolean error = response == null || response.statusCode() >= 400;
+        recorders.get(ENDPOINTS.get(endpoint)).record(System.nanoTime() - start, error);
+        return response;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header(Tenancy.OWNER_ID_HEADER, DataSeeder.OWNER_ID);
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest patch(String path, String json) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.stepify.cache;
+
+import br.com.stepify.config.TaskCacheProperties;
+import br.com.stepify.mongo.entity.Task;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(prefix = "stepify.cache.task", name = "type", havingValue = "caffeine", matchIfMissing = true)
+public class CaffeineTaskCache implements TaskCache, MeterBinder {
+    private final Cache<String, Task> cache;
+
+    public CaffeineTaskCache(TaskCacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.timeToLive())
+                .recordStats()
+                .build();
+    }
+
+    // Tasks are mutable, so copies go in and out to keep callers from changing the cached entry.
+    @Override
+    public Optional<Task> get(String id) {
+        return Optional.ofNullable(cache.getIfPresent(id))
+                .map(task -> task.toBuilder().build());
+    }
+
+    @Override
+    public void put(Task task) {
+        cache.put(task.getId(), task.toBuilder().build());
+    }
+
+    @Override
+    public void evict(String id) {
+        cache.invalidate(id);
+    }
+
+    @Override
+    public void evictAll(Collection<String> ids) {
+        cache.invalidateAll(ids);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "tasks");
+    }
+}
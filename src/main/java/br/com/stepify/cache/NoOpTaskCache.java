@@ -0,0 +1,29 @@
+package br.com.stepify.cache;
+
+import br.com.stepify.mongo.entity.Task;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(prefix = "stepify.cache.task", name = "type", havingValue = "none")
+public class NoOpTaskCache implements TaskCache {
+    @Override
+    public Optional<Task> get(String id) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(Task task) {
+    }
+
+    @Override
+    public void evict(String id) {
+    }
+
+    @Override
+    public void evictAll(Collection<String> ids) {
+    }
+}
@@ -0,0 +1,16 @@
+package br.com.stepify.cache;
+
+import br.com.stepify.mongo.entity.Task;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface TaskCache {
+    Optional<Task> get(String id);
+
+    void put(Task task);
+
+    void evict(String id);
+
+    void evictAll(Collection<String> ids);
+}
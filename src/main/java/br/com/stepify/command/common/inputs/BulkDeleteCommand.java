@@ -0,0 +1,14 @@
+package br.com.stepify.command.common.inputs;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkDeleteCommand(
+        @NotEmpty
+        @Size(max = 500)
+        List<@NotBlank String> ids
+) {
+}
@@ -0,0 +1,11 @@
+package br.com.stepify.command.common.outputs;
+
+import br.com.stepify.enums.EBulkItemStatus;
+
+public record BulkItemResultDTO(
+        int index,
+        String id,
+        EBulkItemStatus status,
+        String message
+) {
+}
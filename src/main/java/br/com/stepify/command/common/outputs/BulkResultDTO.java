@@ -0,0 +1,19 @@
+package br.com.stepify.command.common.outputs;
+
+import br.com.stepify.enums.EBulkItemStatus;
+
+import java.util.List;
+
+public record BulkResultDTO(
+        int succeeded,
+        int failed,
+        List<BulkItemResultDTO> items
+) {
+    public static BulkResultDTO of(List<BulkItemResultDTO> items) {
+        int failed = (int) items.stream()
+                .filter(item -> item.status() == EBulkItemStatus.NOT_FOUND || item.status() == EBulkItemStatus.FAILED)
+                .count();
+
+        return new BulkResultDTO(items.size() - failed, failed, items);
+    }
+}
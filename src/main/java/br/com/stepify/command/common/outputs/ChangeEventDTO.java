@@ -0,0 +1,21 @@
+package br.com.stepify.command.common.outputs;
+
+import br.com.stepify.enums.EChangeEntity;
+import br.com.stepify.enums.EChangeOperation;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChangeEventDTO(
+        EChangeEntity entity,
+        EChangeOperation operation,
+        String id,
+        String taskId,
+        Long version,
+        LocalDateTime updatedAt,
+        @JsonIgnore
+        String ownerId
+) {
+}
@@ -0,0 +1,11 @@
+package br.com.stepify.command.common.outputs;
+
+import java.util.List;
+
+public record ChangesDTO<T>(
+        List<T> items,
+        List<String> deletedIds,
+        String nextToken,
+        boolean hasMore
+) {
+}
@@ -0,0 +1,10 @@
+package br.com.stepify.command.common.outputs;
+
+import java.util.List;
+
+public record PageDTO<T>(
+        List<T> items,
+        String nextCursor,
+        boolean hasMore
+) {
+}
@@ -0,0 +1,9 @@
+package br.com.stepify.command.common.outputs;
+
+import java.time.LocalDateTime;
+
+public record VersionDTO(
+        Long version,
+        LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,14 @@
+package br.com.stepify.command.microtask.inputs;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record BulkUpdateMicroTaskItemCommand(
+        @NotBlank
+        String id,
+        @NotNull
+        @Valid
+        UpdateMicroTaskCommand changes
+) {
+}
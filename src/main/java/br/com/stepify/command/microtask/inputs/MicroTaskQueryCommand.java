@@ -0,0 +1,19 @@
+package br.com.stepify.command.microtask.inputs;
+
+import br.com.stepify.enums.ETaskStatus;
+
+import java.util.Set;
+
+public record MicroTaskQueryCommand(
+        Set<ETaskStatus> statuses,
+        String sort,
+        Set<String> fields
+) {
+    public static MicroTaskQueryCommand unfiltered() {
+        return new MicroTaskQueryCommand(null, null, null);
+    }
+
+    public MicroTaskQueryCommand withFields(Set<String> fields) {
+        return new MicroTaskQueryCommand(statuses, sort, fields);
+    }
+}
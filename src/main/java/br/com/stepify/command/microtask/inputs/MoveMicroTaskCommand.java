@@ -0,0 +1,6 @@
+package br.com.stepify.command.microtask.inputs;
+
+public record MoveMicroTaskCommand(
+        String afterId
+) {
+}
@@ -0,0 +1,16 @@
+package br.com.stepify.command.microtask.inputs;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ReorderMicroTasksCommand(
+        @NotBlank
+        String taskId,
+        @NotEmpty
+        @Size(max = 500)
+        List<@NotBlank String> ids
+) {
+}
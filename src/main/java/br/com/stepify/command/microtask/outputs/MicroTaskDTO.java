@@ -1,9 +1,11 @@
 package br.com.stepify.command.microtask.outputs;
 
 import br.com.stepify.enums.ETaskStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDateTime;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record MicroTaskDTO(
         String id,
         String taskId,
@@ -12,6 +14,7 @@ public record MicroTaskDTO(
         ETaskStatus status,
         Integer order,
         LocalDateTime createdAt,
-        LocalDateTime updatedAt
+        LocalDateTime updatedAt,
+        Long version
 ) {
 }
@@ -0,0 +1,14 @@
+package br.com.stepify.command.task.inputs;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record BulkUpdateTaskItemCommand(
+        @NotBlank
+        String id,
+        @NotNull
+        @Valid
+        UpdateTaskCommand changes
+) {
+}
@@ -0,0 +1,14 @@
+package br.com.stepify.command.task.inputs;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkUpdateTasksCommand(
+        @NotEmpty
+        @Size(max = 500)
+        List<@Valid BulkUpdateTaskItemCommand> items
+) {
+}
@@ -0,0 +1,26 @@
+package br.com.stepify.command.task.inputs;
+
+import br.com.stepify.enums.ETaskPriority;
+import br.com.stepify.enums.ETaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+public record TaskQueryCommand(
+        Set<ETaskStatus> statuses,
+        Set<ETaskPriority> priorities,
+        LocalDateTime dueFrom,
+        LocalDateTime dueTo,
+        Integer minProgress,
+        Integer maxProgress,
+        String sort,
+        Set<String> fields
+) {
+    public static TaskQueryCommand unfiltered() {
+        return new TaskQueryCommand(null, null, null, null, null, null, null, null);
+    }
+
+    public TaskQueryCommand withFields(Set<String> fields) {
+        return new TaskQueryCommand(statuses, priorities, dueFrom, dueTo, minProgress, maxProgress, sort, fields);
+    }
+}
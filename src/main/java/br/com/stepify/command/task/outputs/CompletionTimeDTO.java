@@ -0,0 +1,9 @@
+package br.com.stepify.command.task.outputs;
+
+public record CompletionTimeDTO(
+        long completed,
+        Long averageMillis,
+        Long minMillis,
+        Long maxMillis
+) {
+}
@@ -0,0 +1,10 @@
+package br.com.stepify.command.task.outputs;
+
+public record MicroTaskCountsDTO(
+        int total,
+        int pending,
+        int inProgress,
+        int completed,
+        int cancelled
+) {
+}
@@ -0,0 +1,10 @@
+package br.com.stepify.command.task.outputs;
+
+import java.time.LocalDateTime;
+
+public record StatsBucketDTO(
+        LocalDateTime start,
+        long created,
+        long completed
+) {
+}
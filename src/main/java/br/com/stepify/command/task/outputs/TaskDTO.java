@@ -2,9 +2,12 @@ package br.com.stepify.command.task.outputs;
 
 import br.com.stepify.enums.ETaskPriority;
 import br.com.stepify.enums.ETaskStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDateTime;
 
+// Null properties are omitted so fields= projections only serialize what was requested.
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record TaskDTO(
         String id,
         String title,
@@ -13,7 +16,10 @@ public record TaskDTO(
         ETaskPriority priority,
         LocalDateTime dueDate,
         LocalDateTime completedAt,
+        MicroTaskCountsDTO microTaskCounts,
+        Integer progress,
         LocalDateTime createdAt,
-        LocalDateTime updatedAt
+        LocalDateTime updatedAt,
+        Long version
 ) {
 }
@@ -0,0 +1,12 @@
+package br.com.stepify.command.task.outputs;
+
+import br.com.stepify.command.microtask.outputs.MicroTaskDTO;
+
+import java.util.List;
+
+public record TaskSearchResultDTO(
+        TaskDTO task,
+        double score,
+        List<MicroTaskDTO> matchingMicroTasks
+) {
+}
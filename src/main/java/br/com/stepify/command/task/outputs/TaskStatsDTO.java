@@ -0,0 +1,17 @@
+package br.com.stepify.command.task.outputs;
+
+import br.com.stepify.enums.ETaskPriority;
+import br.com.stepify.enums.ETaskStatus;
+
+import java.util.List;
+import java.util.Map;
+
+public record TaskStatsDTO(
+        long total,
+        Map<ETaskStatus, Long> byStatus,
+        Map<ETaskPriority, Long> byPriority,
+        long overdue,
+        CompletionTimeDTO completionTime,
+        List<StatsBucketDTO> buckets
+) {
+}
@@ -0,0 +1,11 @@
+package br.com.stepify.command.task.outputs;
+
+import br.com.stepify.command.microtask.outputs.MicroTaskDTO;
+
+import java.util.List;
+
+public record TaskWithMicroTasksDTO(
+        TaskDTO task,
+        List<MicroTaskDTO> microTasks
+) {
+}
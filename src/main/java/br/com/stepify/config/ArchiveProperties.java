@@ -0,0 +1,23 @@
+package br.com.stepify.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "stepify.jobs.archive")
+public record ArchiveProperties(
+        @DefaultValue("true")
+        boolean enabled,
+        @DefaultValue("500")
+        int batchSize,
+        @DefaultValue("20")
+        int maxBatchesPerRun,
+        @DefaultValue("30d")
+        Duration deletedAfter,
+        @DefaultValue("90d")
+        Duration completedAfter,
+        @DefaultValue("365d")
+        Duration retention
+) {
+}
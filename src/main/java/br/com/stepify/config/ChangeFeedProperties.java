@@ -0,0 +1,13 @@
+package br.com.stepify.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "stepify.sync.changes")
+public record ChangeFeedProperties(
+        @DefaultValue("5s")
+        Duration settleDelay
+) {
+}
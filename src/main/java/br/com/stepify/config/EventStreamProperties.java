@@ -0,0 +1,21 @@
+package br.com.stepify.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "stepify.events")
+public record EventStreamProperties(
+        @DefaultValue("true")
+        boolean changeStreamsEnabled,
+        @DefaultValue("256")
+        int subscriberBufferSize,
+        @DefaultValue("1000")
+        int maxSubscribers,
+        @DefaultValue("15s")
+        Duration heartbeatInterval,
+        @DefaultValue("30m")
+        Duration subscriptionTimeout
+) {
+}
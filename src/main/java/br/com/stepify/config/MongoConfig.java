@@ -1,9 +1,40 @@
 package br.com.stepify.config;
 
+import br.com.stepify.mongo.metrics.MongoDocumentMetricsListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @EnableMongoAuditing
 public class MongoConfig {
+    @Bean
+    @ConditionalOnProperty(prefix = "stepify.mongo.transactions", name = "enabled", havingValue = "true")
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+
+    // With virtual threads request concurrency is no longer capped by the Tomcat pool, so the connection pool
+    // becomes the limit: a short max wait time turns saturation into a fast 503 instead of a pile of parked requests.
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolCustomizer(MongoPoolProperties properties) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(properties.maxSize())
+                .minSize(properties.minSize())
+                .maxConnecting(properties.maxConnecting())
+                .maxWaitTime(properties.maxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                .maxConnectionIdleTime(properties.maxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoDocumentMetricsCustomizer(MeterRegistry meterRegistry) {
+        return settings -> settings.addCommandListener(new MongoDocumentMetricsListener(meterRegistry));
+    }
 }
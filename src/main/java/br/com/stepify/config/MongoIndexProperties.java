@@ -0,0 +1,19 @@
+package br.com.stepify.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "stepify.mongo.indexes")
+public record MongoIndexProperties(
+        @DefaultValue("true")
+        boolean ensureOnStartup,
+        @DefaultValue("true")
+        boolean verifyQueryPlans,
+        // Only for sharded clusters: the indexes must exist first, and shardCollection fails on a replica set.
+        @DefaultValue("false")
+        boolean shardCollections,
+        // Owner assigned at startup to tasks and micro tasks written before they were scoped to an owner. Without it
+        // those documents stay invisible to every owner.
+        String backfillOwnerId
+) {
+}
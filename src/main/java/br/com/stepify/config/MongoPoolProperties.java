@@ -0,0 +1,21 @@
+package br.com.stepify.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "stepify.mongo.pool")
+public record MongoPoolProperties(
+        @DefaultValue("100")
+        int maxSize,
+        @DefaultValue("0")
+        int minSize,
+        @DefaultValue("2")
+        int maxConnecting,
+        @DefaultValue("2s")
+        Duration maxWaitTime,
+        @DefaultValue("60s")
+        Duration maxConnectionIdleTime
+) {
+}
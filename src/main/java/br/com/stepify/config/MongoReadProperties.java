@@ -0,0 +1,23 @@
+package br.com.stepify.config;
+
+import br.com.stepify.enums.EReadRoute;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "stepify.mongo.reads")
+public record MongoReadProperties(
+        @DefaultValue("secondaryPreferred")
+        String replicaReadPreference,
+        // The driver rejects anything below 90 seconds.
+        @DefaultValue("90s")
+        Duration maxStaleness,
+        // The changes feeds stay on the primary: a secondary may lag longer than the settle delay and hide writes.
+        // Lookups by ID are not routable so a client always reads its own writes.
+        @DefaultValue({"TASK_LIST", "TASK_STREAM", "TASK_VERSION", "TASK_SEARCH", "TASK_STATS",
+                "MICRO_TASK_LIST", "MICRO_TASK_STREAM", "MICRO_TASK_VERSION"})
+        Set<EReadRoute> replicaRoutes
+) {
+}
@@ -0,0 +1,15 @@
+package br.com.stepify.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "stepify.jobs.orphan-cleanup")
+public record OrphanCleanupProperties(
+        @DefaultValue("true")
+        boolean enabled,
+        @DefaultValue("500")
+        int batchSize,
+        @DefaultValue("100")
+        int maxBatchesPerRun
+) {
+}
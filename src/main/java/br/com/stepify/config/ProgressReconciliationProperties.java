@@ -0,0 +1,15 @@
+package br.com.stepify.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "stepify.jobs.progress-reconciliation")
+public record ProgressReconciliationProperties(
+        @DefaultValue("true")
+        boolean enabled,
+        @DefaultValue("500")
+        int batchSize,
+        @DefaultValue("1000")
+        int maxBatchesPerRun
+) {
+}
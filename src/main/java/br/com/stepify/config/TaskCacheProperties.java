@@ -0,0 +1,17 @@
+package br.com.stepify.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "stepify.cache.task")
+public record TaskCacheProperties(
+        @DefaultValue("caffeine")
+        String type,
+        @DefaultValue("10000")
+        long maximumSize,
+        @DefaultValue("60s")
+        Duration timeToLive
+) {
+}
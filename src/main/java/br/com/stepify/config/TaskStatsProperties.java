@@ -0,0 +1,15 @@
+package br.com.stepify.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "stepify.stats")
+public record TaskStatsProperties(
+        @DefaultValue("30s")
+        Duration cacheTimeToLive,
+        @DefaultValue("10000")
+        long cacheMaximumSize
+) {
+}
@@ -1,19 +1,37 @@
 package br.com.stepify.controller;
 
+import br.com.stepify.command.common.inputs.BulkDeleteCommand;
+import br.com.stepify.command.common.outputs.BulkResultDTO;
+import br.com.stepify.command.common.outputs.ChangesDTO;
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.microtask.inputs.BulkCreateMicroTasksCommand;
+import br.com.stepify.command.microtask.inputs.BulkUpdateMicroTasksCommand;
 import br.com.stepify.command.microtask.inputs.CreateMicroTaskCommand;
+import br.com.stepify.command.microtask.inputs.MicroTaskQueryCommand;
+import br.com.stepify.command.microtask.inputs.MoveMicroTaskCommand;
+import br.com.stepify.command.microtask.inputs.ReorderMicroTasksCommand;
 import br.com.stepify.command.microtask.inputs.UpdateMicroTaskCommand;
 import br.com.stepify.command.microtask.outputs.MicroTaskDTO;
+import br.com.stepify.controller.support.ConditionalRequests;
+import br.com.stepify.controller.support.NdjsonStreamer;
+import br.com.stepify.controller.support.Tenancy;
+import br.com.stepify.enums.ETaskStatus;
 import br.com.stepify.service.MicroTaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/microtasks")
@@ -21,49 +39,156 @@ import java.util.List;
 @Tag(name = "MicroTask Controller", description = "Operations related to the micro tasks")
 public class MicroTaskController {
     private final MicroTaskService microTaskService;
+    private final NdjsonStreamer ndjsonStreamer;
 
     @Operation(summary = "Create a micro task")
     @ApiResponse(responseCode = "201", description = "Micro task created successfully")
     @ApiResponse(responseCode = "400", description = "Invalid micro task input")
     @PostMapping
-    public ResponseEntity<MicroTaskDTO> create(@RequestBody @Valid CreateMicroTaskCommand command) {
-        MicroTaskDTO response = microTaskService.create(command);
+    public ResponseEntity<MicroTaskDTO> create(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestBody @Valid CreateMicroTaskCommand command) {
+        MicroTaskDTO response = microTaskService.create(ownerId, command);
         URI location = URI.create("/microtasks/" + response.id());
 
         return ResponseEntity.created(location).body(response);
     }
 
-    @Operation(summary = "Find all micro tasks")
+    @Operation(summary = "Create micro tasks in bulk")
+    @ApiResponse(responseCode = "200", description = "Bulk creation processed, see per-item results")
+    @ApiResponse(responseCode = "400", description = "Invalid micro task input")
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResultDTO> createBulk(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestBody @Valid BulkCreateMicroTasksCommand command) {
+        return ResponseEntity.ok(microTaskService.createMicroTasks(ownerId, command));
+    }
+
+    @Operation(summary = "Update micro tasks in bulk")
+    @ApiResponse(responseCode = "200", description = "Bulk update processed, see per-item results")
+    @ApiResponse(responseCode = "400", description = "Invalid micro task input")
+    @PatchMapping("/bulk")
+    public ResponseEntity<BulkResultDTO> updateBulk(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestBody @Valid BulkUpdateMicroTasksCommand command) {
+        return ResponseEntity.ok(microTaskService.updateMicroTasks(ownerId, command));
+    }
+
+    @Operation(summary = "Delete micro tasks in bulk")
+    @ApiResponse(responseCode = "200", description = "Bulk deletion processed, see per-item results")
+    @ApiResponse(responseCode = "400", description = "Invalid input")
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkResultDTO> deleteBulk(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestBody @Valid BulkDeleteCommand command) {
+        return ResponseEntity.ok(microTaskService.deleteMicroTasks(ownerId, command));
+    }
+
+    @Operation(summary = "Reorder the micro tasks of a task", description = "ids lists every micro task of the task in "
+            + "the new order. The new ranks are written in a single bulk write.")
+    @ApiResponse(responseCode = "200", description = "Micro tasks reordered successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid input")
+    @ApiResponse(responseCode = "404", description = "Task not found")
+    @ApiResponse(responseCode = "409", description = "ids do not match the current micro tasks of the task")
+    @PutMapping("/order")
+    public ResponseEntity<List<MicroTaskDTO>> reorder(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestBody @Valid ReorderMicroTasksCommand command) {
+        return ResponseEntity.ok(microTaskService.reorderMicroTasks(ownerId, command));
+    }
+
+    @Operation(summary = "Find a page of micro tasks", description = "Filters by status. "
+            + "Sort by order, createdAt, updatedAt or title, prefixed with '-' for descending order. "
+            + "Use fields to return only the listed properties.")
     @ApiResponse(responseCode = "200", description = "Micro tasks found successfully")
+    @ApiResponse(responseCode = "304", description = "Page not modified")
+    @ApiResponse(responseCode = "400", description = "Invalid page cursor, filter, sort or fields")
     @GetMapping
-    public ResponseEntity<List<MicroTaskDTO>> findAll() {
-        return ResponseEntity.ok(microTaskService.findAllMicroTasks());
+    public ResponseEntity<PageDTO<MicroTaskDTO>> findAll(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestParam(value = "cursor", required = false) String cursor,
+                                                         @RequestParam(value = "size", required = false) Integer size,
+                                                         @RequestParam(value = "status", required = false) Set<ETaskStatus> statuses,
+                                                         @RequestParam(value = "sort", required = false) String sort,
+                                                         @RequestParam(value = "fields", required = false) Set<String> fields,
+                                                         WebRequest request) {
+        MicroTaskQueryCommand command = new MicroTaskQueryCommand(statuses, sort, fields);
+        String queryKey = ownerId + "|" + command + "|" + cursor + "|" + size;
+
+        if (ConditionalRequests.hasValidators(request)) {
+            PageDTO<MicroTaskDTO> versions = microTaskService.findMicroTasks(ownerId, command.withFields(Set.of("updatedAt")), cursor, size);
+
+            if (request.checkNotModified(ConditionalRequests.pageEtag(queryKey, versions, MicroTaskDTO::id, MicroTaskDTO::updatedAt))) {
+                return null;
+            }
+        }
+
+        PageDTO<MicroTaskDTO> page = microTaskService.findMicroTasks(ownerId, command, cursor, size);
+
+        return ResponseEntity.ok()
+                .eTag(ConditionalRequests.pageEtag(queryKey, page, MicroTaskDTO::id, MicroTaskDTO::updatedAt))
+                .body(page);
+    }
+
+    @Operation(summary = "Stream all micro tasks as NDJSON", description = "Accepts the same filters, sort and fields as the paged search.")
+    @ApiResponse(responseCode = "200", description = "Micro tasks streamed successfully")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestParam(value = "status", required = false) Set<ETaskStatus> statuses,
+                                                           @RequestParam(value = "sort", required = false) String sort,
+                                                           @RequestParam(value = "fields", required = false) Set<String> fields) {
+        MicroTaskQueryCommand command = new MicroTaskQueryCommand(statuses, sort, fields);
+        StreamingResponseBody body = ndjsonStreamer.<MicroTaskDTO>stream(consumer -> microTaskService.streamAllMicroTasks(ownerId, command, consumer));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(summary = "Find micro tasks changed since a token", description = "Returns created and updated micro tasks "
+            + "plus the IDs of deleted ones, oldest change first. Omit since for a full sync and pass nextToken on the next call.")
+    @ApiResponse(responseCode = "200", description = "Changes found successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid changes token")
+    @ApiResponse(responseCode = "410", description = "Changes token older than the retained deletions, sync again without a token")
+    @GetMapping("/changes")
+    public ResponseEntity<ChangesDTO<MicroTaskDTO>> findChanges(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestParam(value = "since", required = false) String since,
+                                                                @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(microTaskService.findMicroTaskChanges(ownerId, since, size));
     }
 
     @Operation(summary = "Find a micro task by ID")
     @ApiResponse(responseCode = "200", description = "Micro task found successfully")
+    @ApiResponse(responseCode = "304", description = "Micro task not modified")
     @ApiResponse(responseCode = "404", description = "Micro task not found")
     @GetMapping("/{microTaskId}")
-    public ResponseEntity<MicroTaskDTO> findById(@PathVariable(value = "microTaskId") String microTaskId) {
-        return ResponseEntity.ok(microTaskService.findMicroTaskById(microTaskId));
+    public ResponseEntity<MicroTaskDTO> findById(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @PathVariable(value = "microTaskId") String microTaskId, WebRequest request) {
+        if (ConditionalRequests.hasValidators(request)
+                && ConditionalRequests.isNotModified(request, microTaskService.findMicroTaskVersion(ownerId, microTaskId))) {
+            return null;
+        }
+
+        MicroTaskDTO microTask = microTaskService.findMicroTaskById(ownerId, microTaskId);
+        return ConditionalRequests.ok(microTask, microTask.version(), microTask.updatedAt());
     }
 
-    @Operation(summary = "Update a micro task by ID")
+    @Operation(summary = "Update a micro task by ID", description = "Send the micro task ETag in If-Match to only update that version.")
     @ApiResponse(responseCode = "200", description = "Micro task updated successfully")
-    @ApiResponse(responseCode = "400", description = "Invalid micro task input")
+    @ApiResponse(responseCode = "400", description = "Invalid micro task input or If-Match header")
     @ApiResponse(responseCode = "404", description = "Micro task not found")
+    @ApiResponse(responseCode = "409", description = "Micro task was modified by another request")
     @PatchMapping("/{microTaskId}")
-    public ResponseEntity<MicroTaskDTO> updateById(@PathVariable(value = "microTaskId") String microTaskId,
+    public ResponseEntity<MicroTaskDTO> updateById(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @PathVariable(value = "microTaskId") String microTaskId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                    @RequestBody @Valid UpdateMicroTaskCommand command) {
-        return ResponseEntity.ok(microTaskService.updateMicroTaskById(microTaskId, command));
+        MicroTaskDTO microTask = microTaskService.updateMicroTaskById(ownerId, microTaskId, command, ConditionalRequests.expectedVersion(ifMatch));
+        return ConditionalRequests.ok(microTask, microTask.version(), microTask.updatedAt());
+    }
+
+    @Operation(summary = "Move a micro task", description = "Places the micro task right after afterId, "
+            + "or first when afterId is omitted.")
+    @ApiResponse(responseCode = "200", description = "Micro task moved successfully")
+    @ApiResponse(responseCode = "400", description = "afterId is the micro task itself or belongs to another task")
+    @ApiResponse(responseCode = "404", description = "Micro task not found")
+    @PostMapping("/{microTaskId}/move")
+    public ResponseEntity<MicroTaskDTO> move(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @PathVariable(value = "microTaskId") String microTaskId,
+                                             @RequestBody MoveMicroTaskCommand command) {
+        MicroTaskDTO microTask = microTaskService.moveMicroTask(ownerId, microTaskId, command);
+        return ConditionalRequests.ok(microTask, microTask.version(), microTask.updatedAt());
     }
 
     @Operation(summary = "Delete a micro task by ID")
     @ApiResponse(responseCode = "204", description = "Micro task deleted successfully")
     @ApiResponse(responseCode = "404", description = "Micro task not found")
     @DeleteMapping("/{microTaskId}")
-    public ResponseEntity<MicroTaskDTO> deleteById(@PathVariable(value = "microTaskId") String microTaskId) {
-        microTaskService.deleteMicroTaskById(microTaskId);
+    public ResponseEntity<MicroTaskDTO> deleteById(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @PathVariable(value = "microTaskId") String microTaskId) {
+        microTaskService.deleteMicroTaskById(ownerId, microTaskId);
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,68 +1,256 @@
 package br.com.stepify.controller;
 
+import br.com.stepify.command.common.inputs.BulkDeleteCommand;
+import br.com.stepify.command.common.outputs.BulkResultDTO;
+import br.com.stepify.command.common.outputs.ChangesDTO;
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.microtask.outputs.MicroTaskDTO;
+import br.com.stepify.command.task.inputs.BulkCreateTasksCommand;
+import br.com.stepify.command.task.inputs.BulkUpdateTasksCommand;
 import br.com.stepify.command.task.inputs.CreateTaskCommand;
+import br.com.stepify.command.task.inputs.TaskQueryCommand;
 import br.com.stepify.command.task.inputs.UpdateTaskCommand;
 import br.com.stepify.command.task.outputs.TaskDTO;
+import br.com.stepify.command.task.outputs.TaskSearchResultDTO;
+import br.com.stepify.command.task.outputs.TaskStatsDTO;
+import br.com.stepify.command.task.outputs.TaskWithMicroTasksDTO;
+import br.com.stepify.controller.support.ConditionalRequests;
+import br.com.stepify.controller.support.NdjsonStreamer;
+import br.com.stepify.controller.support.Tenancy;
+import br.com.stepify.enums.EStatsBucket;
+import br.com.stepify.enums.ETaskPriority;
+import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.event.TaskEventBus;
+import br.com.stepify.service.TaskSearchService;
 import br.com.stepify.service.TaskService;
+import br.com.stepify.service.TaskStatsService;
+import br.com.stepify.service.TaskStepsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
 @Tag(name = "Task Controller", description = "Operations related to the tasks")
 public class TaskController {
     private final TaskService taskService;
+    private final TaskStepsService taskStepsService;
+    private final TaskSearchService taskSearchService;
+    private final TaskStatsService taskStatsService;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final TaskEventBus taskEventBus;
 
     @Operation(summary = "Create a task")
     @ApiResponse(responseCode = "201", description = "Task created successfully")
     @ApiResponse(responseCode = "400", description = "Invalid task input")
     @PostMapping
-    public ResponseEntity<TaskDTO> create(@RequestBody @Valid CreateTaskCommand command) {
-        TaskDTO response = taskService.createTask(command);
+    public ResponseEntity<TaskDTO> create(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestBody @Valid CreateTaskCommand command) {
+        TaskDTO response = taskService.createTask(ownerId, command);
         URI location = URI.create("/tasks/" + response.id());
 
         return ResponseEntity.created(location).body(response);
     }
 
-    @Operation(summary = "Find all tasks")
+    @Operation(summary = "Create tasks in bulk")
+    @ApiResponse(responseCode = "200", description = "Bulk creation processed, see per-item results")
+    @ApiResponse(responseCode = "400", description = "Invalid task input")
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResultDTO> createBulk(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestBody @Valid BulkCreateTasksCommand command) {
+        return ResponseEntity.ok(taskService.createTasks(ownerId, command));
+    }
+
+    @Operation(summary = "Update tasks in bulk")
+    @ApiResponse(responseCode = "200", description = "Bulk update processed, see per-item results")
+    @ApiResponse(responseCode = "400", description = "Invalid task input")
+    @PatchMapping("/bulk")
+    public ResponseEntity<BulkResultDTO> updateBulk(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestBody @Valid BulkUpdateTasksCommand command) {
+        return ResponseEntity.ok(taskService.updateTasks(ownerId, command));
+    }
+
+    @Operation(summary = "Delete tasks in bulk")
+    @ApiResponse(responseCode = "200", description = "Bulk deletion processed, see per-item results")
+    @ApiResponse(responseCode = "400", description = "Invalid input")
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkResultDTO> deleteBulk(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestBody @Valid BulkDeleteCommand command) {
+        return ResponseEntity.ok(taskService.deleteTasks(ownerId, command));
+    }
+
+    @Operation(summary = "Find a page of tasks", description = "Filters by status, priority, due date range and "
+            + "progress range. Sort by createdAt, updatedAt, dueDate, title or progress, prefixed with '-' for descending order. "
+            + "Use fields to return only the listed properties.")
     @ApiResponse(responseCode = "200", description = "Tasks found successfully")
+    @ApiResponse(responseCode = "304", description = "Page not modified")
+    @ApiResponse(responseCode = "400", description = "Invalid page cursor, filter, sort or fields")
     @GetMapping
-    public ResponseEntity<List<TaskDTO>> findAll() {
-        return ResponseEntity.ok(taskService.findAllTasks());
+    public ResponseEntity<PageDTO<TaskDTO>> findAll(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestParam(value = "cursor", required = false) String cursor,
+                                                    @RequestParam(value = "size", required = false) Integer size,
+                                                    @RequestParam(value = "status", required = false) Set<ETaskStatus> statuses,
+                                                    @RequestParam(value = "priority", required = false) Set<ETaskPriority> priorities,
+                                                    @RequestParam(value = "dueFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueFrom,
+                                                    @RequestParam(value = "dueTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueTo,
+                                                    @RequestParam(value = "minProgress", required = false) Integer minProgress,
+                                                    @RequestParam(value = "maxProgress", required = false) Integer maxProgress,
+                                                    @RequestParam(value = "sort", required = false) String sort,
+                                                    @RequestParam(value = "fields", required = false) Set<String> fields,
+                                                    WebRequest request) {
+        TaskQueryCommand command = new TaskQueryCommand(statuses, priorities, dueFrom, dueTo, minProgress, maxProgress, sort, fields);
+        String queryKey = ownerId + "|" + command + "|" + cursor + "|" + size;
+
+        if (ConditionalRequests.hasValidators(request)) {
+            PageDTO<TaskDTO> versions = taskService.findTasks(ownerId, command.withFields(Set.of("updatedAt")), cursor, size);
+
+            if (request.checkNotModified(ConditionalRequests.pageEtag(queryKey, versions, TaskDTO::id, TaskDTO::updatedAt))) {
+                return null;
+            }
+        }
+
+        PageDTO<TaskDTO> page = taskService.findTasks(ownerId, command, cursor, size);
+
+        return ResponseEntity.ok()
+                .eTag(ConditionalRequests.pageEtag(queryKey, page, TaskDTO::id, TaskDTO::updatedAt))
+                .body(page);
+    }
+
+    @Operation(summary = "Stream all tasks as NDJSON", description = "Accepts the same filters, sort and fields as the paged search.")
+    @ApiResponse(responseCode = "200", description = "Tasks streamed successfully")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestParam(value = "status", required = false) Set<ETaskStatus> statuses,
+                                                           @RequestParam(value = "priority", required = false) Set<ETaskPriority> priorities,
+                                                           @RequestParam(value = "dueFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueFrom,
+                                                           @RequestParam(value = "dueTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueTo,
+                                                           @RequestParam(value = "minProgress", required = false) Integer minProgress,
+                                                           @RequestParam(value = "maxProgress", required = false) Integer maxProgress,
+                                                           @RequestParam(value = "sort", required = false) String sort,
+                                                           @RequestParam(value = "fields", required = false) Set<String> fields) {
+        TaskQueryCommand command = new TaskQueryCommand(statuses, priorities, dueFrom, dueTo, minProgress, maxProgress, sort, fields);
+        StreamingResponseBody body = ndjsonStreamer.<TaskDTO>stream(consumer -> taskService.streamAllTasks(ownerId, command, consumer));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(summary = "Find tasks changed since a token", description = "Returns created and updated tasks plus the IDs "
+            + "of deleted ones, oldest change first. Omit since for a full sync and pass nextToken on the next call.")
+    @ApiResponse(responseCode = "200", description = "Changes found successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid changes token")
+    @ApiResponse(responseCode = "410", description = "Changes token older than the retained deletions, sync again without a token")
+    @GetMapping("/changes")
+    public ResponseEntity<ChangesDTO<TaskDTO>> findChanges(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestParam(value = "since", required = false) String since,
+                                                           @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(taskService.findTaskChanges(ownerId, since, size));
+    }
+
+    @Operation(summary = "Subscribe to task and micro task changes", description = "Server-Sent Events named task or "
+            + "micro_task. Pass taskId to only receive changes of one task and its micro tasks. A subscriber that falls "
+            + "too far behind receives an overflow event and is disconnected, and should resume from the changes feed.")
+    @ApiResponse(responseCode = "200", description = "Subscribed successfully")
+    @ApiResponse(responseCode = "503", description = "Too many subscribers")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestParam(value = "taskId", required = false) String taskId) {
+        return taskEventBus.subscribe(ownerId, taskId);
+    }
+
+    @Operation(summary = "Find a page of tasks together with their micro tasks")
+    @ApiResponse(responseCode = "200", description = "Tasks found successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid page cursor")
+    @GetMapping("/with-microtasks")
+    public ResponseEntity<PageDTO<TaskWithMicroTasksDTO>> findAllWithMicroTasks(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestParam(value = "cursor", required = false) String cursor,
+                                                                                @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(taskStepsService.findTasksWithMicroTasks(ownerId, cursor, size));
+    }
+
+    @Operation(summary = "Find task statistics", description = "Counts of the live tasks created in the optional range by "
+            + "status and priority, the overdue count and the completion time. Pass bucket to also count created and "
+            + "completed tasks per day, week or month. Results are cached for a short time.")
+    @ApiResponse(responseCode = "200", description = "Statistics computed successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid range or bucket")
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStatsDTO> findStats(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId,
+                                                  @RequestParam(value = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+                                                  @RequestParam(value = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+                                                  @RequestParam(value = "bucket", required = false) EStatsBucket bucket) {
+        return ResponseEntity.ok(taskStatsService.findTaskStats(ownerId, createdFrom, createdTo, bucket));
+    }
+
+    @Operation(summary = "Search tasks by text", description = "Matches words of q against the title and description of "
+            + "tasks and micro tasks. Tasks are ranked by their best match and list the micro tasks that matched.")
+    @ApiResponse(responseCode = "200", description = "Search processed successfully")
+    @ApiResponse(responseCode = "400", description = "Blank or too long q, or invalid page cursor")
+    @GetMapping("/search")
+    public ResponseEntity<PageDTO<TaskSearchResultDTO>> search(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @RequestParam(value = "q", required = false) String text,
+                                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                                              @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(taskSearchService.searchTasks(ownerId, text, cursor, size));
     }
 
     @Operation(summary = "Find a task by ID")
     @ApiResponse(responseCode = "200", description = "Task found successfully")
+    @ApiResponse(responseCode = "304", description = "Task not modified")
     @ApiResponse(responseCode = "404", description = "Task not found")
     @GetMapping("/{taskId}")
-    public ResponseEntity<TaskDTO> findById(@PathVariable(value = "taskId") String taskId) {
-        return ResponseEntity.ok(taskService.findTaskById(taskId));
+    public ResponseEntity<TaskDTO> findById(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @PathVariable(value = "taskId") String taskId, WebRequest request) {
+        if (ConditionalRequests.hasValidators(request)
+                && ConditionalRequests.isNotModified(request, taskService.findTaskVersion(ownerId, taskId))) {
+            return null;
+        }
+
+        TaskDTO task = taskService.findTaskById(ownerId, taskId);
+        return ConditionalRequests.ok(task, task.version(), task.updatedAt());
     }
 
-    @Operation(summary = "Update a task by ID")
+    @Operation(summary = "Find a task by ID together with its micro tasks", description = "Pass includeArchived=true "
+            + "to also find a task that was completed long ago and moved to the archive.")
+    @ApiResponse(responseCode = "200", description = "Task found successfully")
+    @ApiResponse(responseCode = "404", description = "Task not found")
+    @GetMapping("/{taskId}/with-microtasks")
+    public ResponseEntity<TaskWithMicroTasksDTO> findByIdWithMicroTasks(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @PathVariable(value = "taskId") String taskId,
+                                                                        @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(taskStepsService.findTaskWithMicroTasks(ownerId, taskId, includeArchived));
+    }
+
+    @Operation(summary = "Find the micro tasks of a task ordered by their order")
+    @ApiResponse(responseCode = "200", description = "Micro tasks found successfully")
+    @ApiResponse(responseCode = "404", description = "Task not found")
+    @GetMapping("/{taskId}/microtasks")
+    public ResponseEntity<List<MicroTaskDTO>> findMicroTasks(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @PathVariable(value = "taskId") String taskId) {
+        return ResponseEntity.ok(taskStepsService.findMicroTasksByTaskId(ownerId, taskId));
+    }
+
+    @Operation(summary = "Update a task by ID", description = "Send the task ETag in If-Match to only update that version.")
     @ApiResponse(responseCode = "200", description = "Task updated successfully")
-    @ApiResponse(responseCode = "400", description = "Invalid task input")
+    @ApiResponse(responseCode = "400", description = "Invalid task input or If-Match header")
     @ApiResponse(responseCode = "404", description = "Task not found")
+    @ApiResponse(responseCode = "409", description = "Task was modified by another request")
     @PatchMapping("/{taskId}")
-    public ResponseEntity<TaskDTO> updateById(@PathVariable(value = "taskId") String taskId,
+    public ResponseEntity<TaskDTO> updateById(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @PathVariable(value = "taskId") String taskId,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                               @RequestBody @Valid UpdateTaskCommand command) {
-        return ResponseEntity.ok(taskService.updateTaskById(taskId, command));
+        TaskDTO task = taskService.updateTaskById(ownerId, taskId, command, ConditionalRequests.expectedVersion(ifMatch));
+        return ConditionalRequests.ok(task, task.version(), task.updatedAt());
     }
 
     @Operation(summary = "Delete a task by ID")
     @ApiResponse(responseCode = "204", description = "Task deleted successfully")
     @ApiResponse(responseCode = "404", description = "Task not found")
     @DeleteMapping("/{taskId}")
-    public ResponseEntity<TaskDTO> deleteTaskById(@PathVariable(value = "taskId") String taskId) {
-        taskService.deleteTaskById(taskId);
+    public ResponseEntity<TaskDTO> deleteTaskById(@RequestHeader(Tenancy.OWNER_ID_HEADER) String ownerId, @PathVariable(value = "taskId") String taskId) {
+        taskService.deleteTaskById(ownerId, taskId);
         return ResponseEntity.noContent().build();
     }
 }
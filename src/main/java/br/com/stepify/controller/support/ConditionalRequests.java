@@ -0,0 +1,97 @@
+package br.com.stepify.controller.support;
+
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.common.outputs.VersionDTO;
+import br.com.stepify.exception.BadRequestException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+// Single documents get a strong ETag from their version, which also serves as the If-Match precondition on PATCH.
+// Pages only have updatedAt to go by, which Mongo stores with millisecond precision, so their ETags are weak.
+public final class ConditionalRequests {
+    private ConditionalRequests() {
+    }
+
+    public static boolean hasValidators(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    public static boolean isNotModified(WebRequest request, VersionDTO version) {
+        if (version.updatedAt() == null) {
+            return request.checkNotModified(etag(version.version()));
+        }
+
+        return request.checkNotModified(etag(version.version()), epochMillis(version.updatedAt()));
+    }
+
+    public static <T> ResponseEntity<T> ok(T body, Long version, LocalDateTime updatedAt) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag(version));
+
+        if (updatedAt != null) {
+            response.lastModified(epochMillis(updatedAt));
+        }
+
+        return response.body(body);
+    }
+
+    // Returns the version an If-Match header asks for, or null when the update is unconditional.
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String etag = ifMatch.trim();
+        if (etag.length() < 3 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            throw new BadRequestException("If-Match must be a single strong ETag: " + ifMatch);
+        }
+
+        try {
+            return Long.parseLong(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("If-Match must be a single strong ETag: " + ifMatch);
+        }
+    }
+
+    // A page changes when any item is updated, added or removed, or when the next cursor moves. The query key keeps
+    // different filters, sorts and projections of the same page from sharing an ETag.
+    public static <T> String pageEtag(String queryKey, PageDTO<T> page, Function<T, String> idGetter,
+                                      Function<T, LocalDateTime> updatedAtGetter) {
+        MessageDigest digest = sha256();
+        digest.update(queryKey.getBytes(StandardCharsets.UTF_8));
+
+        for (T item : page.items()) {
+            LocalDateTime updatedAt = updatedAtGetter.apply(item);
+            digest.update((idGetter.apply(item) + ":" + (updatedAt == null ? "" : epochMillis(updatedAt)) + ";")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+
+        digest.update(String.valueOf(page.nextCursor()).getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    // Documents written before versioning have no version field and are treated as version 0.
+    private static String etag(Long version) {
+        return "\"" + (version == null ? 0 : version) + "\"";
+    }
+
+    private static long epochMillis(LocalDateTime updatedAt) {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
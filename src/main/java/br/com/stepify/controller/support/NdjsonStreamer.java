@@ -0,0 +1,37 @@
+package br.com.stepify.controller.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+public class NdjsonStreamer {
+    private final ObjectMapper objectMapper;
+
+    public <T> StreamingResponseBody stream(Consumer<Consumer<T>> source) {
+        return outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                source.accept(item -> write(writer, item));
+                writer.flush();
+                outputStream.write('\n');
+            }
+        };
+    }
+
+    private void write(SequenceWriter writer, Object item) {
+        try {
+            writer.write(item);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
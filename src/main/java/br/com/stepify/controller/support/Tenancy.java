@@ -0,0 +1,10 @@
+package br.com.stepify.controller.support;
+
+// Every task and micro task belongs to an owner. The owner ID is expected to be set by the gateway in front of the
+// service, and every query is scoped to it.
+public final class Tenancy {
+    public static final String OWNER_ID_HEADER = "X-Owner-Id";
+
+    private Tenancy() {
+    }
+}
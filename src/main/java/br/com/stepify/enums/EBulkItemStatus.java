@@ -0,0 +1,9 @@
+package br.com.stepify.enums;
+
+public enum EBulkItemStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    NOT_FOUND,
+    FAILED
+}
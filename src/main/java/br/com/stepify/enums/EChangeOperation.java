@@ -0,0 +1,6 @@
+package br.com.stepify.enums;
+
+public enum EChangeOperation {
+    UPSERTED,
+    DELETED
+}
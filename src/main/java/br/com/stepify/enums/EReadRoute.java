@@ -0,0 +1,14 @@
+package br.com.stepify.enums;
+
+public enum EReadRoute {
+    TASK_LIST,
+    TASK_STREAM,
+    TASK_VERSION,
+    TASK_CHANGES,
+    TASK_SEARCH,
+    TASK_STATS,
+    MICRO_TASK_LIST,
+    MICRO_TASK_STREAM,
+    MICRO_TASK_VERSION,
+    MICRO_TASK_CHANGES
+}
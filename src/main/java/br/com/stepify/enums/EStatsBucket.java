@@ -0,0 +1,7 @@
+package br.com.stepify.enums;
+
+public enum EStatsBucket {
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,160 @@
+package br.com.stepify.event;
+
+import br.com.stepify.command.common.outputs.ChangeEventDTO;
+import br.com.stepify.enums.EChangeEntity;
+import br.com.stepify.enums.EChangeOperation;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "stepify.events", name = "change-streams-enabled", havingValue = "true", matchIfMissing = true)
+public class ChangeStreamWatcher {
+    // Returned by servers that are neither a replica set nor a sharded cluster.
+    private static final int CHANGE_STREAMS_UNSUPPORTED = 40573;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final TaskEventBus eventBus;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean running = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(() -> watch(Task.class, EChangeEntity.TASK));
+        executor.execute(() -> watch(MicroTask.class, EChangeEntity.MICRO_TASK));
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    // Keeps the resume token of the last delivered change so a dropped connection picks up where it left off.
+    private void watch(Class<?> entityClass, EChangeEntity entity) {
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        BsonDocument resumeToken = null;
+
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open(collection, resumeToken)) {
+                eventBus.useChangeStreams(entity, true);
+
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+
+                    if (change != null) {
+                        resumeToken = change.getResumeToken();
+                        ChangeEventDTO event = toEvent(entity, change);
+
+                        if (event != null) {
+                            eventBus.publish(event);
+                        }
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAMS_UNSUPPORTED) {
+                    log.info("Change streams are not supported by this deployment, {} events are published in-process", collection);
+                    eventBus.useChangeStreams(entity, false);
+                    return;
+                }
+
+                resumeToken = retryAfterFailure(entity, collection, e, resumeToken);
+            } catch (RuntimeException e) {
+                resumeToken = retryAfterFailure(entity, collection, e, resumeToken);
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open(String collection, BsonDocument resumeToken) {
+        List<Bson> pipeline = List.of(
+                Aggregates.match(Filters.in("operationType", "insert", "update", "replace")),
+                Aggregates.project(Projections.include("operationType", "documentKey", "fullDocument.ownerId", "fullDocument.taskId",
+                        "fullDocument.deleted", "fullDocument.version", "fullDocument.updatedAt"))
+        );
+
+        var stream = mongoTemplate.getCollection(collection)
+                .watch(pipeline)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+
+        return (resumeToken == null ? stream : stream.resumeAfter(resumeToken)).cursor();
+    }
+
+    // A token that can no longer be resumed from is dropped; clients recover missed changes through the changes feed.
+    private BsonDocument retryAfterFailure(EChangeEntity entity, String collection, RuntimeException e, BsonDocument resumeToken) {
+        if (!running) {
+            return resumeToken;
+        }
+
+        log.warn("Change stream on {} failed, reconnecting: {}", collection, e.getMessage());
+        eventBus.useChangeStreams(entity, false);
+
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+
+        return e instanceof MongoCommandException ? null : resumeToken;
+    }
+
+    static ChangeEventDTO toEvent(EChangeEntity entity, ChangeStreamDocument<Document> change) {
+        Document document = change.getFullDocument();
+
+        if (document == null || change.getDocumentKey() == null) {
+            return null;
+        }
+
+        String id = idOf(change.getDocumentKey().get("_id"));
+        String taskId = entity == EChangeEntity.TASK ? id : document.getString("taskId");
+        EChangeOperation operation = Boolean.TRUE.equals(document.getBoolean("deleted"))
+                ? EChangeOperation.DELETED
+                : EChangeOperation.UPSERTED;
+        Number version = document.get("version", Number.class);
+        Date updatedAt = document.getDate("updatedAt");
+
+        return new ChangeEventDTO(
+                entity,
+                operation,
+                id,
+                taskId,
+                version == null ? null : version.longValue(),
+                updatedAt == null ? null : LocalDateTime.ofInstant(updatedAt.toInstant(), ZoneId.systemDefault()),
+                document.getString("ownerId")
+        );
+    }
+
+    private static String idOf(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.stepify.event;
+
+import br.com.stepify.command.common.outputs.ChangeEventDTO;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Each subscriber owns a bounded queue drained by its own thread, so a slow client only ever holds up itself.
+// A subscriber that falls a full buffer behind is disconnected with an overflow event and should catch up
+// through the changes feed instead of receiving a stream with silent gaps.
+@Slf4j
+class EventSubscriber implements Runnable {
+    static final String OVERFLOW_EVENT = "overflow";
+
+    @Getter
+    private final SseEmitter emitter;
+    private final String ownerId;
+    private final String taskId;
+    private final BlockingQueue<ChangeEventDTO> queue;
+    private final Duration heartbeatInterval;
+    private volatile boolean closed;
+    private volatile boolean overflowed;
+
+    EventSubscriber(SseEmitter emitter, String ownerId, String taskId, int bufferSize, Duration heartbeatInterval) {
+        this.emitter = emitter;
+        this.ownerId = ownerId;
+        this.taskId = taskId;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    boolean accepts(ChangeEventDTO event) {
+        return ownerId.equals(event.ownerId()) && (taskId == null || taskId.equals(event.taskId()));
+    }
+
+    void offer(ChangeEventDTO event) {
+        if (closed || !accepts(event)) {
+            return;
+        }
+
+        if (!queue.offer(event)) {
+            overflowed = true;
+            closed = true;
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    int pending() {
+        return queue.size();
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!closed) {
+                ChangeEventDTO event = queue.poll(heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+                if (event == null) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    emitter.send(SseEmitter.event()
+                            .name(event.entity().name().toLowerCase())
+                            .data(event));
+                }
+            }
+
+            if (overflowed) {
+                log.info("Event subscriber for task {} fell {} events behind and was disconnected", taskId, queue.size());
+                emitter.send(SseEmitter.event().name(OVERFLOW_EVENT).data("Too many pending events, resume from the changes feed"));
+            }
+
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            closed = true;
+            emitter.completeWithError(e);
+        } catch (InterruptedException e) {
+            closed = true;
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+}
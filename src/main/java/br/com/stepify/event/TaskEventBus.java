@@ -0,0 +1,98 @@
+package br.com.stepify.event;
+
+import br.com.stepify.command.common.outputs.ChangeEventDTO;
+import br.com.stepify.config.EventStreamProperties;
+import br.com.stepify.enums.EChangeEntity;
+import br.com.stepify.exception.SubscriberLimitException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Fans task and micro task changes out to SSE subscribers. Changes come from Mongo change streams when the
+// deployment supports them; otherwise the services publish their own writes, which only covers this instance.
+@Component
+@Slf4j
+public class TaskEventBus {
+    private final EventStreamProperties properties;
+    private final ExecutorService executor;
+    private final Set<EventSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Each collection has its own watcher, so one failing stream must not change how the other one is published.
+    private final Set<EChangeEntity> changeStreamEntities = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public TaskEventBus(EventStreamProperties properties) {
+        this(properties, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    TaskEventBus(EventStreamProperties properties, ExecutorService executor) {
+        this.properties = properties;
+        this.executor = executor;
+    }
+
+    public SseEmitter subscribe(String ownerId, String taskId) {
+        if (subscribers.size() >= properties.maxSubscribers()) {
+            throw new SubscriberLimitException("Too many event subscribers, try again later");
+        }
+
+        SseEmitter emitter = new SseEmitter(properties.subscriptionTimeout().toMillis());
+        EventSubscriber subscriber = new EventSubscriber(emitter, ownerId, taskId, properties.subscriberBufferSize(),
+                properties.heartbeatInterval());
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        subscribers.add(subscriber);
+        executor.execute(subscriber);
+
+        return emitter;
+    }
+
+    // Used by the change stream watcher, the source of truth whenever it is running.
+    public void publish(ChangeEventDTO event) {
+        for (EventSubscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    // Used by the services after their own writes; ignored while a change stream delivers the same changes.
+    public void publishLocal(ChangeEventDTO event) {
+        if (!changeStreamEntities.contains(event.entity())) {
+            publish(event);
+        }
+    }
+
+    public void useChangeStreams(EChangeEntity entity, boolean active) {
+        boolean changed = active ? changeStreamEntities.add(entity) : changeStreamEntities.remove(entity);
+
+        if (changed) {
+            log.info("{} events now come from {}", entity, active ? "Mongo change streams" : "in-process publishing");
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    Set<EventSubscriber> subscribers() {
+        return subscribers;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(EventSubscriber::close);
+        executor.shutdownNow();
+    }
+
+    private void remove(EventSubscriber subscriber) {
+        subscriber.close();
+        subscribers.remove(subscriber);
+    }
+}
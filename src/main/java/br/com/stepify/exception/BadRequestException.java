@@ -0,0 +1,7 @@
+package br.com.stepify.exception;
+
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.stepify.exception;
+
+public class ChangesExpiredException extends RuntimeException {
+    public ChangesExpiredException(String message) {
+        super(message);
+    }
+}
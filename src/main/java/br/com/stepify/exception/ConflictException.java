@@ -0,0 +1,7 @@
+package br.com.stepify.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
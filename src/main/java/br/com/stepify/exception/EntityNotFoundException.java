@@ -1,7 +1,24 @@
 package br.com.stepify.exception;
 
+import lombok.Getter;
+
+// Not-found is an expected outcome rather than a bug, so no stack trace is captured and the message is only
+// built when someone reads it.
+@Getter
 public class EntityNotFoundException extends RuntimeException {
-    public EntityNotFoundException(String message) {
-        super(message);
+    private final String entity;
+    private final String id;
+    private final String operation;
+
+    public EntityNotFoundException(String entity, String id, String operation) {
+        super(null, null, false, false);
+        this.entity = entity;
+        this.id = id;
+        this.operation = operation;
+    }
+
+    @Override
+    public String getMessage() {
+        return entity + " with ID: " + id + " not found while " + operation;
     }
 }
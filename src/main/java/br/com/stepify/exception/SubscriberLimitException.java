@@ -0,0 +1,7 @@
+package br.com.stepify.exception;
+
+public class SubscriberLimitException extends RuntimeException {
+    public SubscriberLimitException(String message) {
+        super(message);
+    }
+}
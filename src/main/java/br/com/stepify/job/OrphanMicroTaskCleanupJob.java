@@ -0,0 +1,105 @@
+package br.com.stepify.job;
+
+import br.com.stepify.config.OrphanCleanupProperties;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.service.sync.ChangeFeed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "stepify.jobs.orphan-cleanup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OrphanMicroTaskCleanupJob {
+    private final MongoTemplate mongoTemplate;
+    private final OrphanCleanupProperties properties;
+
+    // Where the previous run stopped when it hit the batch limit, so the walk goes on from there instead of
+    // repeating the same first batches and never reaching the rest.
+    private String resumeAfterTaskId;
+
+    @Scheduled(
+            initialDelayString = "${stepify.jobs.orphan-cleanup.initial-delay:PT1M}",
+            fixedDelayString = "${stepify.jobs.orphan-cleanup.fixed-delay:PT15M}"
+    )
+    public void run() {
+        long cleaned = cleanUp();
+
+        if (cleaned > 0) {
+            log.info("Orphan cleanup soft deleted {} micro tasks", cleaned);
+        }
+    }
+
+    // Walks the live micro tasks in taskId order, one bounded batch at a time, and flags the ones whose
+    // parent task is deleted or missing. Once the walk reaches the end, the next run starts over.
+    public long cleanUp() {
+        String lastTaskId = resumeAfterTaskId;
+        long cleaned = 0;
+        resumeAfterTaskId = null;
+
+        for (int batch = 0; batch < properties.maxBatchesPerRun(); batch++) {
+            List<MicroTask> microTasks = nextBatch(lastTaskId);
+
+            if (microTasks.isEmpty()) {
+                return cleaned;
+            }
+
+            Set<String> taskIds = microTasks.stream()
+                    .map(MicroTask::getTaskId)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            Set<String> orphanTaskIds = new LinkedHashSet<>(taskIds);
+            orphanTaskIds.removeAll(findLiveTaskIds(taskIds));
+
+            if (!orphanTaskIds.isEmpty()) {
+                Query orphans = new Query(Criteria.where("taskId").in(orphanTaskIds).and("deleted").is(false));
+                cleaned += mongoTemplate.updateMulti(orphans, ChangeFeed.softDelete(), MicroTask.class).getModifiedCount();
+            }
+
+            if (microTasks.size() < properties.batchSize()) {
+                return cleaned;
+            }
+
+            lastTaskId = microTasks.get(microTasks.size() - 1).getTaskId();
+        }
+
+        resumeAfterTaskId = lastTaskId;
+        return cleaned;
+    }
+
+    private List<MicroTask> nextBatch(String lastTaskId) {
+        Criteria criteria = Criteria.where("deleted").is(false);
+
+        if (lastTaskId != null) {
+            criteria.and("taskId").gt(lastTaskId);
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "taskId"))
+                .limit(properties.batchSize());
+        query.fields().include("taskId");
+
+        return mongoTemplate.find(query, MicroTask.class);
+    }
+
+    private Set<String> findLiveTaskIds(Set<String> taskIds) {
+        Query query = new Query(Criteria.where("id").in(taskIds).and("deleted").is(false));
+        query.fields().include("id");
+
+        return mongoTemplate.find(query, Task.class).stream()
+                .map(Task::getId)
+                .collect(Collectors.toSet());
+    }
+}
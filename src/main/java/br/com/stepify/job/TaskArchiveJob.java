@@ -0,0 +1,181 @@
+package br.com.stepify.job;
+
+import br.com.stepify.cache.TaskCache;
+import br.com.stepify.config.ArchiveProperties;
+import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.service.archive.TaskArchive;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "stepify.jobs.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TaskArchiveJob {
+    private final MongoTemplate mongoTemplate;
+    private final TaskCache taskCache;
+    private final ArchiveProperties properties;
+
+    @Scheduled(
+            initialDelayString = "${stepify.jobs.archive.initial-delay:PT5M}",
+            fixedDelayString = "${stepify.jobs.archive.fixed-delay:PT6H}"
+    )
+    public void run() {
+        long archived = archive();
+
+        if (archived > 0) {
+            log.info("Archive job moved {} tasks and micro tasks to the archive", archived);
+        }
+    }
+
+    // Copies each batch to the archive before removing it from the hot collections, so a run that stops halfway
+    // only leaves copies behind that the next run overwrites. Archived documents leave the query, so every batch
+    // reads from the start.
+    public long archive() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime deletedCutoff = now.minus(properties.deletedAfter());
+        LocalDateTime completedCutoff = now.minus(properties.completedAfter());
+        long archived = 0;
+
+        Criteria archivableTasks = new Criteria().orOperator(
+                Criteria.where("deleted").is(true).and("updatedAt").lt(deletedCutoff),
+                Criteria.where("deleted").is(false).and("status").is(ETaskStatus.COMPLETED).and("updatedAt").lt(completedCutoff)
+        );
+
+        for (int batch = 0; batch < properties.maxBatchesPerRun(); batch++) {
+            List<Task> tasks = mongoTemplate.find(new Query(archivableTasks).limit(properties.batchSize()), Task.class);
+
+            if (tasks.isEmpty()) {
+                break;
+            }
+
+            archived += archiveTasks(tasks, archivableTasks);
+
+            if (tasks.size() < properties.batchSize()) {
+                break;
+            }
+        }
+
+        Criteria archivableMicroTasks = Criteria.where("deleted").is(true).and("updatedAt").lt(deletedCutoff);
+
+        for (int batch = 0; batch < properties.maxBatchesPerRun(); batch++) {
+            List<MicroTask> microTasks = mongoTemplate.find(new Query(archivableMicroTasks).limit(properties.batchSize()), MicroTask.class);
+
+            if (microTasks.isEmpty()) {
+                break;
+            }
+
+            copy(microTasks, TaskArchive.MICRO_TASKS);
+            Set<String> ids = microTasks.stream().map(MicroTask::getId).collect(Collectors.toSet());
+            archived += mongoTemplate.remove(new Query(new Criteria().andOperator(Criteria.where("id").in(ids), archivableMicroTasks)),
+                    MicroTask.class).getDeletedCount();
+
+            if (microTasks.size() < properties.batchSize()) {
+                break;
+            }
+        }
+
+        return archived;
+    }
+
+    // A task written to since it was read still matches nothing in the removal, stays hot and keeps its micro tasks.
+    // Of a removed task, only the micro tasks copied to the archive are removed, and each only at the version that was
+    // copied. A step added or changed in between stays hot and is soft deleted by the orphan cleanup, so the next
+    // runs archive it too.
+    private long archiveTasks(List<Task> tasks, Criteria archivableTasks) {
+        Set<String> ids = tasks.stream().map(Task::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+        List<MicroTask> microTasks = mongoTemplate.find(new Query(microTasksOf(tasks)), MicroTask.class);
+
+        copy(microTasks, TaskArchive.MICRO_TASKS);
+        copy(tasks, TaskArchive.TASKS);
+
+        long removed = mongoTemplate.remove(new Query(new Criteria().andOperator(Criteria.where("id").in(ids), archivableTasks)),
+                Task.class).getDeletedCount();
+
+        Query stillHot = new Query(Criteria.where("id").in(ids));
+        stillHot.fields().include("id");
+        mongoTemplate.find(stillHot, Task.class).forEach(task -> ids.remove(task.getId()));
+
+        if (!ids.isEmpty()) {
+            removed += removeCopied(microTasks.stream().filter(microTask -> ids.contains(microTask.getTaskId())).toList());
+            taskCache.evictAll(ids);
+        }
+
+        return removed;
+    }
+
+    // The batch spans owners, so the micro tasks are matched per owner to stay on the owner task index.
+    private static Criteria microTasksOf(List<Task> tasks) {
+        // Not a grouping collector: a task written before owners existed has no ownerId, and null matches it.
+        Map<String, List<String>> taskIdsByOwner = new LinkedHashMap<>();
+        tasks.forEach(task -> taskIdsByOwner.computeIfAbsent(task.getOwnerId(), owner -> new ArrayList<>()).add(task.getId()));
+        List<Criteria> byOwner = taskIdsByOwner.entrySet().stream()
+                .map(owner -> Criteria.where("ownerId").is(owner.getKey()).and("taskId").in(owner.getValue()))
+                .toList();
+
+        return byOwner.size() == 1 ? byOwner.get(0) : new Criteria().orOperator(byOwner);
+    }
+
+    private long removeCopied(List<MicroTask> microTasks) {
+        if (microTasks.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MicroTask.class);
+        microTasks.forEach(microTask -> operations.remove(copiedVersionQuery(microTask)));
+
+        return operations.execute().getDeletedCount();
+    }
+
+    private static Query copiedVersionQuery(MicroTask microTask) {
+        Criteria criteria = Criteria.where("id").is(microTask.getId());
+
+        if (microTask.getVersion() == null || microTask.getVersion() == 0) {
+            criteria.and("version").in(0L, null);
+        } else {
+            criteria.and("version").is(microTask.getVersion());
+        }
+
+        return new Query(criteria);
+    }
+
+    private void copy(List<?> entities, String collectionName) {
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        Date archivedAt = new Date();
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collectionName);
+
+        for (Object entity : entities) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(entity, document);
+            document.put("archivedAt", archivedAt);
+            operations.replaceOne(new Query(Criteria.where("_id").is(document.get("_id"))), document,
+                    FindAndReplaceOptions.options().upsert());
+        }
+
+        operations.execute();
+    }
+}
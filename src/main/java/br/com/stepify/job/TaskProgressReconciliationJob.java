@@ -0,0 +1,101 @@
+package br.com.stepify.job;
+
+import br.com.stepify.config.ProgressReconciliationProperties;
+import br.com.stepify.mongo.entity.MicroTaskCounts;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.service.progress.TaskProgressCounter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "stepify.jobs.progress-reconciliation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TaskProgressReconciliationJob {
+    private final MongoTemplate mongoTemplate;
+    private final TaskProgressCounter progressCounter;
+    private final ProgressReconciliationProperties properties;
+
+    // Last task ID of a run cut short by the batch limit; the next run continues after it.
+    private String resumeAfterId;
+
+    @Scheduled(
+            initialDelayString = "${stepify.jobs.progress-reconciliation.initial-delay:PT2M}",
+            fixedDelayString = "${stepify.jobs.progress-reconciliation.fixed-delay:PT1H}"
+    )
+    public void run() {
+        long repaired = reconcile();
+
+        if (repaired > 0) {
+            log.info("Progress reconciliation repaired the micro task counts of {} tasks", repaired);
+        }
+    }
+
+    // Recounts the micro tasks of one batch of live tasks at a time and only rewrites the tasks whose stored counts
+    // drifted, so a healthy collection costs reads only. A run that hits the batch limit leaves the rest to the next.
+    public long reconcile() {
+        String lastId = resumeAfterId;
+        long repaired = 0;
+        resumeAfterId = null;
+
+        for (int batch = 0; batch < properties.maxBatchesPerRun(); batch++) {
+            List<Task> tasks = nextBatch(lastId);
+
+            if (tasks.isEmpty()) {
+                return repaired;
+            }
+
+            Map<String, MicroTaskCounts> counts = progressCounter.count(tasks);
+            List<Task> drifted = new ArrayList<>();
+
+            for (Task task : tasks) {
+                MicroTaskCounts actual = counts.getOrDefault(task.getId(), new MicroTaskCounts());
+
+                if (!actual.equals(task.getMicroTaskCounts())
+                        || !Objects.equals(TaskProgressCounter.progressOf(actual), task.getProgress())) {
+                    task.setMicroTaskCounts(actual);
+                    drifted.add(task);
+                }
+            }
+
+            repaired += progressCounter.replace(drifted);
+
+            if (tasks.size() < properties.batchSize()) {
+                return repaired;
+            }
+
+            lastId = tasks.get(tasks.size() - 1).getId();
+        }
+
+        resumeAfterId = lastId;
+        return repaired;
+    }
+
+    private List<Task> nextBatch(String lastId) {
+        Criteria criteria = Criteria.where("deleted").is(false);
+
+        if (lastId != null) {
+            criteria.and("id").gt(ObjectId.isValid(lastId) ? new ObjectId(lastId) : lastId);
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(properties.batchSize());
+        query.fields().include("id", "ownerId", "microTaskCounts", "progress", "version");
+
+        return mongoTemplate.find(query, Task.class);
+    }
+}
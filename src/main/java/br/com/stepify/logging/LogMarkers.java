@@ -0,0 +1,11 @@
+package br.com.stepify.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+public final class LogMarkers {
+    public static final Marker NOT_FOUND = MarkerFactory.getMarker("NOT_FOUND");
+
+    private LogMarkers() {
+    }
+}
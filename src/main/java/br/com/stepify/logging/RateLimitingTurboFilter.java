@@ -0,0 +1,42 @@
+package br.com.stepify.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Setter;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lets at most maxPerSecond events carrying the marker through in each one-second window.
+public class RateLimitingTurboFilter extends TurboFilter {
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger windowCount = new AtomicInteger();
+
+    private Marker marker;
+    @Setter
+    private int maxPerSecond = 10;
+
+    public void setMarker(String markerName) {
+        this.marker = MarkerFactory.getMarker(markerName);
+    }
+
+    @Override
+    public FilterReply decide(Marker eventMarker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || eventMarker == null || marker == null || !eventMarker.contains(marker)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        long now = System.nanoTime();
+        long start = windowStart.get();
+
+        if (now - start >= 1_000_000_000L && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+
+        return windowCount.incrementAndGet() <= maxPerSecond ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.stepify.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Setter;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Keeps a random share of the INFO events of the configured loggers. Turbo filters run before the event is
+// created or its message formatted, so a dropped event costs one random draw. Other levels are never sampled.
+@Setter
+public class SamplingTurboFilter extends TurboFilter {
+    private String loggerPrefix = "";
+    private double sampleRate = 1.0;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || level != Level.INFO || sampleRate >= 1.0 || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        return ThreadLocalRandom.current().nextDouble() < sampleRate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
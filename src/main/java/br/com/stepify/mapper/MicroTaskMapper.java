@@ -7,8 +7,9 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class MicroTaskMapper {
-    public MicroTask fromCommand(CreateMicroTaskCommand command) {
+    public MicroTask fromCommand(String ownerId, CreateMicroTaskCommand command) {
         return MicroTask.builder()
+                .ownerId(ownerId)
                 .taskId(command.taskId())
                 .title(command.title())
                 .description(command.description())
@@ -26,7 +27,8 @@ public class MicroTaskMapper {
                 microTask.getStatus(),
                 microTask.getOrder(),
                 microTask.getCreatedAt(),
-                microTask.getUpdatedAt()
+                microTask.getUpdatedAt(),
+                microTask.getVersion()
         );
     }
 }
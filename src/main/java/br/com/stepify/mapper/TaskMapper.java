@@ -1,7 +1,9 @@
 package br.com.stepify.mapper;
 
 import br.com.stepify.command.task.inputs.CreateTaskCommand;
+import br.com.stepify.command.task.outputs.MicroTaskCountsDTO;
 import br.com.stepify.command.task.outputs.TaskDTO;
+import br.com.stepify.mongo.entity.MicroTaskCounts;
 import br.com.stepify.mongo.entity.Task;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -9,13 +11,16 @@ import org.springframework.stereotype.Component;
 @Component
 @RequiredArgsConstructor
 public class TaskMapper {
-    public Task fromCommand(CreateTaskCommand command) {
+    public Task fromCommand(String ownerId, CreateTaskCommand command) {
         return Task.builder()
+                .ownerId(ownerId)
                 .title(command.title())
                 .description(command.description())
                 .status(command.status())
                 .priority(command.priority())
                 .dueDate(command.dueDate())
+                .microTaskCounts(new MicroTaskCounts())
+                .progress(0)
                 .build();
     }
 
@@ -28,8 +33,25 @@ public class TaskMapper {
                 task.getPriority(),
                 task.getDueDate(),
                 task.getCompletedAt(),
+                toDTO(task.getMicroTaskCounts()),
+                task.getProgress(),
                 task.getCreatedAt(),
-                task.getUpdatedAt()
+                task.getUpdatedAt(),
+                task.getVersion()
+        );
+    }
+
+    private MicroTaskCountsDTO toDTO(MicroTaskCounts counts) {
+        if (counts == null) {
+            return null;
+        }
+
+        return new MicroTaskCountsDTO(
+                counts.getTotal(),
+                counts.getPending(),
+                counts.getInProgress(),
+                counts.getCompleted(),
+                counts.getCancelled()
         );
     }
 }
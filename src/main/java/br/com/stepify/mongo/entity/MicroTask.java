@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -21,6 +22,7 @@ public class MicroTask {
     @Id
     private String id;
 
+    private String ownerId;
     private String taskId;
     private String title;
     private String description;
@@ -29,6 +31,9 @@ public class MicroTask {
     private boolean deleted;
     private LocalDateTime completedAt;
 
+    @Version
+    private Long version;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
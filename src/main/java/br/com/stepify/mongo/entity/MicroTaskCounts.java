@@ -0,0 +1,18 @@
+package br.com.stepify.mongo.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MicroTaskCounts {
+    private int total;
+    private int pending;
+    private int inProgress;
+    private int completed;
+    private int cancelled;
+}
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -16,12 +17,13 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Document(collection = "tasks")
 public class Task {
     @Id
     private String id;
 
+    private String ownerId;
     private String title;
     private String description;
     private ETaskStatus status;
@@ -29,6 +31,11 @@ public class Task {
     private LocalDateTime dueDate;
     private LocalDateTime completedAt;
     private boolean deleted;
+    private MicroTaskCounts microTaskCounts;
+    private Integer progress;
+
+    @Version
+    private Long version;
 
     @CreatedDate
     private LocalDateTime createdAt;
@@ -0,0 +1,241 @@
+package br.com.stepify.mongo.index;
+
+import br.com.stepify.config.ArchiveProperties;
+import br.com.stepify.config.MongoIndexProperties;
+import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.service.archive.TaskArchive;
+import com.mongodb.client.MongoDatabase;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MongoIndexInitializer {
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexProperties properties;
+    private final ArchiveProperties archiveProperties;
+    private final QueryPlanInspector queryPlanInspector;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (properties.backfillOwnerId() != null && !properties.backfillOwnerId().isBlank()) {
+            backfillOwner(properties.backfillOwnerId());
+        }
+
+        if (properties.ensureOnStartup()) {
+            ensureIndexes();
+        }
+
+        if (properties.shardCollections()) {
+            shardCollections();
+        }
+
+        if (properties.verifyQueryPlans()) {
+            queryPlanInspector.inspect();
+        }
+    }
+
+    // Only ownerId is set: the version and updatedAt are left alone, so the documents do not show up as changes.
+    // Clients that synced them before the owner scoping must resync.
+    public void backfillOwner(String ownerId) {
+        List.of(Task.class, MicroTask.class).forEach(entityClass -> {
+            long backfilled = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("ownerId").exists(false)),
+                    Update.update("ownerId", ownerId),
+                    entityClass
+            ).getModifiedCount();
+
+            if (backfilled > 0) {
+                log.info("Assigned owner {} to {} documents of {}", ownerId, backfilled, mongoTemplate.getCollectionName(entityClass));
+            }
+        });
+    }
+
+    public void ensureIndexes() {
+        indexDefinitions().forEach((entityClass, indexes) ->
+                ensureIndexes(mongoTemplate.indexOps(entityClass), mongoTemplate.getCollectionName(entityClass), indexes));
+        archiveIndexDefinitions(archiveProperties.retention()).forEach((collectionName, indexes) ->
+                ensureIndexes(mongoTemplate.indexOps(collectionName), collectionName, indexes));
+        supersededIndexes().forEach((entityClass, names) ->
+                dropIndexes(mongoTemplate.indexOps(entityClass), mongoTemplate.getCollectionName(entityClass), names));
+    }
+
+    private void ensureIndexes(IndexOperations indexOperations, String collectionName, List<IndexDefinition> indexes) {
+        indexes.forEach(index -> {
+            try {
+                String name = indexOperations.createIndex(index);
+                log.info("Index {} ensured on {}", name, collectionName);
+            } catch (RuntimeException e) {
+                log.warn("Could not ensure index {} on {}: {}", index.getIndexKeys(), collectionName, e.getMessage());
+            }
+        });
+    }
+
+    // Dropped only after the indexes replacing them were ensured, so no query is left without one.
+    private void dropIndexes(IndexOperations indexOperations, String collectionName, Set<String> names) {
+        indexOperations.getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .filter(names::contains)
+                .forEach(name -> {
+                    try {
+                        indexOperations.dropIndex(name);
+                        log.info("Superseded index {} dropped from {}", name, collectionName);
+                    } catch (RuntimeException e) {
+                        log.warn("Could not drop superseded index {} from {}: {}", name, collectionName, e.getMessage());
+                    }
+                });
+    }
+
+    // Every request index leads with ownerId so a tenant's queries stay on the shard that holds its range. The owner
+    // and ID indexes are not partial because they back the shard keys, which must cover every document. Only the
+    // indexes of the background jobs that walk every owner do not lead with it: the archivable indexes read by the
+    // archive job and the live task order index the orphan cleanup walks in taskId order.
+    static Map<Class<?>, List<IndexDefinition>> indexDefinitions() {
+        return Map.of(
+                Task.class, List.of(
+                        ownerIndex("tasks_owner_id_idx").on("_id", Sort.Direction.ASC),
+                        liveIndex("tasks_owner_live_status_idx").on("status", Sort.Direction.ASC),
+                        liveIndex("tasks_owner_live_priority_idx").on("priority", Sort.Direction.ASC),
+                        liveIndex("tasks_owner_live_due_date_idx").on("dueDate", Sort.Direction.ASC),
+                        liveIndex("tasks_owner_live_created_at_idx").on("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                        liveIndex("tasks_owner_live_updated_at_idx").on("updatedAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                        liveIndex("tasks_owner_live_progress_idx").on("progress", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                        ownerIndex("tasks_owner_changes_idx").on("updatedAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                        textIndex("tasks_owner_live_text_idx"),
+                        archivableIndex("tasks_archivable_deleted_idx", Criteria.where("deleted").is(true)),
+                        archivableIndex("tasks_archivable_completed_idx",
+                                Criteria.where("deleted").is(false).and("status").is(ETaskStatus.COMPLETED.name()))
+                ),
+                MicroTask.class, List.of(
+                        ownerIndex("micro_tasks_owner_id_idx").on("_id", Sort.Direction.ASC),
+                        ownerIndex("micro_tasks_owner_task_order_idx").on("taskId", Sort.Direction.ASC).on("order", Sort.Direction.ASC),
+                        new Index().named("micro_tasks_live_task_order_idx").on("taskId", Sort.Direction.ASC).on("order", Sort.Direction.ASC)
+                                .partial(PartialIndexFilter.of(Criteria.where("deleted").is(false))),
+                        ownerIndex("micro_tasks_owner_changes_idx").on("updatedAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC),
+                        textIndex("micro_tasks_owner_live_text_idx"),
+                        archivableIndex("micro_tasks_archivable_deleted_idx", Criteria.where("deleted").is(true))
+                )
+        );
+    }
+
+    // Indexes created before tasks were scoped to an owner. None of them leads with ownerId.
+    static Map<Class<?>, Set<String>> supersededIndexes() {
+        return Map.of(
+                Task.class, Set.of(
+                        "tasks_live_id_idx",
+                        "tasks_live_status_idx",
+                        "tasks_live_priority_idx",
+                        "tasks_live_due_date_idx",
+                        "tasks_live_created_at_idx",
+                        "tasks_live_updated_at_idx",
+                        "tasks_live_progress_idx",
+                        "tasks_changes_idx"
+                ),
+                MicroTask.class, Set.of(
+                        "micro_tasks_live_id_idx",
+                        "micro_tasks_changes_idx"
+                )
+        );
+    }
+
+    // Archived documents are only read by ID or task and expire a fixed time after they were archived. Changing the
+    // retention of an existing TTL index needs a collMod, so a new value only applies to fresh archive collections.
+    static Map<String, List<IndexDefinition>> archiveIndexDefinitions(Duration retention) {
+        return Map.of(
+                TaskArchive.TASKS, List.of(
+                        ownerIndex("tasks_archive_owner_id_idx").on("_id", Sort.Direction.ASC),
+                        new Index().named("tasks_archive_ttl_idx").on("archivedAt", Sort.Direction.ASC).expire(retention)
+                ),
+                TaskArchive.MICRO_TASKS, List.of(
+                        ownerIndex("micro_tasks_archive_owner_task_order_idx").on("taskId", Sort.Direction.ASC).on("order", Sort.Direction.ASC),
+                        new Index().named("micro_tasks_archive_ttl_idx").on("archivedAt", Sort.Direction.ASC).expire(retention)
+                )
+        );
+    }
+
+    // Tasks are spread by owner and ID, micro tasks by owner and task so the steps of a task live together.
+    static Map<Class<?>, Document> shardKeys() {
+        return Map.of(
+                Task.class, new Document("ownerId", 1).append("_id", 1),
+                MicroTask.class, new Document("ownerId", 1).append("taskId", 1)
+        );
+    }
+
+    public void shardCollections() {
+        MongoDatabase admin = mongoTemplate.getMongoDatabaseFactory().getMongoDatabase("admin");
+        String database = mongoTemplate.getDb().getName();
+
+        shardKeys().forEach((entityClass, key) -> {
+            String namespace = database + "." + mongoTemplate.getCollectionName(entityClass);
+
+            // Running unsharded on a cluster configured for sharding would put every owner on one shard, so a failure
+            // stops the startup instead of being logged. Sharding an already sharded collection on the same key is a no-op.
+            try {
+                admin.runCommand(new Document("shardCollection", namespace).append("key", key));
+                log.info("Collection {} sharded on {}", namespace, key.toJson());
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Could not shard collection " + namespace + " on " + key.toJson(), e);
+            }
+        });
+    }
+
+    private static Index ownerIndex(String name) {
+        return new Index()
+                .named(name)
+                .on("ownerId", Sort.Direction.ASC);
+    }
+
+    // A text query has to match the ownerId prefix exactly, so every search stays inside one owner's entries. Title
+    // matches weigh more than description matches.
+    private static IndexDefinition textIndex(String name) {
+        return new IndexDefinition() {
+            @Override
+            public Document getIndexKeys() {
+                return new Document("ownerId", 1).append("title", "text").append("description", "text");
+            }
+
+            @Override
+            public Document getIndexOptions() {
+                return new Document("name", name)
+                        .append("weights", new Document("title", 3).append("description", 1))
+                        .append("partialFilterExpression", new Document("deleted", false));
+            }
+        };
+    }
+
+    private static Index archivableIndex(String name, Criteria filter) {
+        return new Index()
+                .named(name)
+                .on("updatedAt", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(filter));
+    }
+
+    private static Index liveIndex(String name) {
+        return new Index()
+                .named(name)
+                .on("ownerId", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where("deleted").is(false)));
+    }
+}
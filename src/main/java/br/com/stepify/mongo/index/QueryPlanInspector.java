@@ -0,0 +1,132 @@
+package br.com.stepify.mongo.index;
+
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class QueryPlanInspector {
+    private static final String COLLECTION_SCAN = "COLLSCAN";
+    private static final String SAMPLE_ID = "000000000000000000000000";
+    private static final String SAMPLE_OWNER_ID = "owner";
+
+    private final MongoTemplate mongoTemplate;
+
+    public void inspect() {
+        for (QueryShape shape : queryShapes()) {
+            try {
+                if (usesCollectionScan(explain(shape))) {
+                    log.warn("Query {} on {} runs without an index (COLLSCAN)", shape.name(),
+                            mongoTemplate.getCollectionName(shape.entityClass()));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not inspect query plan of {}: {}", shape.name(), e.getMessage());
+            }
+        }
+    }
+
+    static List<QueryShape> queryShapes() {
+        return List.of(
+                new QueryShape("tasks page", Task.class,
+                        live(),
+                        new Document("_id", 1)),
+                new QueryShape("tasks by status", Task.class,
+                        live().append("status", "PENDING"),
+                        null),
+                new QueryShape("tasks by priority", Task.class,
+                        live().append("priority", "HIGH"),
+                        null),
+                new QueryShape("tasks by due date", Task.class,
+                        live().append("dueDate", new Document("$lte", new Date())),
+                        null),
+                new QueryShape("tasks sorted by creation", Task.class,
+                        live(),
+                        new Document("createdAt", -1).append("_id", -1)),
+                new QueryShape("tasks sorted by last update", Task.class,
+                        live(),
+                        new Document("updatedAt", -1).append("_id", -1)),
+                new QueryShape("tasks by progress", Task.class,
+                        live().append("progress", new Document("$gte", 50)),
+                        new Document("progress", -1).append("_id", -1)),
+                new QueryShape("task changes", Task.class,
+                        owned().append("updatedAt", new Document("$gt", new Date(0)).append("$lte", new Date())),
+                        new Document("updatedAt", 1).append("_id", 1)),
+                new QueryShape("micro tasks page", MicroTask.class,
+                        live(),
+                        new Document("_id", 1)),
+                new QueryShape("micro tasks by task", MicroTask.class,
+                        live().append("taskId", SAMPLE_ID),
+                        new Document("order", 1)),
+                new QueryShape("micro tasks by tasks", MicroTask.class,
+                        live().append("taskId", new Document("$in", List.of(SAMPLE_ID))),
+                        new Document("order", 1)),
+                new QueryShape("micro tasks of archived tasks", MicroTask.class,
+                        owned().append("taskId", new Document("$in", List.of(SAMPLE_ID))),
+                        null),
+                new QueryShape("orphan cleanup walk", MicroTask.class,
+                        new Document("deleted", false).append("taskId", new Document("$gt", SAMPLE_ID)),
+                        new Document("taskId", 1)),
+                new QueryShape("orphaned micro tasks", MicroTask.class,
+                        new Document("taskId", new Document("$in", List.of(SAMPLE_ID))).append("deleted", false),
+                        null),
+                new QueryShape("micro task changes", MicroTask.class,
+                        owned().append("updatedAt", new Document("$gt", new Date(0)).append("$lte", new Date())),
+                        new Document("updatedAt", 1).append("_id", 1))
+        );
+    }
+
+    private static Document owned() {
+        return new Document("ownerId", SAMPLE_OWNER_ID);
+    }
+
+    private static Document live() {
+        return owned().append("deleted", false);
+    }
+
+    private Document explain(QueryShape shape) {
+        Document find = new Document("find", mongoTemplate.getCollectionName(shape.entityClass()))
+                .append("filter", shape.filter());
+
+        if (shape.sort() != null) {
+            find.append("sort", shape.sort());
+        }
+
+        return mongoTemplate.executeCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+    }
+
+    static boolean usesCollectionScan(Object node) {
+        if (node instanceof Document document) {
+            if (COLLECTION_SCAN.equals(document.get("stage"))) {
+                return true;
+            }
+
+            Object winningPlan = document.containsKey("queryPlanner")
+                    ? document.get("queryPlanner", Document.class).get("winningPlan")
+                    : null;
+
+            if (winningPlan != null) {
+                return usesCollectionScan(winningPlan);
+            }
+
+            return document.values().stream().anyMatch(QueryPlanInspector::usesCollectionScan);
+        }
+
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(QueryPlanInspector::usesCollectionScan);
+        }
+
+        return false;
+    }
+
+    record QueryShape(String name, Class<?> entityClass, Document filter, Document sort) {
+    }
+}
@@ -0,0 +1,87 @@
+package br.com.stepify.mongo.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Complements the driver command timers from Spring Boot with how many documents each command returned or touched.
+// The collection is only present on the started event, so it is kept per request id until the command completes.
+@RequiredArgsConstructor
+public class MongoDocumentMetricsListener implements CommandListener {
+    public static final String METRIC_NAME = "stepify.mongo.documents";
+
+    private static final Set<String> TRACKED_COMMANDS = Set.of(
+            "find", "getMore", "aggregate", "insert", "update", "delete", "findAndModify"
+    );
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, String> collectionsByRequest = new ConcurrentHashMap<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!TRACKED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+
+        String collection = collectionOf(event.getCommandName(), event.getCommand());
+
+        if (collection != null) {
+            collectionsByRequest.put(event.getRequestId(), collection);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String collection = collectionsByRequest.remove(event.getRequestId());
+
+        if (collection == null) {
+            return;
+        }
+
+        DistributionSummary.builder(METRIC_NAME)
+                .baseUnit("documents")
+                .tag("collection", collection)
+                .tag("command", event.getCommandName())
+                .register(meterRegistry)
+                .record(documentCount(event.getCommandName(), event.getResponse()));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        collectionsByRequest.remove(event.getRequestId());
+    }
+
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue value = command.get("getMore".equals(commandName) ? "collection" : commandName);
+
+        return value != null && value.isString() ? value.asString().getValue() : null;
+    }
+
+    private static long documentCount(String commandName, BsonDocument response) {
+        return switch (commandName) {
+            case "find", "aggregate" -> batchSize(response, "firstBatch");
+            case "getMore" -> batchSize(response, "nextBatch");
+            case "findAndModify" -> response.isDocument("value") ? 1 : 0;
+            default -> response.isNumber("n") ? response.getNumber("n").longValue() : 0;
+        };
+    }
+
+    private static long batchSize(BsonDocument response, String batchField) {
+        if (!response.isDocument("cursor")) {
+            return 0;
+        }
+
+        BsonDocument cursor = response.getDocument("cursor");
+        return cursor.isArray(batchField) ? cursor.getArray(batchField).size() : 0;
+    }
+}
@@ -4,11 +4,13 @@ import br.com.stepify.mongo.entity.MicroTask;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MicroTaskRepository extends MongoRepository<MicroTask, String> {
-    List<MicroTask> findAllByDeletedFalse();
-    Optional<MicroTask> findByIdAndDeletedFalse(String id);
+    Optional<MicroTask> findByOwnerIdAndIdAndDeletedFalse(String ownerId, String id);
+    List<MicroTask> findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(String ownerId, String taskId);
+    List<MicroTask> findAllByOwnerIdAndTaskIdInAndDeletedFalseOrderByOrderAsc(String ownerId, Collection<String> taskIds);
 }
@@ -0,0 +1,44 @@
+package br.com.stepify.mongo.routing;
+
+import br.com.stepify.config.MongoReadProperties;
+import br.com.stepify.enums.EReadRoute;
+import com.mongodb.ReadPreference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class MongoReadRouter {
+    private final MongoTemplate mongoTemplate;
+    private final MongoTemplate replicaTemplate;
+    private final Set<EReadRoute> replicaRoutes;
+
+    // The replica template shares the client and converter of the primary one and only reads with another preference,
+    // so routing costs no extra connections. Writes never go through it.
+    public MongoReadRouter(MongoTemplate mongoTemplate, MongoReadProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.replicaTemplate = new MongoTemplate(mongoTemplate.getMongoDatabaseFactory(), mongoTemplate.getConverter());
+        this.replicaTemplate.setReadPreference(readPreference(properties));
+        this.replicaRoutes = properties.replicaRoutes();
+
+        log.info("Reads routed with {}: {}", replicaTemplate.getReadPreference(), replicaRoutes);
+    }
+
+    public MongoTemplate forRoute(EReadRoute route) {
+        return replicaRoutes.contains(route) ? replicaTemplate : mongoTemplate;
+    }
+
+    private static ReadPreference readPreference(MongoReadProperties properties) {
+        if ("primary".equals(properties.replicaReadPreference())) {
+            return ReadPreference.primary();
+        }
+
+        return ReadPreference.valueOf(properties.replicaReadPreference(), List.of(),
+                properties.maxStaleness().toSeconds(), TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.stepify.mongo.transaction;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+@Component
+public class MongoTransactionRunner {
+    private final TransactionTemplate transactionTemplate;
+
+    // Transactions need a replica set, so without a transaction manager the action simply runs as is.
+    public MongoTransactionRunner(ObjectProvider<MongoTransactionManager> transactionManager) {
+        MongoTransactionManager manager = transactionManager.getIfAvailable();
+        this.transactionTemplate = manager == null ? null : new TransactionTemplate(manager);
+    }
+
+    public void run(Runnable action) {
+        if (transactionTemplate == null) {
+            action.run();
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> action.run());
+    }
+
+    public <T> T call(Supplier<T> action) {
+        if (transactionTemplate == null) {
+            return action.get();
+        }
+
+        return transactionTemplate.execute(status -> action.get());
+    }
+}
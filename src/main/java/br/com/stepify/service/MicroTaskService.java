@@ -1,95 +1,657 @@
 package br.com.stepify.service;
 
+import br.com.stepify.command.common.inputs.BulkDeleteCommand;
+import br.com.stepify.command.common.outputs.BulkItemResultDTO;
+import br.com.stepify.command.common.outputs.BulkResultDTO;
+import br.com.stepify.command.common.outputs.ChangeEventDTO;
+import br.com.stepify.command.common.outputs.ChangesDTO;
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.common.outputs.VersionDTO;
+import br.com.stepify.command.microtask.inputs.BulkCreateMicroTasksCommand;
+import br.com.stepify.command.microtask.inputs.BulkUpdateMicroTaskItemCommand;
+import br.com.stepify.command.microtask.inputs.BulkUpdateMicroTasksCommand;
 import br.com.stepify.command.microtask.inputs.CreateMicroTaskCommand;
+import br.com.stepify.command.microtask.inputs.MicroTaskQueryCommand;
+import br.com.stepify.command.microtask.inputs.MoveMicroTaskCommand;
+import br.com.stepify.command.microtask.inputs.ReorderMicroTasksCommand;
 import br.com.stepify.command.microtask.inputs.UpdateMicroTaskCommand;
 import br.com.stepify.command.microtask.outputs.MicroTaskDTO;
+import br.com.stepify.config.ArchiveProperties;
+import br.com.stepify.config.ChangeFeedProperties;
+import br.com.stepify.enums.EBulkItemStatus;
+import br.com.stepify.enums.EChangeEntity;
+import br.com.stepify.enums.EChangeOperation;
+import br.com.stepify.enums.EReadRoute;
+import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.event.TaskEventBus;
+import br.com.stepify.exception.BadRequestException;
+import br.com.stepify.exception.ConflictException;
 import br.com.stepify.exception.EntityNotFoundException;
 import br.com.stepify.mapper.MicroTaskMapper;
+import br.com.stepify.logging.LogMarkers;
 import br.com.stepify.mongo.entity.MicroTask;
 import br.com.stepify.mongo.repository.MicroTaskRepository;
+import br.com.stepify.mongo.routing.MongoReadRouter;
+import br.com.stepify.mongo.transaction.MongoTransactionRunner;
 import br.com.stepify.service.action.microtask.UpdateMicroTaskAction;
+import br.com.stepify.service.bulk.BulkWrites;
+import br.com.stepify.service.ordering.MicroTaskRanks;
+import br.com.stepify.service.pagination.FieldProjection;
+import br.com.stepify.service.pagination.KeysetPagination;
+import br.com.stepify.service.pagination.PageSort;
+import br.com.stepify.service.pagination.SortField;
+import br.com.stepify.service.progress.ProgressDelta;
+import br.com.stepify.service.progress.TaskProgressCounter;
+import br.com.stepify.service.sync.ChangeFeed;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed("stepify.service")
 @Slf4j
 @RequiredArgsConstructor
 public class MicroTaskService {
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final Map<String, SortField<MicroTask>> SORT_FIELDS = SortField.byProperty(
+            SortField.ofInteger("order", MicroTask::getOrder),
+            SortField.ofDateTime("createdAt", MicroTask::getCreatedAt),
+            SortField.ofDateTime("updatedAt", MicroTask::getUpdatedAt),
+            SortField.ofString("title", MicroTask::getTitle)
+    );
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of(
+            "taskId", "title", "description", "status", "order", "createdAt", "updatedAt", "version"
+    );
+
     private final MicroTaskMapper microTaskMapper;
     private final TaskService taskService;
     private final UpdateMicroTaskAction updateMicroTaskAction;
     private final MongoTemplate mongoTemplate;
+    private final MongoReadRouter readRouter;
     private final MicroTaskRepository microTaskRepository;
+    private final ChangeFeedProperties changeFeedProperties;
+    private final ArchiveProperties archiveProperties;
+    private final TaskEventBus eventBus;
+    private final TaskProgressCounter progressCounter;
+    private final MicroTaskRanks microTaskRanks;
+    private final MongoTransactionRunner transactionRunner;
 
-    public MicroTaskDTO create(CreateMicroTaskCommand command) {
+    public MicroTaskDTO create(String ownerId, CreateMicroTaskCommand command) {
         log.info("Creating new micro task with title: {}", command.title());
 
-        taskService.findTaskById(command.taskId());
+        taskService.assertTaskExists(ownerId, command.taskId());
 
-        MicroTask microTask = microTaskMapper.fromCommand(command);
-        MicroTask microTaskSaved = microTaskRepository.save(microTask);
+        MicroTask microTask = microTaskMapper.fromCommand(ownerId, command);
+        if (microTask.getOrder() == null) {
+            microTask.setOrder(rankAfter(ownerId, command.taskId(),
+                    microTaskRanks.lastRanks(ownerId, List.of(command.taskId())).get(command.taskId())));
+        }
+        MicroTask microTaskSaved = transactionRunner.call(() -> {
+            MicroTask saved = microTaskRepository.save(microTask);
+            progressCounter.apply(ownerId, new ProgressDelta().added(saved.getTaskId(), saved.getStatus()));
+            return saved;
+        });
 
         log.info("Micro task {} created successfully with ID: {}", microTaskSaved.getTitle(), microTaskSaved.getId());
+        publish(EChangeOperation.UPSERTED, microTaskSaved);
+
         return microTaskMapper.toDTO(microTaskSaved);
     }
 
-    public List<MicroTaskDTO> findAllMicroTasks() {
-        log.info("Searching all micro tasks");
-        List<MicroTask> allMicroTasks = microTaskRepository.findAllByDeletedFalse();
+    public BulkResultDTO createMicroTasks(String ownerId, BulkCreateMicroTasksCommand command) {
+        log.info("Creating {} micro tasks in bulk", command.items().size());
+
+        List<CreateMicroTaskCommand> items = command.items();
+        Set<String> existingTaskIds = taskService.findExistingTaskIds(ownerId,
+                items.stream().map(CreateMicroTaskCommand::taskId).collect(Collectors.toSet()));
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MicroTask.class);
+        List<Integer> operationIndexes = new ArrayList<>();
+        MicroTask[] microTasks = new MicroTask[items.size()];
+        Map<String, Integer> lastRanks = microTaskRanks.lastRanks(ownerId, items.stream()
+                .filter(item -> item.order() == null && existingTaskIds.contains(item.taskId()))
+                .map(CreateMicroTaskCommand::taskId)
+                .collect(Collectors.toSet()));
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int index = 0; index < items.size(); index++) {
+            CreateMicroTaskCommand item = items.get(index);
+
+            if (existingTaskIds.contains(item.taskId())) {
+                MicroTask microTask = microTaskMapper.fromCommand(ownerId, item);
+                microTask.setId(new ObjectId().toHexString());
+                microTask.setCreatedAt(now);
+                microTask.setUpdatedAt(now);
+                microTask.setVersion(0L);
+                if (microTask.getOrder() == null) {
+                    microTask.setOrder(lastRanks.compute(item.taskId(), (taskId, last) -> rankAfter(ownerId, taskId, last)));
+                }
+
+                operations.insert(microTask);
+                operationIndexes.add(index);
+                microTasks[index] = microTask;
+            }
+        }
+
+        Map<Integer, String> errors = BulkWrites.execute(operations, operationIndexes);
+
+        List<BulkItemResultDTO> results = new ArrayList<>(items.size());
+        ProgressDelta progressDelta = new ProgressDelta();
+        for (int index = 0; index < items.size(); index++) {
+            String error = errors.get(index);
+
+            if (microTasks[index] == null) {
+                results.add(new BulkItemResultDTO(index, null, EBulkItemStatus.NOT_FOUND, "Task not found: " + items.get(index).taskId()));
+            } else if (error != null) {
+                results.add(new BulkItemResultDTO(index, null, EBulkItemStatus.FAILED, error));
+            } else {
+                results.add(new BulkItemResultDTO(index, microTasks[index].getId(), EBulkItemStatus.CREATED, null));
+                publish(EChangeOperation.UPSERTED, microTasks[index]);
+                progressDelta.added(microTasks[index].getTaskId(), microTasks[index].getStatus());
+            }
+        }
+
+        progressCounter.applyAfterBulk(ownerId, progressDelta);
+
+        log.info("Bulk micro task creation finished with {} errors", errors.size());
+        return BulkResultDTO.of(results);
+    }
+
+    public PageDTO<MicroTaskDTO> findMicroTasks(String ownerId, String cursor, Integer size) {
+        return findMicroTasks(ownerId, MicroTaskQueryCommand.unfiltered(), cursor, size);
+    }
+
+    public PageDTO<MicroTaskDTO> findMicroTasks(String ownerId, MicroTaskQueryCommand command, String cursor, Integer size) {
+        log.info("Searching micro tasks page");
+
+        int pageSize = KeysetPagination.boundedSize(size);
+        PageSort<MicroTask> sort = PageSort.parse(command.sort(), SORT_FIELDS);
+        Query query = KeysetPagination.pageQuery(filterCriteria(ownerId, command), cursor, pageSize, sort);
+        project(query, command, sort);
+        List<MicroTask> microTasks = readRouter.forRoute(EReadRoute.MICRO_TASK_LIST).find(query, MicroTask.class);
 
-        return allMicroTasks.stream()
-                .map(microTaskMapper::toDTO)
-                .toList();
+        return KeysetPagination.toPage(microTasks, pageSize, MicroTask::getId, sort, microTaskMapper::toDTO);
     }
 
-    public MicroTaskDTO findMicroTaskById(String id) {
+    public void streamAllMicroTasks(String ownerId, Consumer<MicroTaskDTO> consumer) {
+        streamAllMicroTasks(ownerId, MicroTaskQueryCommand.unfiltered(), consumer);
+    }
+
+    public void streamAllMicroTasks(String ownerId, MicroTaskQueryCommand command, Consumer<MicroTaskDTO> consumer) {
+        log.info("Streaming all micro tasks");
+
+        PageSort<MicroTask> sort = PageSort.parse(command.sort(), SORT_FIELDS);
+        Query query = new Query(filterCriteria(ownerId, command)).cursorBatchSize(STREAM_BATCH_SIZE);
+        if (sort != null) {
+            query.with(sort.toSort());
+        }
+        project(query, command, sort);
+
+        try (Stream<MicroTask> microTasks = readRouter.forRoute(EReadRoute.MICRO_TASK_STREAM).stream(query, MicroTask.class)) {
+            microTasks.map(microTaskMapper::toDTO).forEach(consumer);
+        }
+    }
+
+    public ChangesDTO<MicroTaskDTO> findMicroTaskChanges(String ownerId, String since, Integer size) {
+        log.info("Searching micro task changes");
+
+        int pageSize = KeysetPagination.boundedSize(size);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settledUntil = now.minus(changeFeedProperties.settleDelay());
+        List<MicroTask> microTasks = readRouter.forRoute(EReadRoute.MICRO_TASK_CHANGES)
+                .find(ChangeFeed.changesQuery(ownerId, since, pageSize, settledUntil,
+                        ChangeFeed.retainedSince(archiveProperties, now)), MicroTask.class);
+
+        return ChangeFeed.toChanges(microTasks, pageSize, since, settledUntil, MicroTask::getId, MicroTask::getUpdatedAt,
+                MicroTask::isDeleted, microTaskMapper::toDTO);
+    }
+
+    public MicroTaskDTO findMicroTaskById(String ownerId, String id) {
         log.info("Searching micro task with ID: {}", id);
 
-        MicroTask microTask= getMicroTaskByIdOrThrow(id, "searching");
+        MicroTask microTask= getMicroTaskByIdOrThrow(ownerId, id, "searching");
 
         log.info("Micro task with ID: {} found", id);
         return microTaskMapper.toDTO(microTask);
     }
 
-    public MicroTaskDTO updateMicroTaskById(String id, UpdateMicroTaskCommand command) {
+    public VersionDTO findMicroTaskVersion(String ownerId, String id) {
+        // A replica that has not caught up yet misses a micro task that was just created, so only the primary can
+        // report it as not found.
+        MongoTemplate replica = readRouter.forRoute(EReadRoute.MICRO_TASK_VERSION);
+        MicroTask replicated = replica == mongoTemplate ? null : findVersion(replica, ownerId, id);
+        MicroTask microTask = replicated != null ? replicated : findVersionOrThrow(mongoTemplate, ownerId, id, "checking version");
+
+        return new VersionDTO(microTask.getVersion(), microTask.getUpdatedAt());
+    }
+
+    public MicroTaskDTO updateMicroTaskById(String ownerId, String id, UpdateMicroTaskCommand command) {
+        return updateMicroTaskById(ownerId, id, command, null);
+    }
+
+    public MicroTaskDTO updateMicroTaskById(String ownerId, String id, UpdateMicroTaskCommand command, Long expectedVersion) {
         log.info("Updating micro task with ID: {}", id);
 
-        MicroTask microTask = getMicroTaskByIdOrThrow(id, "updating");
+        MicroTask microTask = transactionRunner.call(() -> modify(versionedMicroTaskQuery(ownerId, id, expectedVersion), command));
 
-        updateMicroTaskAction.execute(microTask, command);
-        log.info("Micro task with ID: {} updated successfully", id);
+        if (microTask == null) {
+            if (expectedVersion == null) {
+                throw microTaskNotFound(id, "updating");
+            }
 
-        microTaskRepository.save(microTask);
+            Long currentVersion = findVersionOrThrow(mongoTemplate, ownerId, id, "updating").getVersion();
+            throw new ConflictException("Micro task with ID: " + id + " was modified concurrently, current version is "
+                    + (currentVersion == null ? 0 : currentVersion));
+        }
 
+        publish(EChangeOperation.UPSERTED, microTask);
+        log.info("Micro task with ID: {} updated successfully to version {}", id, microTask.getVersion());
         return microTaskMapper.toDTO(microTask);
     }
 
-    public void deleteMicroTaskById(String id) {
+    // A status change needs the previous status to move the task counters, so the document is returned as it was
+    // before the update and the same changes are applied to it in memory. Runs inside the caller's transaction.
+    private MicroTask modify(Query query, UpdateMicroTaskCommand command) {
+        boolean statusChanges = command.status() != null;
+        LocalDateTime now = LocalDateTime.now();
+        Update update = updateMicroTaskAction.toUpdate(command).set("updatedAt", now).inc("version", 1);
+        MicroTask microTask = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(!statusChanges), MicroTask.class);
+
+        if (microTask != null && statusChanges) {
+            ETaskStatus previousStatus = microTask.getStatus();
+            updateMicroTaskAction.execute(microTask, command);
+            microTask.setUpdatedAt(now);
+            microTask.setVersion(microTask.getVersion() == null ? 1 : microTask.getVersion() + 1);
+
+            progressCounter.apply(microTask.getOwnerId(), new ProgressDelta().moved(microTask.getTaskId(), previousStatus, microTask.getStatus()));
+        }
+
+        return microTask;
+    }
+
+    public BulkResultDTO updateMicroTasks(String ownerId, BulkUpdateMicroTasksCommand command) {
+        log.info("Updating {} micro tasks in bulk", command.items().size());
+
+        List<BulkUpdateMicroTaskItemCommand> items = command.items();
+
+        // Counter moves start from the status read below, so a repeated id would move the same step twice.
+        if (items.stream().map(BulkUpdateMicroTaskItemCommand::id).distinct().count() != items.size()) {
+            throw new BadRequestException("items must not repeat an id");
+        }
+
+        Map<String, MicroTask> existing = findLiveMicroTasks(ownerId, items.stream().map(BulkUpdateMicroTaskItemCommand::id).toList());
+        Set<String> existingIds = existing.keySet();
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MicroTask.class);
+        List<Integer> operationIndexes = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int index = 0; index < items.size(); index++) {
+            BulkUpdateMicroTaskItemCommand item = items.get(index);
+
+            if (existingIds.contains(item.id())) {
+                Update update = updateMicroTaskAction.toUpdate(item.changes()).set("updatedAt", now).inc("version", 1);
+                operations.updateOne(liveMicroTaskQuery(ownerId, item.id()), update);
+                operationIndexes.add(index);
+            }
+        }
+
+        BulkWrites.Outcome outcome = BulkWrites.executeUpdates(operations, operationIndexes);
+        Map<Integer, String> errors = outcome.errors();
+
+        // Only the total of matched updates is known, so a shortfall is resolved by reading which micro tasks are
+        // still live; one deleted since the check above is reported as not found.
+        Set<String> attemptedIds = operationIndexes.stream()
+                .filter(index -> !errors.containsKey(index))
+                .map(index -> items.get(index).id())
+                .collect(Collectors.toSet());
+        Set<String> updatedIds = outcome.matchedCount() >= operationIndexes.size() - errors.size()
+                ? attemptedIds
+                : findLiveMicroTasks(ownerId, attemptedIds).keySet();
+
+        // Counter moves are based on the statuses read above; a concurrent change in between is repaired by the
+        // progress reconciliation job.
+        List<BulkItemResultDTO> results = new ArrayList<>(items.size());
+        ProgressDelta progressDelta = new ProgressDelta();
+        for (int index = 0; index < items.size(); index++) {
+            String id = items.get(index).id();
+            String error = errors.get(index);
+
+            if (!existingIds.contains(id)) {
+                results.add(new BulkItemResultDTO(index, id, EBulkItemStatus.NOT_FOUND, "Micro task not found"));
+            } else if (error != null) {
+                results.add(new BulkItemResultDTO(index, id, EBulkItemStatus.FAILED, error));
+            } else if (!updatedIds.contains(id)) {
+                results.add(new BulkItemResultDTO(index, id, EBulkItemStatus.NOT_FOUND, "Micro task not found"));
+            } else {
+                results.add(new BulkItemResultDTO(index, id, EBulkItemStatus.UPDATED, null));
+                MicroTask previous = existing.get(id);
+                publish(EChangeOperation.UPSERTED, ownerId, id, previous.getTaskId());
+
+                if (items.get(index).changes().status() != null) {
+                    progressDelta.moved(previous.getTaskId(), previous.getStatus(), items.get(index).changes().status());
+                }
+            }
+        }
+
+        progressCounter.applyAfterBulk(ownerId, progressDelta);
+
+        log.info("Bulk micro task update finished with {} errors", errors.size());
+        return BulkResultDTO.of(results);
+    }
+
+    public BulkResultDTO deleteMicroTasks(String ownerId, BulkDeleteCommand command) {
+        log.info("Deleting {} micro tasks in bulk", command.ids().size());
+
+        Map<String, MicroTask> existing = findLiveMicroTasks(ownerId, command.ids());
+        Set<String> existingIds = existing.keySet();
+
+        if (!existingIds.isEmpty()) {
+            ProgressDelta progressDelta = new ProgressDelta();
+            existing.values().forEach(microTask -> progressDelta.removed(microTask.getTaskId(), microTask.getStatus()));
+
+            transactionRunner.run(() -> {
+                Query query = new Query(Criteria.where("ownerId").is(ownerId).and("id").in(existingIds).and("deleted").is(false));
+                mongoTemplate.updateMulti(query, ChangeFeed.softDelete(), MicroTask.class);
+                progressCounter.apply(ownerId, progressDelta);
+            });
+            existing.forEach((id, microTask) -> publish(EChangeOperation.DELETED, ownerId, id, microTask.getTaskId()));
+        }
+
+        List<BulkItemResultDTO> results = new ArrayList<>(command.ids().size());
+        for (int index = 0; index < command.ids().size(); index++) {
+            String id = command.ids().get(index);
+            results.add(existingIds.contains(id)
+                    ? new BulkItemResultDTO(index, id, EBulkItemStatus.DELETED, null)
+                    : new BulkItemResultDTO(index, id, EBulkItemStatus.NOT_FOUND, "Micro task not found"));
+        }
+
+        log.info("Bulk micro task deletion finished, {} micro tasks deleted", existingIds.size());
+        return BulkResultDTO.of(results);
+    }
+
+    public void deleteMicroTaskById(String ownerId, String id) {
         log.info("Deleting micro task with ID: {}", id);
 
-        getMicroTaskByIdOrThrow(id, "deleting");
+        Query query = liveMicroTaskQuery(ownerId, id);
+        query.fields().include("taskId", "status");
+        MicroTask microTask = transactionRunner.call(() -> {
+            MicroTask deleted = mongoTemplate.findAndModify(query, ChangeFeed.softDelete(), MicroTask.class);
+
+            if (deleted == null) {
+                throw microTaskNotFound(id, "deleting");
+            }
 
-        Query query = new Query(Criteria.where("id").is(id));
-        Update update = Update.update("deleted", true);
+            progressCounter.apply(ownerId, new ProgressDelta().removed(deleted.getTaskId(), deleted.getStatus()));
+            return deleted;
+        });
 
-        mongoTemplate.updateFirst(query, update, MicroTask.class);
+        publish(EChangeOperation.DELETED, ownerId, id, microTask.getTaskId());
 
         log.info("Micro task with ID: {} deleted successfully", id);
     }
 
-    private MicroTask getMicroTaskByIdOrThrow(String id, String context) {
-        return microTaskRepository.findByIdAndDeletedFalse(id)
-                .orElseThrow(() -> {
-                    String message = String.format("Micro task with ID: %s not found while %s", id, context);
-                    log.error(message);
-                    return new EntityNotFoundException(message);
-                });
+    public List<MicroTaskDTO> reorderMicroTasks(String ownerId, ReorderMicroTasksCommand command) {
+        log.info("Reordering {} micro tasks of task with ID: {}", command.ids().size(), command.taskId());
+
+        taskService.assertTaskExists(ownerId, command.taskId());
+
+        Set<String> requestedIds = new HashSet<>(command.ids());
+        if (requestedIds.size() != command.ids().size()) {
+            throw new BadRequestException("ids must not contain duplicates");
+        }
+
+        Map<String, MicroTask> steps = microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(ownerId, command.taskId()).stream()
+                .collect(Collectors.toMap(MicroTask::getId, Function.identity()));
+
+        if (!steps.keySet().equals(requestedIds)) {
+            throw new ConflictException("ids must list every micro task of task with ID: " + command.taskId()
+                    + " exactly once, they may have changed concurrently");
+        }
+
+        List<MicroTask> ordered = writeRanks(ownerId, command.ids().stream().map(steps::get).toList());
+
+        log.info("Micro tasks of task with ID: {} reordered successfully", command.taskId());
+        return ordered.stream().map(microTaskMapper::toDTO).toList();
+    }
+
+    // Takes the free rank between the new neighbours, so a move normally writes only the moved micro task. The
+    // whole task is renumbered when the neighbours are adjacent or have no rank yet.
+    public MicroTaskDTO moveMicroTask(String ownerId, String id, MoveMicroTaskCommand command) {
+        log.info("Moving micro task with ID: {} after {}", id, command.afterId());
+
+        if (id.equals(command.afterId())) {
+            throw new BadRequestException("A micro task cannot be moved after itself");
+        }
+
+        MicroTask microTask = getMicroTaskByIdOrThrow(ownerId, id, "moving");
+        MicroTask previous = null;
+
+        if (command.afterId() != null) {
+            previous = getMicroTaskByIdOrThrow(ownerId, command.afterId(), "moving after");
+
+            if (!previous.getTaskId().equals(microTask.getTaskId())) {
+                throw new BadRequestException("afterId must be a micro task of the same task");
+            }
+        }
+
+        MicroTask next = findNextStep(ownerId, microTask.getTaskId(), previous, id);
+        boolean unranked = (previous != null && previous.getOrder() == null) || (next != null && next.getOrder() == null);
+        OptionalInt rank = unranked
+                ? OptionalInt.empty()
+                : MicroTaskRanks.between(previous == null ? null : previous.getOrder(), next == null ? null : next.getOrder());
+
+        if (rank.isPresent()) {
+            Update update = Update.update("order", rank.getAsInt()).set("updatedAt", LocalDateTime.now()).inc("version", 1);
+            MicroTask moved = mongoTemplate.findAndModify(liveMicroTaskQuery(ownerId, id), update,
+                    FindAndModifyOptions.options().returnNew(true), MicroTask.class);
+
+            if (moved == null) {
+                throw microTaskNotFound(id, "moving");
+            }
+
+            publish(EChangeOperation.UPSERTED, moved);
+            return microTaskMapper.toDTO(moved);
+        }
+
+        log.info("No free rank after {} in task with ID: {}, renumbering its micro tasks", command.afterId(), microTask.getTaskId());
+
+        List<MicroTask> ordered = new ArrayList<>(microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(ownerId, microTask.getTaskId()));
+        MicroTask current = ordered.stream().filter(step -> step.getId().equals(id)).findFirst()
+                .orElseThrow(() -> microTaskNotFound(id, "moving"));
+        ordered.remove(current);
+
+        int position = 0;
+        if (previous != null) {
+            String afterId = previous.getId();
+            position = ordered.stream().map(MicroTask::getId).toList().indexOf(afterId) + 1;
+
+            if (position == 0) {
+                throw microTaskNotFound(afterId, "moving after");
+            }
+        }
+
+        ordered.add(position, current);
+
+        if (!writeRanks(ownerId, ordered).contains(current)) {
+            throw microTaskNotFound(id, "moving");
+        }
+
+        return microTaskMapper.toDTO(current);
+    }
+
+    private MicroTask findNextStep(String ownerId, String taskId, MicroTask previous, String movingId) {
+        Criteria criteria = Criteria.where("ownerId").is(ownerId).and("taskId").is(taskId).and("deleted").is(false);
+
+        if (previous != null) {
+            criteria.and("id").nin(movingId, previous.getId());
+
+            if (previous.getOrder() != null) {
+                criteria.and("order").gte(previous.getOrder());
+            }
+        } else {
+            criteria.and("id").ne(movingId);
+        }
+
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "order")).limit(1);
+        query.fields().include("order");
+
+        return mongoTemplate.findOne(query, MicroTask.class);
+    }
+
+    // Renumbers the micro tasks of one task in the given order with a single bulk write, skipping the ones that
+    // already hold their rank. The bulk only reports how many updates matched, so on a shortfall the steps still live
+    // are read again; the ones deleted concurrently are left out of the returned order and get no event.
+    private List<MicroTask> writeRanks(String ownerId, List<MicroTask> ordered) {
+        LocalDateTime now = LocalDateTime.now();
+        List<MicroTask> changed = new ArrayList<>();
+
+        for (int position = 0; position < ordered.size(); position++) {
+            MicroTask microTask = ordered.get(position);
+            int rank = MicroTaskRanks.rankAt(position);
+
+            if (!Objects.equals(microTask.getOrder(), rank)) {
+                microTask.setOrder(rank);
+                microTask.setUpdatedAt(now);
+                microTask.setVersion(microTask.getVersion() == null ? 1 : microTask.getVersion() + 1);
+                changed.add(microTask);
+            }
+        }
+
+        if (changed.isEmpty()) {
+            return ordered;
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MicroTask.class);
+        changed.forEach(microTask -> operations.updateOne(liveMicroTaskQuery(ownerId, microTask.getId()),
+                Update.update("order", microTask.getOrder()).set("updatedAt", now).inc("version", 1)));
+        BulkWriteResult result = operations.execute();
+
+        List<MicroTask> live = ordered;
+        if (result == null || result.getMatchedCount() < changed.size()) {
+            Set<String> liveIds = findLiveMicroTasks(ownerId, ordered.stream().map(MicroTask::getId).toList()).keySet();
+            live = ordered.stream().filter(microTask -> liveIds.contains(microTask.getId())).toList();
+        }
+
+        changed.stream().filter(live::contains).forEach(microTask -> publish(EChangeOperation.UPSERTED, microTask));
+        return live;
+    }
+
+    // Appends after the last rank of the task. When no rank is left above it, the task is renumbered first so the new
+    // step does not share a rank with the last one.
+    private int rankAfter(String ownerId, String taskId, Integer last) {
+        OptionalInt rank = MicroTaskRanks.after(last);
+
+        if (rank.isPresent()) {
+            return rank.getAsInt();
+        }
+
+        log.info("No free rank at the end of task with ID: {}, renumbering its micro tasks", taskId);
+
+        List<MicroTask> ordered = writeRanks(ownerId,
+                microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(ownerId, taskId));
+        return MicroTaskRanks.rankAt(ordered.size());
+    }
+
+    private Map<String, MicroTask> findLiveMicroTasks(String ownerId, Collection<String> ids) {
+        Query query = new Query(Criteria.where("ownerId").is(ownerId).and("id").in(ids).and("deleted").is(false));
+        query.fields().include("id", "taskId", "status");
+
+        return mongoTemplate.find(query, MicroTask.class).stream()
+                .collect(Collectors.toMap(MicroTask::getId, Function.identity()));
+    }
+
+    private MicroTask getMicroTaskByIdOrThrow(String ownerId, String id, String context) {
+        return microTaskRepository.findByOwnerIdAndIdAndDeletedFalse(ownerId, id)
+                .orElseThrow(() -> microTaskNotFound(id, context));
+    }
+
+    private MicroTask findVersion(MongoTemplate template, String ownerId, String id) {
+        Query query = liveMicroTaskQuery(ownerId, id);
+        query.fields().include("version", "updatedAt");
+        return template.findOne(query, MicroTask.class);
+    }
+
+    private MicroTask findVersionOrThrow(MongoTemplate template, String ownerId, String id, String context) {
+        MicroTask microTask = findVersion(template, ownerId, id);
+
+        if (microTask == null) {
+            throw microTaskNotFound(id, context);
+        }
+
+        return microTask;
+    }
+
+    private Criteria filterCriteria(String ownerId, MicroTaskQueryCommand command) {
+        Criteria criteria = Criteria.where("ownerId").is(ownerId).and("deleted").is(false);
+
+        if (command.statuses() != null && !command.statuses().isEmpty()) {
+            criteria.and("status").in(command.statuses());
+        }
+
+        return criteria;
+    }
+
+    private void project(Query query, MicroTaskQueryCommand command, PageSort<MicroTask> sort) {
+        if (sort == null) {
+            FieldProjection.apply(query, command.fields(), PROJECTABLE_FIELDS, "updatedAt");
+        } else {
+            FieldProjection.apply(query, command.fields(), PROJECTABLE_FIELDS, "updatedAt", sort.field().property());
+        }
+    }
+
+    private Query liveMicroTaskQuery(String ownerId, String id) {
+        return new Query(Criteria.where("ownerId").is(ownerId).and("id").is(id).and("deleted").is(false));
+    }
+
+    private Query versionedMicroTaskQuery(String ownerId, String id, Long version) {
+        Criteria criteria = Criteria.where("ownerId").is(ownerId).and("id").is(id).and("deleted").is(false);
+
+        if (version != null && version == 0) {
+            criteria.and("version").in(0L, null);
+        } else if (version != null) {
+            criteria.and("version").is(version);
+        }
+
+        return new Query(criteria);
+    }
+
+    private void publish(EChangeOperation operation, MicroTask microTask) {
+        eventBus.publishLocal(new ChangeEventDTO(EChangeEntity.MICRO_TASK, operation, microTask.getId(), microTask.getTaskId(),
+                microTask.getVersion(), microTask.getUpdatedAt(), microTask.getOwnerId()));
+    }
+
+    private void publish(EChangeOperation operation, String ownerId, String id, String taskId) {
+        eventBus.publishLocal(new ChangeEventDTO(EChangeEntity.MICRO_TASK, operation, id, taskId, null, null, ownerId));
+    }
+
+    private EntityNotFoundException microTaskNotFound(String id, String context) {
+        log.warn(LogMarkers.NOT_FOUND, "Micro task with ID: {} not found while {}", id, context);
+        return new EntityNotFoundException("Micro task", id, context);
     }
 }
@@ -0,0 +1,137 @@
+package br.com.stepify.service;
+
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.microtask.outputs.MicroTaskDTO;
+import br.com.stepify.command.task.outputs.TaskSearchResultDTO;
+import br.com.stepify.enums.EReadRoute;
+import br.com.stepify.exception.BadRequestException;
+import br.com.stepify.mapper.MicroTaskMapper;
+import br.com.stepify.mapper.TaskMapper;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.mongo.routing.MongoReadRouter;
+import br.com.stepify.service.pagination.KeysetPagination;
+import br.com.stepify.service.pagination.PageCursor;
+import br.com.stepify.service.search.TextHit;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Timed("stepify.service")
+@Slf4j
+@RequiredArgsConstructor
+public class TaskSearchService {
+    private static final int MAX_MATCHES = 500;
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final MongoReadRouter readRouter;
+    private final TaskMapper taskMapper;
+    private final MicroTaskMapper microTaskMapper;
+
+    // Ranks tasks by their own text score or the best score of their micro tasks, whichever is higher. Only IDs and
+    // scores of the best matches are read to rank; full documents are loaded for the requested page alone.
+    public PageDTO<TaskSearchResultDTO> searchTasks(String ownerId, String text, String cursor, Integer size) {
+        log.info("Searching tasks by text");
+
+        if (text == null || text.isBlank() || text.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("q must not be blank or longer than " + MAX_QUERY_LENGTH + " characters");
+        }
+
+        int pageSize = KeysetPagination.boundedSize(size);
+        int offset = offsetOf(cursor);
+        MongoTemplate template = readRouter.forRoute(EReadRoute.TASK_SEARCH);
+
+        Map<String, Double> taskScores = new HashMap<>();
+        Map<String, List<String>> microTaskIdsByTask = new HashMap<>();
+        textHits(template, ownerId, text, "tasks").forEach(hit -> taskScores.merge(hit.id(), hit.score(), Math::max));
+        textHits(template, ownerId, text, "micro_tasks").forEach(hit -> {
+            taskScores.merge(hit.taskId(), hit.score(), Math::max);
+            microTaskIdsByTask.computeIfAbsent(hit.taskId(), taskId -> new ArrayList<>()).add(hit.id());
+        });
+
+        // Task and micro task hits together can name up to twice MAX_MATCHES tasks; only the best MAX_MATCHES are
+        // paged, so every cursor handed out stays below it.
+        List<String> rankedTaskIds = taskScores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .limit(MAX_MATCHES)
+                .toList();
+        List<String> pageTaskIds = rankedTaskIds.subList(Math.min(offset, rankedTaskIds.size()),
+                Math.min(offset + pageSize, rankedTaskIds.size()));
+
+        Map<String, Task> tasks = findLive(template, ownerId, pageTaskIds, Task.class, Task::getId);
+        Map<String, List<MicroTaskDTO>> microTasks = findLive(template, ownerId,
+                pageTaskIds.stream().flatMap(taskId -> microTaskIdsByTask.getOrDefault(taskId, List.of()).stream()).toList(),
+                MicroTask.class, MicroTask::getId).values().stream()
+                .sorted(Comparator.comparing(MicroTask::getOrder, Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.groupingBy(MicroTask::getTaskId, Collectors.mapping(microTaskMapper::toDTO, Collectors.toList())));
+
+        // A micro task can match while its task is already deleted, so its task is missing from the page.
+        List<TaskSearchResultDTO> items = pageTaskIds.stream()
+                .filter(tasks::containsKey)
+                .map(taskId -> new TaskSearchResultDTO(taskMapper.toDTO(tasks.get(taskId)), taskScores.get(taskId),
+                        microTasks.getOrDefault(taskId, List.of())))
+                .toList();
+        boolean hasMore = offset + pageSize < rankedTaskIds.size();
+
+        return new PageDTO<>(items, hasMore ? PageCursor.encode(String.valueOf(offset + pageSize)) : null, hasMore);
+    }
+
+    private List<TextHit> textHits(MongoTemplate template, String ownerId, String text, String collectionName) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .includeScore("score")
+                .addCriteria(Criteria.where("ownerId").is(ownerId).and("deleted").is(false))
+                .limit(MAX_MATCHES);
+        query.fields().include("taskId");
+
+        return template.find(query, TextHit.class, collectionName);
+    }
+
+    private <E> Map<String, E> findLive(MongoTemplate template, String ownerId, Collection<String> ids, Class<E> entityClass,
+                                       Function<E, String> idGetter) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Query query = new Query(Criteria.where("ownerId").is(ownerId).and("id").in(ids).and("deleted").is(false));
+
+        return template.find(query, entityClass).stream()
+                .collect(Collectors.toMap(idGetter, Function.identity()));
+    }
+
+    private static int offsetOf(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+
+        try {
+            int offset = Integer.parseInt(PageCursor.decode(cursor));
+
+            // Only offsets inside the ranked matches were ever handed out, and a larger one would overflow offset + size.
+            if (offset >= 0 && offset < MAX_MATCHES) {
+                return offset;
+            }
+        } catch (NumberFormatException ignored) {
+            // Reported below like any other malformed cursor.
+        }
+
+        throw new BadRequestException("Invalid page cursor: " + cursor);
+    }
+}
@@ -1,92 +1,496 @@
 package br.com.stepify.service;
 
+import br.com.stepify.cache.TaskCache;
+import br.com.stepify.command.common.inputs.BulkDeleteCommand;
+import br.com.stepify.command.common.outputs.BulkItemResultDTO;
+import br.com.stepify.command.common.outputs.BulkResultDTO;
+import br.com.stepify.command.common.outputs.ChangeEventDTO;
+import br.com.stepify.command.common.outputs.ChangesDTO;
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.common.outputs.VersionDTO;
+import br.com.stepify.command.task.inputs.BulkCreateTasksCommand;
+import br.com.stepify.command.task.inputs.BulkUpdateTaskItemCommand;
+import br.com.stepify.command.task.inputs.BulkUpdateTasksCommand;
 import br.com.stepify.command.task.inputs.CreateTaskCommand;
+import br.com.stepify.command.task.inputs.TaskQueryCommand;
 import br.com.stepify.command.task.inputs.UpdateTaskCommand;
 import br.com.stepify.command.task.outputs.TaskDTO;
+import br.com.stepify.config.ArchiveProperties;
+import br.com.stepify.config.ChangeFeedProperties;
+import br.com.stepify.enums.EBulkItemStatus;
+import br.com.stepify.enums.EChangeEntity;
+import br.com.stepify.enums.EChangeOperation;
+import br.com.stepify.enums.EReadRoute;
+import br.com.stepify.event.TaskEventBus;
+import br.com.stepify.exception.BadRequestException;
+import br.com.stepify.exception.ConflictException;
 import br.com.stepify.exception.EntityNotFoundException;
 import br.com.stepify.mapper.TaskMapper;
+import br.com.stepify.logging.LogMarkers;
+import br.com.stepify.mongo.entity.MicroTask;
 import br.com.stepify.mongo.entity.Task;
 import br.com.stepify.mongo.repository.TaskRepository;
+import br.com.stepify.mongo.routing.MongoReadRouter;
+import br.com.stepify.mongo.transaction.MongoTransactionRunner;
 import br.com.stepify.service.action.task.UpdateTaskAction;
+import br.com.stepify.service.bulk.BulkWrites;
+import br.com.stepify.service.pagination.FieldProjection;
+import br.com.stepify.service.pagination.KeysetPagination;
+import br.com.stepify.service.pagination.PageSort;
+import br.com.stepify.service.pagination.SortField;
+import br.com.stepify.service.sync.ChangeFeed;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed("stepify.service")
 @Slf4j
 @RequiredArgsConstructor
 public class TaskService {
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final Map<String, SortField<Task>> SORT_FIELDS = SortField.byProperty(
+            SortField.ofDateTime("createdAt", Task::getCreatedAt),
+            SortField.ofDateTime("updatedAt", Task::getUpdatedAt),
+            SortField.ofDateTime("dueDate", Task::getDueDate),
+            SortField.ofString("title", Task::getTitle),
+            SortField.ofInteger("progress", Task::getProgress)
+    );
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of(
+            "title", "description", "status", "priority", "dueDate", "completedAt", "createdAt", "updatedAt", "version",
+            "microTaskCounts", "progress"
+    );
+
     private final TaskMapper taskMapper;
     private final UpdateTaskAction updateTaskAction;
     private final MongoTemplate mongoTemplate;
+    private final MongoReadRouter readRouter;
     private final TaskRepository taskRepository;
+    private final TaskCache taskCache;
+    private final MongoTransactionRunner transactionRunner;
+    private final ChangeFeedProperties changeFeedProperties;
+    private final ArchiveProperties archiveProperties;
+    private final TaskEventBus eventBus;
 
-    public TaskDTO createTask(CreateTaskCommand command) {
+    public TaskDTO createTask(String ownerId, CreateTaskCommand command) {
         log.info("Creating new task with title: {}", command.title());
 
-        Task task = taskMapper.fromCommand(command);
+        Task task = taskMapper.fromCommand(ownerId, command);
         Task taskSaved = taskRepository.save(task);
 
         log.info("Task {} created successfully with ID: {}", task.getTitle(), task.getId());
+        publish(EChangeOperation.UPSERTED, taskSaved);
+
         return taskMapper.toDTO(taskSaved);
     }
 
-    public List<TaskDTO> findAllTasks() {
-        log.info("Searching all tasks");
-        List<Task> allTasks = taskRepository.findAllByDeletedFalse();
+    public BulkResultDTO createTasks(String ownerId, BulkCreateTasksCommand command) {
+        log.info("Creating {} tasks in bulk", command.items().size());
 
-        return allTasks.stream()
-                .map(taskMapper::toDTO)
+        LocalDateTime now = LocalDateTime.now();
+        List<Task> tasks = command.items().stream()
+                .map(item -> {
+                    Task task = taskMapper.fromCommand(ownerId, item);
+                    task.setId(new ObjectId().toHexString());
+                    task.setCreatedAt(now);
+                    task.setUpdatedAt(now);
+                    task.setVersion(0L);
+                    return task;
+                })
                 .toList();
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class);
+        operations.insert(tasks);
+        Map<Integer, String> errors = BulkWrites.execute(operations);
+
+        List<BulkItemResultDTO> results = new ArrayList<>(tasks.size());
+        for (int index = 0; index < tasks.size(); index++) {
+            String error = errors.get(index);
+            results.add(error == null
+                    ? new BulkItemResultDTO(index, tasks.get(index).getId(), EBulkItemStatus.CREATED, null)
+                    : new BulkItemResultDTO(index, null, EBulkItemStatus.FAILED, error));
+
+            if (error == null) {
+                publish(EChangeOperation.UPSERTED, tasks.get(index));
+            }
+        }
+
+        log.info("Bulk task creation finished with {} errors", errors.size());
+        return BulkResultDTO.of(results);
+    }
+
+    public PageDTO<TaskDTO> findTasks(String ownerId, String cursor, Integer size) {
+        return findTasks(ownerId, TaskQueryCommand.unfiltered(), cursor, size);
+    }
+
+    public PageDTO<TaskDTO> findTasks(String ownerId, TaskQueryCommand command, String cursor, Integer size) {
+        log.info("Searching tasks page");
+
+        int pageSize = KeysetPagination.boundedSize(size);
+        PageSort<Task> sort = PageSort.parse(command.sort(), SORT_FIELDS);
+        Query query = KeysetPagination.pageQuery(filterCriteria(ownerId, command), cursor, pageSize, sort);
+        project(query, command, sort);
+        List<Task> tasks = readRouter.forRoute(EReadRoute.TASK_LIST).find(query, Task.class);
+
+        return KeysetPagination.toPage(tasks, pageSize, Task::getId, sort, taskMapper::toDTO);
     }
 
-    public TaskDTO findTaskById(String id) {
+    public void streamAllTasks(String ownerId, Consumer<TaskDTO> consumer) {
+        streamAllTasks(ownerId, TaskQueryCommand.unfiltered(), consumer);
+    }
+
+    public void streamAllTasks(String ownerId, TaskQueryCommand command, Consumer<TaskDTO> consumer) {
+        log.info("Streaming all tasks");
+
+        PageSort<Task> sort = PageSort.parse(command.sort(), SORT_FIELDS);
+        Query query = new Query(filterCriteria(ownerId, command)).cursorBatchSize(STREAM_BATCH_SIZE);
+        if (sort != null) {
+            query.with(sort.toSort());
+        }
+        project(query, command, sort);
+
+        try (Stream<Task> tasks = readRouter.forRoute(EReadRoute.TASK_STREAM).stream(query, Task.class)) {
+            tasks.map(taskMapper::toDTO).forEach(consumer);
+        }
+    }
+
+    public ChangesDTO<TaskDTO> findTaskChanges(String ownerId, String since, Integer size) {
+        log.info("Searching task changes");
+
+        int pageSize = KeysetPagination.boundedSize(size);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settledUntil = now.minus(changeFeedProperties.settleDelay());
+        List<Task> tasks = readRouter.forRoute(EReadRoute.TASK_CHANGES)
+                .find(ChangeFeed.changesQuery(ownerId, since, pageSize, settledUntil,
+                        ChangeFeed.retainedSince(archiveProperties, now)), Task.class);
+
+        return ChangeFeed.toChanges(tasks, pageSize, since, settledUntil, Task::getId, Task::getUpdatedAt, Task::isDeleted,
+                taskMapper::toDTO);
+    }
+
+    public TaskDTO findTaskById(String ownerId, String id) {
         log.info("Searching task with ID: {}", id);
 
-        Task task = getTaskByIdOrThrow(id, "searching");
+        Task task = getCachedTaskByIdOrThrow(ownerId, id, "searching");
 
         log.info("Task with ID: {} found", id);
         return taskMapper.toDTO(task);
     }
 
-    public TaskDTO updateTaskById(String id, UpdateTaskCommand command) {
+    // Answers conditional requests from a version projection rather than the whole document. The cache is local to
+    // each instance and may hold an older version written elsewhere, so it is never used as a validator; an entry
+    // found behind the stored version is dropped so the full read that follows reloads it.
+    public VersionDTO findTaskVersion(String ownerId, String id) {
+        // A replica that has not caught up yet misses a task that was just created, so only the primary can report it
+        // as not found.
+        MongoTemplate replica = readRouter.forRoute(EReadRoute.TASK_VERSION);
+        Task replicated = replica == mongoTemplate ? null : findVersion(replica, ownerId, id);
+        Task task = replicated != null ? replicated : findVersionOrThrow(mongoTemplate, ownerId, id, "checking version");
+
+        cachedTask(ownerId, id)
+                .filter(cached -> !Objects.equals(cached.getVersion(), task.getVersion()))
+                .ifPresent(cached -> taskCache.evict(id));
+
+        return new VersionDTO(task.getVersion(), task.getUpdatedAt());
+    }
+
+    public void assertTaskExists(String ownerId, String id) {
+        getCachedTaskByIdOrThrow(ownerId, id, "checking existence");
+    }
+
+    public TaskDTO updateTaskById(String ownerId, String id, UpdateTaskCommand command) {
+        return updateTaskById(ownerId, id, command, null);
+    }
+
+    // With an expected version, taken from the client's If-Match, the update only applies to that version and a
+    // mismatch is always reported as a conflict.
+    public TaskDTO updateTaskById(String ownerId, String id, UpdateTaskCommand command, Long expectedVersion) {
         log.info("Updating task with ID: {}", id);
 
-        Task task = getTaskByIdOrThrow(id, "updating");
+        Update update = updateTaskAction.toUpdate(command).set("updatedAt", LocalDateTime.now()).inc("version", 1);
+        Task task = mongoTemplate.findAndModify(versionedTaskQuery(ownerId, id, expectedVersion), update,
+                FindAndModifyOptions.options().returnNew(true), Task.class);
 
-        updateTaskAction.execute(task, command);
-        log.info("Task with ID: {} updated successfully", id);
+        if (task == null) {
+            if (expectedVersion == null) {
+                throw taskNotFound(id, "updating");
+            }
 
-        taskRepository.save(task);
+            Long currentVersion = findVersionOrThrow(mongoTemplate, ownerId, id, "updating").getVersion();
+            throw new ConflictException("Task with ID: " + id + " was modified concurrently, current version is "
+                    + (currentVersion == null ? 0 : currentVersion));
+        }
+
+        taskCache.evict(id);
+        publish(EChangeOperation.UPSERTED, task);
+        log.info("Task with ID: {} updated successfully to version {}", id, task.getVersion());
 
         return taskMapper.toDTO(task);
     }
 
-    public void deleteTaskById(String id) {
+    public BulkResultDTO updateTasks(String ownerId, BulkUpdateTasksCommand command) {
+        log.info("Updating {} tasks in bulk", command.items().size());
+
+        List<BulkUpdateTaskItemCommand> items = command.items();
+        Set<String> existingIds = findExistingTaskIds(ownerId, items.stream().map(BulkUpdateTaskItemCommand::id).toList());
+
+        // A task can be deleted between this check and the bulk write. The bulk only reports how many updates
+        // matched, so when some did not, the tasks still live afterwards are the ones reported as updated.
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class);
+        List<Integer> operationIndexes = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int index = 0; index < items.size(); index++) {
+            BulkUpdateTaskItemCommand item = items.get(index);
+
+            if (existingIds.contains(item.id())) {
+                Update update = updateTaskAction.toUpdate(item.changes()).set("updatedAt", now).inc("version", 1);
+                operations.updateOne(liveTaskQuery(ownerId, item.id()), update);
+                operationIndexes.add(index);
+            }
+        }
+
+        BulkWrites.Outcome outcome = BulkWrites.executeUpdates(operations, operationIndexes);
+        Map<Integer, String> errors = outcome.errors();
+        taskCache.evictAll(existingIds);
+
+        Set<String> attemptedIds = operationIndexes.stream()
+                .filter(index -> !errors.containsKey(index))
+                .map(index -> items.get(index).id())
+                .collect(Collectors.toSet());
+        Set<String> updatedIds = outcome.matchedCount() >= operationIndexes.size() - errors.size()
+                ? attemptedIds
+                : findExistingTaskIds(ownerId, attemptedIds);
+
+        List<BulkItemResultDTO> results = new ArrayList<>(items.size());
+        for (int index = 0; index < items.size(); index++) {
+            String id = items.get(index).id();
+            String error = errors.get(index);
+
+            if (!existingIds.contains(id)) {
+                results.add(new BulkItemResultDTO(index, id, EBulkItemStatus.NOT_FOUND, "Task not found"));
+            } else if (error != null) {
+                results.add(new BulkItemResultDTO(index, id, EBulkItemStatus.FAILED, error));
+            } else if (!updatedIds.contains(id)) {
+                results.add(new BulkItemResultDTO(index, id, EBulkItemStatus.NOT_FOUND, "Task not found"));
+            } else {
+                results.add(new BulkItemResultDTO(index, id, EBulkItemStatus.UPDATED, null));
+                publish(EChangeOperation.UPSERTED, ownerId, id);
+            }
+        }
+
+        log.info("Bulk task update finished with {} errors", errors.size());
+        return BulkResultDTO.of(results);
+    }
+
+    public BulkResultDTO deleteTasks(String ownerId, BulkDeleteCommand command) {
+        log.info("Deleting {} tasks in bulk", command.ids().size());
+
+        Set<String> existingIds = findExistingTaskIds(ownerId, command.ids());
+
+        if (!existingIds.isEmpty()) {
+            transactionRunner.run(() -> {
+                Query query = new Query(Criteria.where("ownerId").is(ownerId).and("id").in(existingIds).and("deleted").is(false));
+                mongoTemplate.updateMulti(query, ChangeFeed.softDelete(), Task.class);
+                deleteMicroTasksOf(Criteria.where("ownerId").is(ownerId).and("taskId").in(existingIds));
+            });
+            taskCache.evictAll(existingIds);
+            existingIds.forEach(id -> publish(EChangeOperation.DELETED, ownerId, id));
+        }
+
+        List<BulkItemResultDTO> results = new ArrayList<>(command.ids().size());
+        for (int index = 0; index < command.ids().size(); index++) {
+            String id = command.ids().get(index);
+            results.add(existingIds.contains(id)
+                    ? new BulkItemResultDTO(index, id, EBulkItemStatus.DELETED, null)
+                    : new BulkItemResultDTO(index, id, EBulkItemStatus.NOT_FOUND, "Task not found"));
+        }
+
+        log.info("Bulk task deletion finished, {} tasks deleted", existingIds.size());
+        return BulkResultDTO.of(results);
+    }
+
+    public Set<String> findExistingTaskIds(String ownerId, Collection<String> ids) {
+        Query query = new Query(Criteria.where("ownerId").is(ownerId).and("id").in(ids).and("deleted").is(false));
+        query.fields().include("id");
+
+        return mongoTemplate.find(query, Task.class).stream()
+                .map(Task::getId)
+                .collect(Collectors.toSet());
+    }
+
+    public void deleteTaskById(String ownerId, String id) {
         log.info("Deleting task with ID: {}", id);
 
-        getTaskByIdOrThrow(id, "deleting");
+        transactionRunner.run(() -> {
+            UpdateResult result = mongoTemplate.updateFirst(liveTaskQuery(ownerId, id), ChangeFeed.softDelete(), Task.class);
 
-        Query query = new Query(Criteria.where("id").is(id));
-        Update update = Update.update("deleted", true);
+            if (result.getMatchedCount() == 0) {
+                throw taskNotFound(id, "deleting");
+            }
 
-        mongoTemplate.updateFirst(query, update, Task.class);
+            deleteMicroTasksOf(Criteria.where("ownerId").is(ownerId).and("taskId").is(id));
+        });
+
+        taskCache.evict(id);
+        publish(EChangeOperation.DELETED, ownerId, id);
 
         log.info("Task with ID: {} deleted successfully", id);
     }
 
-    private Task getTaskByIdOrThrow(String id, String context) {
-        return taskRepository.findByIdAndDeletedFalse(id)
-                .orElseThrow(() -> {
-                    String message = String.format("Task with ID: %s not found while %s", id, context);
-                    log.error(message);
-                    return new EntityNotFoundException(message);
-                });
+    private Task getCachedTaskByIdOrThrow(String ownerId, String id, String context) {
+        return cachedTask(ownerId, id).orElseGet(() -> {
+            Task task = getTaskByIdOrThrow(ownerId, id, context);
+            taskCache.put(task);
+            return task;
+        });
+    }
+
+    // The cache is keyed by ID alone, so an entry only counts as a hit for the owner of the task.
+    private Optional<Task> cachedTask(String ownerId, String id) {
+        return taskCache.get(id).filter(task -> ownerId.equals(task.getOwnerId()));
+    }
+
+    private Task getTaskByIdOrThrow(String ownerId, String id, String context) {
+        return taskRepository.findByOwnerIdAndIdAndDeletedFalse(ownerId, id)
+                .orElseThrow(() -> taskNotFound(id, context));
+    }
+
+    private Task findVersion(MongoTemplate template, String ownerId, String id) {
+        Query query = liveTaskQuery(ownerId, id);
+        query.fields().include("version", "updatedAt");
+        return template.findOne(query, Task.class);
+    }
+
+    private Task findVersionOrThrow(MongoTemplate template, String ownerId, String id, String context) {
+        Task task = findVersion(template, ownerId, id);
+
+        if (task == null) {
+            throw taskNotFound(id, context);
+        }
+
+        return task;
+    }
+
+    private void deleteMicroTasksOf(Criteria taskCriteria) {
+        Query query = new Query(taskCriteria.and("deleted").is(false));
+        UpdateResult result = mongoTemplate.updateMulti(query, ChangeFeed.softDelete(), MicroTask.class);
+
+        log.info("{} micro tasks deleted together with their task", result.getModifiedCount());
+    }
+
+    private Criteria filterCriteria(String ownerId, TaskQueryCommand command) {
+        Criteria criteria = Criteria.where("ownerId").is(ownerId).and("deleted").is(false);
+
+        if (command.statuses() != null && !command.statuses().isEmpty()) {
+            criteria.and("status").in(command.statuses());
+        }
+
+        if (command.priorities() != null && !command.priorities().isEmpty()) {
+            criteria.and("priority").in(command.priorities());
+        }
+
+        if (command.dueFrom() != null && command.dueTo() != null && command.dueFrom().isAfter(command.dueTo())) {
+            throw new BadRequestException("dueFrom must not be after dueTo");
+        }
+
+        if (command.dueFrom() != null || command.dueTo() != null) {
+            Criteria dueDate = criteria.and("dueDate");
+
+            if (command.dueFrom() != null) {
+                dueDate.gte(command.dueFrom());
+            }
+
+            if (command.dueTo() != null) {
+                dueDate.lte(command.dueTo());
+            }
+        }
+
+        if (isOutOfPercentRange(command.minProgress()) || isOutOfPercentRange(command.maxProgress())) {
+            throw new BadRequestException("minProgress and maxProgress must be between 0 and 100");
+        }
+
+        if (command.minProgress() != null && command.maxProgress() != null && command.minProgress() > command.maxProgress()) {
+            throw new BadRequestException("minProgress must not be greater than maxProgress");
+        }
+
+        if (command.minProgress() != null || command.maxProgress() != null) {
+            Criteria progress = criteria.and("progress");
+
+            if (command.minProgress() != null) {
+                progress.gte(command.minProgress());
+            }
+
+            if (command.maxProgress() != null) {
+                progress.lte(command.maxProgress());
+            }
+        }
+
+        return criteria;
+    }
+
+    private static boolean isOutOfPercentRange(Integer value) {
+        return value != null && (value < 0 || value > 100);
+    }
+
+    private void project(Query query, TaskQueryCommand command, PageSort<Task> sort) {
+        if (sort == null) {
+            FieldProjection.apply(query, command.fields(), PROJECTABLE_FIELDS, "updatedAt");
+        } else {
+            FieldProjection.apply(query, command.fields(), PROJECTABLE_FIELDS, "updatedAt", sort.field().property());
+        }
+    }
+
+    private Query liveTaskQuery(String ownerId, String id) {
+        return new Query(Criteria.where("ownerId").is(ownerId).and("id").is(id).and("deleted").is(false));
+    }
+
+    // Micro tasks deleted together with their task are covered by the task event, which carries the same taskId.
+    private void publish(EChangeOperation operation, Task task) {
+        eventBus.publishLocal(new ChangeEventDTO(EChangeEntity.TASK, operation, task.getId(), task.getId(),
+                task.getVersion(), task.getUpdatedAt(), task.getOwnerId()));
+    }
+
+    private void publish(EChangeOperation operation, String ownerId, String id) {
+        eventBus.publishLocal(new ChangeEventDTO(EChangeEntity.TASK, operation, id, id, null, null, ownerId));
+    }
+
+    // Version 0 also matches documents written before the version field existed.
+    private Query versionedTaskQuery(String ownerId, String id, Long version) {
+        Criteria criteria = Criteria.where("ownerId").is(ownerId).and("id").is(id).and("deleted").is(false);
+
+        if (version != null && version == 0) {
+            criteria.and("version").in(0L, null);
+        } else if (version != null) {
+            criteria.and("version").is(version);
+        }
+
+        return new Query(criteria);
+    }
+
+    private EntityNotFoundException taskNotFound(String id, String context) {
+        log.warn(LogMarkers.NOT_FOUND, "Task with ID: {} not found while {}", id, context);
+        return new EntityNotFoundException("Task", id, context);
     }
 }
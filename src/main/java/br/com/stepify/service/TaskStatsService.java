@@ -0,0 +1,155 @@
+package br.com.stepify.service;
+
+import br.com.stepify.command.task.outputs.CompletionTimeDTO;
+import br.com.stepify.command.task.outputs.StatsBucketDTO;
+import br.com.stepify.command.task.outputs.TaskStatsDTO;
+import br.com.stepify.config.TaskStatsProperties;
+import br.com.stepify.enums.EReadRoute;
+import br.com.stepify.enums.EStatsBucket;
+import br.com.stepify.enums.ETaskPriority;
+import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.exception.BadRequestException;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.mongo.routing.MongoReadRouter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@Timed("stepify.service")
+@Slf4j
+public class TaskStatsService {
+    private final MongoReadRouter readRouter;
+    private final Cache<StatsKey, TaskStatsDTO> cache;
+
+    public TaskStatsService(MongoReadRouter readRouter, TaskStatsProperties properties) {
+        this.readRouter = readRouter;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.cacheMaximumSize())
+                .expireAfterWrite(properties.cacheTimeToLive())
+                .build();
+    }
+
+    // Dashboards poll the same ranges, so a result is reused for a short while instead of aggregating again.
+    public TaskStatsDTO findTaskStats(String ownerId, LocalDateTime createdFrom, LocalDateTime createdTo, EStatsBucket bucket) {
+        if (createdFrom != null && createdTo != null && createdFrom.isAfter(createdTo)) {
+            throw new BadRequestException("createdFrom must not be after createdTo");
+        }
+
+        return cache.get(new StatsKey(ownerId, createdFrom, createdTo, bucket), this::aggregate);
+    }
+
+    // All figures come from one $facet pass over the owner's live tasks created in the range.
+    private TaskStatsDTO aggregate(StatsKey key) {
+        log.info("Aggregating task stats");
+
+        Criteria criteria = Criteria.where("ownerId").is(key.ownerId()).and("deleted").is(false);
+        if (key.createdFrom() != null || key.createdTo() != null) {
+            Criteria createdAt = criteria.and("createdAt");
+
+            if (key.createdFrom() != null) {
+                createdAt.gte(key.createdFrom());
+            }
+
+            if (key.createdTo() != null) {
+                createdAt.lt(key.createdTo());
+            }
+        }
+
+        Criteria completed = Criteria.where("status").is(ETaskStatus.COMPLETED).and("completedAt").ne(null);
+        var facets = Aggregation.facet(Aggregation.count().as("count")).as("total")
+                .and(Aggregation.group("status").count().as("count")).as("byStatus")
+                .and(Aggregation.group("priority").count().as("count")).as("byPriority")
+                .and(Aggregation.match(Criteria.where("dueDate").lt(LocalDateTime.now())
+                                .and("status").nin(ETaskStatus.COMPLETED, ETaskStatus.CANCELLED)),
+                        Aggregation.count().as("count")).as("overdue")
+                .and(Aggregation.match(completed),
+                        Aggregation.project().and(ArithmeticOperators.Subtract.valueOf("completedAt").subtract("createdAt")).as("duration"),
+                        Aggregation.group().count().as("count").avg("duration").as("average").min("duration").as("min").max("duration").as("max"))
+                .as("completionTime");
+
+        if (key.bucket() != null) {
+            facets = facets.and(countPerBucket("createdAt", key.bucket())).as("created")
+                    .and(Aggregation.match(completed), countPerBucket("completedAt", key.bucket())).as("completed");
+        }
+
+        Document result = readRouter.forRoute(EReadRoute.TASK_STATS)
+                .aggregate(Aggregation.newAggregation(Aggregation.match(criteria), facets), Task.class, Document.class)
+                .getUniqueMappedResult();
+
+        return toStats(result == null ? new Document() : result);
+    }
+
+    // Dates are stored as UTC instants of the server's local times, so buckets are cut at local midnight and map back
+    // to the same local start.
+    private static AggregationOperation countPerBucket(String field, EStatsBucket bucket) {
+        Document start = new Document("$dateTrunc", new Document("date", "$" + field)
+                .append("unit", bucket.name().toLowerCase())
+                .append("timezone", ZoneId.systemDefault().getId()));
+
+        return context -> new Document("$group", new Document("_id", start).append("count", new Document("$sum", 1)));
+    }
+
+    private static TaskStatsDTO toStats(Document result) {
+        Map<ETaskStatus, Long> byStatus = new EnumMap<>(ETaskStatus.class);
+        rows(result, "byStatus").stream()
+                .filter(row -> row.getString("_id") != null)
+                .forEach(row -> byStatus.put(ETaskStatus.valueOf(row.getString("_id")), count(row)));
+
+        Map<ETaskPriority, Long> byPriority = new EnumMap<>(ETaskPriority.class);
+        rows(result, "byPriority").stream()
+                .filter(row -> row.getString("_id") != null)
+                .forEach(row -> byPriority.put(ETaskPriority.valueOf(row.getString("_id")), count(row)));
+
+        Document completionTime = rows(result, "completionTime").stream().findFirst().orElse(new Document());
+
+        Map<Date, long[]> buckets = new TreeMap<>();
+        rows(result, "created").forEach(row -> buckets.computeIfAbsent(row.getDate("_id"), start -> new long[2])[0] = count(row));
+        rows(result, "completed").forEach(row -> buckets.computeIfAbsent(row.getDate("_id"), start -> new long[2])[1] = count(row));
+
+        return new TaskStatsDTO(
+                rows(result, "total").stream().findFirst().map(TaskStatsService::count).orElse(0L),
+                byStatus,
+                byPriority,
+                rows(result, "overdue").stream().findFirst().map(TaskStatsService::count).orElse(0L),
+                new CompletionTimeDTO(count(completionTime), millis(completionTime, "average"), millis(completionTime, "min"),
+                        millis(completionTime, "max")),
+                buckets.entrySet().stream()
+                        .map(entry -> new StatsBucketDTO(LocalDateTime.ofInstant(entry.getKey().toInstant(), ZoneId.systemDefault()),
+                                entry.getValue()[0], entry.getValue()[1]))
+                        .toList()
+        );
+    }
+
+    private static List<Document> rows(Document result, String facet) {
+        return result.getList(facet, Document.class, List.of());
+    }
+
+    private static long count(Document row) {
+        Number count = row.get("count", Number.class);
+        return count == null ? 0 : count.longValue();
+    }
+
+    private static Long millis(Document row, String field) {
+        Number value = row.get(field, Number.class);
+        return value == null ? null : value.longValue();
+    }
+
+    private record StatsKey(String ownerId, LocalDateTime createdFrom, LocalDateTime createdTo, EStatsBucket bucket) {
+    }
+}
@@ -0,0 +1,98 @@
+package br.com.stepify.service;
+
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.microtask.outputs.MicroTaskDTO;
+import br.com.stepify.command.task.outputs.TaskDTO;
+import br.com.stepify.command.task.outputs.TaskWithMicroTasksDTO;
+import br.com.stepify.exception.EntityNotFoundException;
+import br.com.stepify.mapper.MicroTaskMapper;
+import br.com.stepify.mapper.TaskMapper;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.repository.MicroTaskRepository;
+import br.com.stepify.service.archive.TaskArchive;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@Timed("stepify.service")
+@Slf4j
+@RequiredArgsConstructor
+public class TaskStepsService {
+    private final TaskService taskService;
+    private final MicroTaskRepository microTaskRepository;
+    private final MicroTaskMapper microTaskMapper;
+    private final TaskMapper taskMapper;
+    private final TaskArchive taskArchive;
+
+    public List<MicroTaskDTO> findMicroTasksByTaskId(String ownerId, String taskId) {
+        log.info("Searching micro tasks of task with ID: {}", taskId);
+
+        taskService.assertTaskExists(ownerId, taskId);
+
+        return microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(ownerId, taskId).stream()
+                .map(microTaskMapper::toDTO)
+                .toList();
+    }
+
+    // Archived tasks are only looked up when the caller opts in and the task is no longer in the hot collections.
+    public TaskWithMicroTasksDTO findTaskWithMicroTasks(String ownerId, String taskId, boolean includeArchived) {
+        log.info("Searching task with ID: {} and its micro tasks", taskId);
+
+        TaskDTO task;
+        try {
+            task = taskService.findTaskById(ownerId, taskId);
+        } catch (EntityNotFoundException e) {
+            if (!includeArchived) {
+                throw e;
+            }
+
+            return findArchivedTaskWithMicroTasks(ownerId, taskId).orElseThrow(() -> e);
+        }
+
+        List<MicroTaskDTO> microTasks = microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(ownerId, taskId).stream()
+                .map(microTaskMapper::toDTO)
+                .toList();
+
+        return new TaskWithMicroTasksDTO(task, microTasks);
+    }
+
+    private Optional<TaskWithMicroTasksDTO> findArchivedTaskWithMicroTasks(String ownerId, String taskId) {
+        return taskArchive.findTask(ownerId, taskId).map(task -> new TaskWithMicroTasksDTO(
+                taskMapper.toDTO(task),
+                taskArchive.findMicroTasks(ownerId, taskId).stream().map(microTaskMapper::toDTO).toList()));
+    }
+
+    public PageDTO<TaskWithMicroTasksDTO> findTasksWithMicroTasks(String ownerId, String cursor, Integer size) {
+        log.info("Searching tasks page with micro tasks");
+
+        PageDTO<TaskDTO> tasks = taskService.findTasks(ownerId, cursor, size);
+        Map<String, List<MicroTaskDTO>> microTasksByTaskId = findMicroTasksGroupedByTaskId(ownerId,
+                tasks.items().stream().map(TaskDTO::id).toList());
+
+        List<TaskWithMicroTasksDTO> items = tasks.items().stream()
+                .map(task -> new TaskWithMicroTasksDTO(task, microTasksByTaskId.getOrDefault(task.id(), List.of())))
+                .toList();
+
+        return new PageDTO<>(items, tasks.nextCursor(), tasks.hasMore());
+    }
+
+    private Map<String, List<MicroTaskDTO>> findMicroTasksGroupedByTaskId(String ownerId, Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return microTaskRepository.findAllByOwnerIdAndTaskIdInAndDeletedFalseOrderByOrderAsc(ownerId, taskIds).stream()
+                .collect(Collectors.groupingBy(
+                        MicroTask::getTaskId,
+                        Collectors.mapping(microTaskMapper::toDTO, Collectors.toList())
+                ));
+    }
+}
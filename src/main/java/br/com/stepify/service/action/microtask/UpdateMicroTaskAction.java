@@ -2,6 +2,7 @@ package br.com.stepify.service.action.microtask;
 
 import br.com.stepify.command.microtask.inputs.UpdateMicroTaskCommand;
 import br.com.stepify.mongo.entity.MicroTask;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -27,4 +28,30 @@ public class UpdateMicroTaskAction {
             microTask.setCompletedAt(command.completedAt());
         }
     }
+
+    public Update toUpdate(UpdateMicroTaskCommand command) {
+        Update update = new Update();
+
+        if (command.title() != null && !command.title().isBlank()) {
+            update.set("title", command.title());
+        }
+
+        if (command.description() != null) {
+            update.set("description", command.description());
+        }
+
+        if (command.status() != null) {
+            update.set("status", command.status());
+        }
+
+        if (command.order() != null) {
+            update.set("order", command.order());
+        }
+
+        if (command.completedAt() != null) {
+            update.set("completedAt", command.completedAt());
+        }
+
+        return update;
+    }
 }
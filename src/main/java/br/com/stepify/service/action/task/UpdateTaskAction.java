@@ -2,6 +2,7 @@ package br.com.stepify.service.action.task;
 
 import br.com.stepify.command.task.inputs.UpdateTaskCommand;
 import br.com.stepify.mongo.entity.Task;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -11,10 +12,54 @@ public class UpdateTaskAction {
             task.setTitle(command.title());
         }
 
-        task.setDescription(command.description());
-        task.setStatus(command.status());
-        task.setPriority(command.priority());
-        task.setDueDate(command.dueDate());
-        task.setCompletedAt(command.completedAt());
+        if (command.description() != null) {
+            task.setDescription(command.description());
+        }
+
+        if (command.status() != null) {
+            task.setStatus(command.status());
+        }
+
+        if (command.priority() != null) {
+            task.setPriority(command.priority());
+        }
+
+        if (command.dueDate() != null) {
+            task.setDueDate(command.dueDate());
+        }
+
+        if (command.completedAt() != null) {
+            task.setCompletedAt(command.completedAt());
+        }
+    }
+
+    public Update toUpdate(UpdateTaskCommand command) {
+        Update update = new Update();
+
+        if (command.title() != null) {
+            update.set("title", command.title());
+        }
+
+        if (command.description() != null) {
+            update.set("description", command.description());
+        }
+
+        if (command.status() != null) {
+            update.set("status", command.status());
+        }
+
+        if (command.priority() != null) {
+            update.set("priority", command.priority());
+        }
+
+        if (command.dueDate() != null) {
+            update.set("dueDate", command.dueDate());
+        }
+
+        if (command.completedAt() != null) {
+            update.set("completedAt", command.completedAt());
+        }
+
+        return update;
     }
 }
@@ -0,0 +1,37 @@
+package br.com.stepify.service.archive;
+
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+// Cold storage for tasks the archive job moved out of the hot collections. Archived documents keep their shape plus
+// an archivedAt date that the TTL indexes purge them by.
+@Component
+@RequiredArgsConstructor
+public class TaskArchive {
+    public static final String TASKS = "tasks_archive";
+    public static final String MICRO_TASKS = "micro_tasks_archive";
+
+    private final MongoTemplate mongoTemplate;
+
+    public Optional<Task> findTask(String ownerId, String id) {
+        Query query = new Query(Criteria.where("ownerId").is(ownerId).and("id").is(id).and("deleted").is(false));
+
+        return Optional.ofNullable(mongoTemplate.findOne(query, Task.class, TASKS));
+    }
+
+    public List<MicroTask> findMicroTasks(String ownerId, String taskId) {
+        Query query = new Query(Criteria.where("ownerId").is(ownerId).and("taskId").is(taskId).and("deleted").is(false))
+                .with(Sort.by(Sort.Direction.ASC, "order"));
+
+        return mongoTemplate.find(query, MicroTask.class, MICRO_TASKS);
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.stepify.service.bulk;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public final class BulkWrites {
+    private BulkWrites() {
+    }
+
+    // Returns the error message of every failed operation keyed by its position in the bulk.
+    public static Map<Integer, String> execute(BulkOperations operations) {
+        return run(operations).errors();
+    }
+
+    // Same as execute, but keyed by the caller's item index when only some items were added to the bulk.
+    public static Map<Integer, String> execute(BulkOperations operations, List<Integer> itemIndexes) {
+        return executeUpdates(operations, itemIndexes).errors();
+    }
+
+    // Same as execute with item indexes, also returning how many operations matched a document. The bulk only
+    // reports that total, not which operations matched.
+    public static Outcome executeUpdates(BulkOperations operations, List<Integer> itemIndexes) {
+        if (itemIndexes.isEmpty()) {
+            return new Outcome(Map.of(), 0);
+        }
+
+        Outcome outcome = run(operations);
+        Map<Integer, String> errors = outcome.errors().entrySet().stream()
+                .collect(Collectors.toMap(error -> itemIndexes.get(error.getKey()), Map.Entry::getValue));
+
+        return new Outcome(errors, outcome.matchedCount());
+    }
+
+    private static Outcome run(BulkOperations operations) {
+        try {
+            return new Outcome(Map.of(), matchedCount(operations.execute()));
+        } catch (BulkOperationException e) {
+            Map<Integer, String> errors = e.getErrors().stream()
+                    .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage, (first, second) -> first));
+
+            return new Outcome(errors, matchedCount(e.getResult()));
+        }
+    }
+
+    private static int matchedCount(BulkWriteResult result) {
+        return result == null || !result.wasAcknowledged() ? 0 : result.getMatchedCount();
+    }
+
+    public record Outcome(Map<Integer, String> errors, int matchedCount) {
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.stepify.service.ordering;
+
+import br.com.stepify.mongo.entity.MicroTask;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+
+// Micro task order is a sparse rank: steps are spaced GAP apart so a move only needs a free value between its new
+// neighbours. When two neighbours are adjacent the task is renumbered once and the gaps are back.
+@Component
+@RequiredArgsConstructor
+public class MicroTaskRanks {
+    public static final int GAP = 1024;
+
+    private final MongoTemplate mongoTemplate;
+
+    public Map<String, Integer> lastRanks(String ownerId, Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("ownerId").is(ownerId).and("taskId").in(taskIds).and("deleted").is(false)),
+                Aggregation.group("taskId").max("order").as("last")
+        );
+
+        Map<String, Integer> lastRanks = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, MicroTask.class, Document.class)) {
+            Integer last = row.getInteger("last");
+
+            if (last != null) {
+                lastRanks.put(row.getString("_id"), last);
+            }
+        }
+
+        return lastRanks;
+    }
+
+    public static int rankAt(int position) {
+        return (position + 1) * GAP;
+    }
+
+    public static OptionalInt after(Integer last) {
+        return between(last, null);
+    }
+
+    // A null neighbour means the step goes first or last. Empty when no free rank is left between the neighbours.
+    public static OptionalInt between(Integer before, Integer after) {
+        long low = before == null ? (after == null ? 0 : (long) after - 2 * GAP) : before;
+        long high = after == null ? low + 2 * GAP : after;
+
+        if (high - low < 2 || low < Integer.MIN_VALUE || high > Integer.MAX_VALUE) {
+            return OptionalInt.empty();
+        }
+
+        return OptionalInt.of((int) (low + (high - low) / 2));
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.stepify.service.pagination;
+
+import br.com.stepify.exception.BadRequestException;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+public final class FieldProjection {
+    private FieldProjection() {
+    }
+
+    public static void apply(Query query, Set<String> fields, Set<String> allowed, String... required) {
+        if (fields == null || fields.isEmpty()) {
+            return;
+        }
+
+        Set<String> unknown = new TreeSet<>(fields);
+        unknown.removeAll(allowed);
+
+        if (!unknown.isEmpty()) {
+            throw new BadRequestException(String.format("Unsupported fields: %s. Allowed fields: %s",
+                    String.join(", ", unknown), String.join(", ", new TreeSet<>(allowed))));
+        }
+
+        fields.forEach(query.fields()::include);
+        query.fields().include("id");
+
+        for (String field : required) {
+            query.fields().include(field);
+        }
+    }
+}
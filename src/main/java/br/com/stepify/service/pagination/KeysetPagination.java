@@ -0,0 +1,123 @@
+package br.com.stepify.service.pagination;
+
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.exception.BadRequestException;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public final class KeysetPagination {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private KeysetPagination() {
+    }
+
+    public static int boundedSize(Integer size) {
+        if (size == null || size < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    // One extra document is fetched so toPage can tell whether another page exists without a count.
+    public static Query pageQuery(Criteria criteria, String cursor, int size) {
+        if (cursor != null && !cursor.isBlank()) {
+            criteria.and("id").gt(toIdValue(PageCursor.decode(cursor)));
+        }
+
+        return new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(size + 1);
+    }
+
+    // Sorted pages resume after the (sort value, id) pair of the previous page. Mongo orders null and missing
+    // values before any other value, so they come first ascending and last descending.
+    public static <E> Query pageQuery(Criteria criteria, String cursor, int size, PageSort<E> sort) {
+        if (sort == null) {
+            return pageQuery(criteria, cursor, size);
+        }
+
+        if (cursor != null && !cursor.isBlank()) {
+            criteria.orOperator(afterPosition(sort, PageCursor.decodeParts(cursor)));
+        }
+
+        return new Query(criteria)
+                .with(sort.toSort())
+                .limit(size + 1);
+    }
+
+    public static <E, D> PageDTO<D> toPage(List<E> rows, int size, Function<E, String> idGetter, Function<E, D> mapper) {
+        return slice(rows, size, row -> PageCursor.encode(idGetter.apply(row)), mapper);
+    }
+
+    public static <E, D> PageDTO<D> toPage(List<E> rows, int size, Function<E, String> idGetter, PageSort<E> sort,
+                                           Function<E, D> mapper) {
+        if (sort == null) {
+            return toPage(rows, size, idGetter, mapper);
+        }
+
+        return slice(rows, size, row -> {
+            List<String> parts = new ArrayList<>(List.of(sort.token(), idGetter.apply(row)));
+            Object value = sort.field().getter().apply(row);
+
+            if (value != null) {
+                parts.add(value.toString());
+            }
+
+            return PageCursor.encode(parts);
+        }, mapper);
+    }
+
+    private static <E, D> PageDTO<D> slice(List<E> rows, int size, Function<E, String> cursorOf, Function<E, D> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<E> pageRows = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null;
+
+        return new PageDTO<>(
+                pageRows.stream().map(mapper).toList(),
+                nextCursor,
+                hasMore
+        );
+    }
+
+    private static <E> List<Criteria> afterPosition(PageSort<E> sort, List<String> parts) {
+        if (parts.size() < 2 || parts.size() > 3 || !parts.get(0).equals(sort.token())) {
+            throw new BadRequestException("Page cursor does not match sort: " + sort.token());
+        }
+
+        String property = sort.field().property();
+        Object id = toIdValue(parts.get(1));
+        Object value = parts.size() == 3 ? parseValue(sort.field(), parts.get(2)) : null;
+
+        if (sort.direction().isAscending()) {
+            return value == null
+                    ? List.of(Criteria.where(property).is(null).and("id").gt(id), Criteria.where(property).ne(null))
+                    : List.of(Criteria.where(property).gt(value), Criteria.where(property).is(value).and("id").gt(id));
+        }
+
+        return value == null
+                ? List.of(Criteria.where(property).is(null).and("id").lt(id))
+                : List.of(Criteria.where(property).lt(value), Criteria.where(property).is(value).and("id").lt(id),
+                        Criteria.where(property).is(null));
+    }
+
+    private static Object parseValue(SortField<?> field, String value) {
+        try {
+            return field.parser().apply(value);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid page cursor value: " + value);
+        }
+    }
+
+    private static Object toIdValue(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
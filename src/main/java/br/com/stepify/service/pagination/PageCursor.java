@@ -0,0 +1,36 @@
+package br.com.stepify.service.pagination;
+
+import br.com.stepify.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+public final class PageCursor {
+    private static final String PART_SEPARATOR = "\u001F";
+
+    private PageCursor() {
+    }
+
+    public static String encode(String lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(List<String> parts) {
+        return encode(String.join(PART_SEPARATOR, parts));
+    }
+
+    public static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid page cursor: " + cursor);
+        }
+    }
+
+    public static List<String> decodeParts(String cursor) {
+        return List.of(decode(cursor).split(PART_SEPARATOR, -1));
+    }
+}
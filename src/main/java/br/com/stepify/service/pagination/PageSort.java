@@ -0,0 +1,34 @@
+package br.com.stepify.service.pagination;
+
+import br.com.stepify.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+import java.util.TreeSet;
+
+public record PageSort<E>(SortField<E> field, Sort.Direction direction) {
+    // Accepts "property" for ascending and "-property" for descending order. A blank sort means id order.
+    public static <E> PageSort<E> parse(String sort, Map<String, SortField<E>> allowed) {
+        if (sort == null || sort.isBlank()) {
+            return null;
+        }
+
+        boolean descending = sort.startsWith("-");
+        SortField<E> field = allowed.get(descending ? sort.substring(1) : sort);
+
+        if (field == null) {
+            throw new BadRequestException(String.format("Unsupported sort: %s. Allowed properties: %s",
+                    sort, String.join(", ", new TreeSet<>(allowed.keySet()))));
+        }
+
+        return new PageSort<>(field, descending ? Sort.Direction.DESC : Sort.Direction.ASC);
+    }
+
+    public String token() {
+        return (direction.isDescending() ? "-" : "") + field.property();
+    }
+
+    public Sort toSort() {
+        return Sort.by(direction, field.property(), "id");
+    }
+}
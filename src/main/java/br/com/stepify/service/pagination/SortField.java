@@ -0,0 +1,26 @@
+package br.com.stepify.service.pagination;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public record SortField<E>(String property, Function<E, Object> getter, Function<String, Object> parser) {
+    public static <E> SortField<E> ofDateTime(String property, Function<E, LocalDateTime> getter) {
+        return new SortField<>(property, getter::apply, LocalDateTime::parse);
+    }
+
+    public static <E> SortField<E> ofString(String property, Function<E, String> getter) {
+        return new SortField<>(property, getter::apply, value -> value);
+    }
+
+    public static <E> SortField<E> ofInteger(String property, Function<E, Integer> getter) {
+        return new SortField<>(property, getter::apply, Integer::valueOf);
+    }
+
+    @SafeVarargs
+    public static <E> Map<String, SortField<E>> byProperty(SortField<E>... fields) {
+        return Arrays.stream(fields).collect(Collectors.toUnmodifiableMap(SortField::property, Function.identity()));
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.stepify.service.progress;
+
+import br.com.stepify.enums.ETaskStatus;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Collects how the micro task counts of each task change during one write, so they are applied with a single
+// update per task. Micro tasks without a status count as pending.
+public final class ProgressDelta {
+    private final Map<String, Map<ETaskStatus, Integer>> byTask = new LinkedHashMap<>();
+
+    public ProgressDelta added(String taskId, ETaskStatus status) {
+        return change(taskId, status, 1);
+    }
+
+    public ProgressDelta removed(String taskId, ETaskStatus status) {
+        return change(taskId, status, -1);
+    }
+
+    public ProgressDelta moved(String taskId, ETaskStatus from, ETaskStatus to) {
+        if (normalized(from) != normalized(to)) {
+            change(taskId, from, -1);
+            change(taskId, to, 1);
+        }
+
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return byTask.values().stream().allMatch(Map::isEmpty);
+    }
+
+    Map<String, Map<ETaskStatus, Integer>> byTask() {
+        return byTask;
+    }
+
+    static int totalOf(Map<ETaskStatus, Integer> statusDeltas) {
+        return statusDeltas.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private ProgressDelta change(String taskId, ETaskStatus status, int delta) {
+        Map<ETaskStatus, Integer> statusDeltas = byTask.computeIfAbsent(taskId, id -> new EnumMap<>(ETaskStatus.class));
+        statusDeltas.merge(normalized(status), delta, Integer::sum);
+        statusDeltas.values().removeIf(value -> value == 0);
+
+        return this;
+    }
+
+    private static ETaskStatus normalized(ETaskStatus status) {
+        return status == null ? ETaskStatus.PENDING : status;
+    }
+}
@@ -0,0 +1,223 @@
+package br.com.stepify.service.progress;
+
+import br.com.stepify.cache.TaskCache;
+import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.MicroTaskCounts;
+import br.com.stepify.mongo.entity.Task;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps the micro task counts and progress of each task in step with its micro tasks. Progress is the share of
+// completed micro tasks among the ones that were not cancelled, rounded down so 100 always means all done.
+// The counts are part of the task as clients read it, so changing them bumps the task version like any other
+// write: the ETag has to change with the representation, and an If-Match update of the task made while its micro
+// tasks change gets a conflict and has to read the task again.
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TaskProgressCounter {
+    private static final String COUNTS = "microTaskCounts";
+    private static final Map<ETaskStatus, String> COUNT_FIELDS = new EnumMap<>(Map.of(
+            ETaskStatus.PENDING, "pending",
+            ETaskStatus.IN_PROGRESS, "inProgress",
+            ETaskStatus.COMPLETED, "completed",
+            ETaskStatus.CANCELLED, "cancelled"
+    ));
+
+    private final MongoTemplate mongoTemplate;
+    private final TaskCache taskCache;
+
+    // Meant to run in the same transaction as the micro task write, so a failure rolls both back.
+    public void apply(String ownerId, ProgressDelta delta) {
+        Map<String, Map<ETaskStatus, Integer>> changes = changesOf(delta);
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        increment(ownerId, changes);
+        taskCache.evictAll(changes.keySet());
+    }
+
+    // For bulk writes that report failures per item and so cannot run in a transaction. The micro tasks are already
+    // written when this runs, so a failure is logged and left to the reconciliation job instead of failing the request.
+    public void applyAfterBulk(String ownerId, ProgressDelta delta) {
+        Map<String, Map<ETaskStatus, Integer>> changes = changesOf(delta);
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        try {
+            increment(ownerId, changes);
+        } catch (RuntimeException e) {
+            log.warn("Could not update the progress of tasks {}, left for reconciliation: {}", changes.keySet(), e.getMessage());
+        }
+
+        taskCache.evictAll(changes.keySet());
+    }
+
+    private static Map<String, Map<ETaskStatus, Integer>> changesOf(ProgressDelta delta) {
+        Map<String, Map<ETaskStatus, Integer>> changes = new LinkedHashMap<>();
+        delta.byTask().forEach((taskId, statusDeltas) -> {
+            if (!statusDeltas.isEmpty()) {
+                changes.put(taskId, statusDeltas);
+            }
+        });
+
+        return changes;
+    }
+
+    private void increment(String ownerId, Map<String, Map<ETaskStatus, Integer>> changes) {
+        LocalDateTime now = LocalDateTime.now();
+
+        if (changes.size() == 1) {
+            Map.Entry<String, Map<ETaskStatus, Integer>> change = changes.entrySet().iterator().next();
+            mongoTemplate.updateFirst(liveTaskQuery(ownerId, change.getKey()), incrementUpdate(change.getValue(), now), Task.class);
+        } else {
+            BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class);
+            changes.forEach((taskId, statusDeltas) -> operations.updateOne(liveTaskQuery(ownerId, taskId), incrementUpdate(statusDeltas, now)));
+            operations.execute();
+        }
+    }
+
+    // Matches each owner's micro tasks by ownerId and taskId, so every branch stays on the owner's shard and uses
+    // the owner task index.
+    public Map<String, MicroTaskCounts> count(Collection<Task> tasks) {
+        // Not a grouping collector: a task written before owners existed has no ownerId, and null matches it.
+        Map<String, List<String>> taskIdsByOwner = new LinkedHashMap<>();
+        tasks.forEach(task -> taskIdsByOwner.computeIfAbsent(task.getOwnerId(), owner -> new ArrayList<>()).add(task.getId()));
+        List<Criteria> byOwner = taskIdsByOwner.entrySet().stream()
+                .map(owner -> Criteria.where("ownerId").is(owner.getKey()).and("taskId").in(owner.getValue()).and("deleted").is(false))
+                .toList();
+
+        Document group = new Document("_id", "$taskId").append("total", new Document("$sum", 1));
+        COUNT_FIELDS.forEach((status, field) -> group.append(field, new Document("$sum", new Document("$cond", List.of(
+                new Document("$eq", List.of(new Document("$ifNull", List.of("$status", ETaskStatus.PENDING.name())), status.name())),
+                1,
+                0
+        )))));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(byOwner.size() == 1 ? byOwner.get(0) : new Criteria().orOperator(byOwner)),
+                context -> new Document("$group", group)
+        );
+
+        Map<String, MicroTaskCounts> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, MicroTask.class, Document.class)) {
+            counts.put(row.getString("_id"), MicroTaskCounts.builder()
+                    .total(row.getInteger("total", 0))
+                    .pending(row.getInteger("pending", 0))
+                    .inProgress(row.getInteger("inProgress", 0))
+                    .completed(row.getInteger("completed", 0))
+                    .cancelled(row.getInteger("cancelled", 0))
+                    .build());
+        }
+
+        return counts;
+    }
+
+    // Writes the micro task counts already set on each task, together with the progress derived from them. Each
+    // write only applies to the version the task had when it was read before counting: a counter change that landed
+    // since then bumped the version, and the task is skipped rather than overwritten with an older count. Returns
+    // how many tasks were written.
+    public long replace(Collection<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class);
+
+        tasks.forEach(task -> operations.updateOne(versionedTaskQuery(task),
+                Update.update(COUNTS, task.getMicroTaskCounts())
+                        .set("progress", progressOf(task.getMicroTaskCounts()))
+                        .set("updatedAt", now)
+                        .inc("version", 1)));
+
+        BulkWriteResult result = operations.execute();
+        taskCache.evictAll(tasks.stream().map(Task::getId).toList());
+
+        return result == null ? 0 : result.getMatchedCount();
+    }
+
+    public static int progressOf(MicroTaskCounts counts) {
+        int countable = counts.getTotal() - counts.getCancelled();
+
+        return countable > 0 ? counts.getCompleted() * 100 / countable : 0;
+    }
+
+    // A pipeline update so the counters and the progress derived from them change in one atomic write.
+    static AggregationUpdate incrementUpdate(Map<ETaskStatus, Integer> statusDeltas, LocalDateTime now) {
+        Document counters = new Document(COUNTS + ".total", increment("total", ProgressDelta.totalOf(statusDeltas)));
+        statusDeltas.forEach((status, delta) -> counters.append(COUNTS + "." + COUNT_FIELDS.get(status),
+                increment(COUNT_FIELDS.get(status), delta)));
+        counters.append("updatedAt", Date.from(now.atZone(ZoneId.systemDefault()).toInstant()));
+        counters.append("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0)), 1)));
+
+        Document countable = new Document("$subtract", List.of(count("total"), count("cancelled")));
+        Document progress = new Document("$let", new Document("vars", new Document("completed", count("completed"))
+                .append("countable", countable))
+                .append("in", new Document("$cond", List.of(
+                        new Document("$gt", List.of("$$countable", 0)),
+                        new Document("$toInt", new Document("$floor", new Document("$divide", List.of(
+                                new Document("$multiply", List.of("$$completed", 100)), "$$countable")))),
+                        0
+                ))));
+
+        List<AggregationOperation> pipeline = List.of(
+                context -> new Document("$set", counters),
+                context -> new Document("$set", new Document("progress", progress))
+        );
+
+        return AggregationUpdate.from(pipeline);
+    }
+
+    private static Document increment(String field, int delta) {
+        return new Document("$add", List.of(count(field), delta));
+    }
+
+    private static Document count(String field) {
+        return new Document("$ifNull", List.of("$" + COUNTS + "." + field, 0));
+    }
+
+    private static Query liveTaskQuery(String ownerId, String taskId) {
+        return new Query(Criteria.where("ownerId").is(ownerId).and("id").is(taskId).and("deleted").is(false));
+    }
+
+    // Tasks written before versioning have no version field and match version 0.
+    private static Query versionedTaskQuery(Task task) {
+        Criteria criteria = Criteria.where("ownerId").is(task.getOwnerId()).and("id").is(task.getId()).and("deleted").is(false);
+
+        if (task.getVersion() == null || task.getVersion() == 0) {
+            criteria.and("version").in(0L, null);
+        } else {
+            criteria.and("version").is(task.getVersion());
+        }
+
+        return new Query(criteria);
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.stepify.service.search;
+
+// The ID, parent task and text score of a matching task or micro task, read without the rest of the document.
+public record TextHit(
+        String id,
+        String taskId,
+        Double score
+) {
+}
@@ -0,0 +1,126 @@
+package br.com.stepify.service.sync;
+
+import br.com.stepify.command.common.outputs.ChangesDTO;
+import br.com.stepify.config.ArchiveProperties;
+import br.com.stepify.exception.BadRequestException;
+import br.com.stepify.exception.ChangesExpiredException;
+import br.com.stepify.service.pagination.PageCursor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public final class ChangeFeed {
+    private ChangeFeed() {
+    }
+
+    // Walks every document of the owner, deleted or not, in (updatedAt, id) order. Changes newer than settledUntil
+    // are left for the next call: updatedAt is stamped before the write lands, so a slower writer could otherwise
+    // commit behind a token that was already handed out.
+    // A token whose client state was last complete before retainedSince is rejected, since the deletes after that may
+    // already be archived and the client has to resync from scratch.
+    public static Query changesQuery(String ownerId, String since, int size, LocalDateTime settledUntil,
+                                     LocalDateTime retainedSince) {
+        Criteria criteria = Criteria.where("ownerId").is(ownerId).and("updatedAt").lte(settledUntil);
+
+        if (since != null && !since.isBlank()) {
+            Position position = decode(since);
+
+            if (retainedSince != null && position.completeUntil().isBefore(retainedSince)) {
+                throw new ChangesExpiredException("Changes token is older than the retained deletions, sync again "
+                        + "without a token");
+            }
+
+            criteria.orOperator(
+                    Criteria.where("updatedAt").gt(position.updatedAt()),
+                    Criteria.where("updatedAt").is(position.updatedAt()).and("id").gt(toIdValue(position.id()))
+            );
+        }
+
+        return new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "updatedAt", "id"))
+                .limit(size + 1);
+    }
+
+    // Soft deleted documents stay in the hot collections until the archive job moves them out, so every delete newer
+    // than that is still reported. Without the archive job, nothing is ever moved out.
+    public static LocalDateTime retainedSince(ArchiveProperties archiveProperties, LocalDateTime now) {
+        return archiveProperties.enabled() ? now.minus(archiveProperties.deletedAfter()) : null;
+    }
+
+    // Soft deletes stamp updatedAt as well, otherwise the feed would never report them.
+    public static Update softDelete() {
+        return Update.update("deleted", true).set("updatedAt", LocalDateTime.now()).inc("version", 1);
+    }
+
+    // Besides the position of the last row, the token records until when the client holds every change: the
+    // settledUntil of the call that drained the feed, or of the first page of a full sync. A later page of the same
+    // walk keeps the mark it started from, so an owner without recent writes keeps a fresh mark while it polls.
+    public static <E, D> ChangesDTO<D> toChanges(List<E> rows, int size, String since, LocalDateTime settledUntil,
+                                                 Function<E, String> idGetter, Function<E, LocalDateTime> updatedAtGetter,
+                                                 Predicate<E> deleted, Function<E, D> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<E> changedRows = hasMore ? rows.subList(0, size) : rows;
+        Position previous = since == null || since.isBlank() ? null : decode(since);
+
+        List<D> items = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+
+        for (E row : changedRows) {
+            if (deleted.test(row)) {
+                deletedIds.add(idGetter.apply(row));
+            } else {
+                items.add(mapper.apply(row));
+            }
+        }
+
+        LocalDateTime completeUntil = hasMore && previous != null ? previous.completeUntil() : settledUntil;
+        String nextToken = null;
+
+        if (!changedRows.isEmpty()) {
+            E last = changedRows.get(changedRows.size() - 1);
+            nextToken = encode(new Position(updatedAtGetter.apply(last), idGetter.apply(last), completeUntil));
+        } else if (previous != null) {
+            nextToken = encode(new Position(previous.updatedAt(), previous.id(), completeUntil));
+        }
+
+        return new ChangesDTO<>(items, deletedIds, nextToken, hasMore);
+    }
+
+    private static String encode(Position position) {
+        return PageCursor.encode(List.of(position.updatedAt().toString(), position.id(), position.completeUntil().toString()));
+    }
+
+    // Tokens issued before they carried the completion mark only have the position; its updatedAt stands in for it.
+    private static Position decode(String token) {
+        List<String> parts = PageCursor.decodeParts(token);
+
+        if (parts.size() != 2 && parts.size() != 3) {
+            throw new BadRequestException("Invalid changes token: " + token);
+        }
+
+        try {
+            LocalDateTime updatedAt = LocalDateTime.parse(parts.get(0));
+            LocalDateTime completeUntil = parts.size() == 3 ? LocalDateTime.parse(parts.get(2)) : updatedAt;
+
+            return new Position(updatedAt, parts.get(1), completeUntil);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid changes token: " + token);
+        }
+    }
+
+    private static Object toIdValue(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private record Position(LocalDateTime updatedAt, String id, LocalDateTime completeUntil) {
+    }
+}
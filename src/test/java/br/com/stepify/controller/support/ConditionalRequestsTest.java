@@ -0,0 +1,77 @@
+package br.com.stepify.controller.support;
+
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.common.outputs.VersionDTO;
+import br.com.stepify.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalRequestsTest {
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 3, 10, 8, 15, 30, 250_000_000);
+
+    @Test
+    void shouldReportNotModifiedWhenETagMatches() {
+        String etag = ConditionalRequests.ok("body", 7L, UPDATED_AT).getHeaders().getETag();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletWebRequest request = requestWith(HttpHeaders.IF_NONE_MATCH, etag, response);
+
+        assertTrue(ConditionalRequests.hasValidators(request));
+        assertTrue(ConditionalRequests.isNotModified(request, new VersionDTO(7L, UPDATED_AT)));
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void shouldReportModifiedWhenVersionChanged() {
+        String etag = ConditionalRequests.ok("body", 7L, UPDATED_AT).getHeaders().getETag();
+        ServletWebRequest request = requestWith(HttpHeaders.IF_NONE_MATCH, etag, new MockHttpServletResponse());
+
+        assertFalse(ConditionalRequests.isNotModified(request, new VersionDTO(8L, UPDATED_AT.plusSeconds(1))));
+    }
+
+    @Test
+    void shouldSetETagAndLastModifiedHeaders() {
+        ResponseEntity<String> response = ConditionalRequests.ok("body", 7L, UPDATED_AT);
+
+        assertEquals("\"7\"", response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getLastModified() > 0);
+    }
+
+    @Test
+    void shouldReadExpectedVersionFromIfMatch() {
+        assertEquals(7L, ConditionalRequests.expectedVersion("\"7\""));
+        assertNull(ConditionalRequests.expectedVersion(null));
+        assertNull(ConditionalRequests.expectedVersion("*"));
+        assertThrows(BadRequestException.class, () -> ConditionalRequests.expectedVersion("W/\"7\""));
+        assertThrows(BadRequestException.class, () -> ConditionalRequests.expectedVersion("\"abc\""));
+    }
+
+    @Test
+    void shouldChangePageETagWhenAnItemOrTheQueryChanges() {
+        PageDTO<Item> page = new PageDTO<>(List.of(new Item("1", UPDATED_AT), new Item("2", UPDATED_AT)), null, false);
+        PageDTO<Item> updatedPage = new PageDTO<>(List.of(new Item("1", UPDATED_AT), new Item("2", UPDATED_AT.plusNanos(1_000_000))), null, false);
+
+        String etag = ConditionalRequests.pageEtag("status=PENDING", page, Item::id, Item::updatedAt);
+
+        assertEquals(etag, ConditionalRequests.pageEtag("status=PENDING", page, Item::id, Item::updatedAt));
+        assertNotEquals(etag, ConditionalRequests.pageEtag("status=PENDING", updatedPage, Item::id, Item::updatedAt));
+        assertNotEquals(etag, ConditionalRequests.pageEtag("status=COMPLETED", page, Item::id, Item::updatedAt));
+    }
+
+    private ServletWebRequest requestWith(String header, String value, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks/1");
+        request.addHeader(header, value);
+        return new ServletWebRequest(request, response);
+    }
+
+    private record Item(String id, LocalDateTime updatedAt) {
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.stepify.event;
+
+import br.com.stepify.command.common.outputs.ChangeEventDTO;
+import br.com.stepify.config.EventStreamProperties;
+import br.com.stepify.enums.EChangeEntity;
+import br.com.stepify.enums.EChangeOperation;
+import br.com.stepify.exception.SubscriberLimitException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TaskEventBusTest {
+    private static final String OWNER_ID = "owner";
+
+    private ExecutorService executor;
+    private TaskEventBus eventBus;
+
+    @BeforeEach
+    void setUp() {
+        // The executor is a mock so subscribers are never drained and their queues can be inspected.
+        executor = mock(ExecutorService.class);
+        eventBus = new TaskEventBus(new EventStreamProperties(true, 2, 2, Duration.ofSeconds(15), Duration.ofMinutes(30)), executor);
+    }
+
+    @Test
+    void shouldOnlyQueueEventsOfTheSubscribedTask() {
+        eventBus.subscribe(OWNER_ID, "task-1");
+
+        eventBus.publish(event("task-1"));
+        eventBus.publish(event("task-2"));
+
+        EventSubscriber subscriber = eventBus.subscribers().iterator().next();
+        assertEquals(1, subscriber.pending());
+        verify(executor).execute(any(Runnable.class));
+    }
+
+    @Test
+    void shouldNotQueueEventsOfAnotherOwner() {
+        eventBus.subscribe(OWNER_ID, null);
+
+        eventBus.publish(event("another-owner", "task-1"));
+
+        EventSubscriber subscriber = eventBus.subscribers().iterator().next();
+        assertEquals(0, subscriber.pending());
+    }
+
+    @Test
+    void shouldCloseSubscriberThatFallsAFullBufferBehind() {
+        eventBus.subscribe(OWNER_ID, null);
+
+        eventBus.publish(event("task-1"));
+        eventBus.publish(event("task-2"));
+        eventBus.publish(event("task-3"));
+
+        EventSubscriber subscriber = eventBus.subscribers().iterator().next();
+        assertTrue(subscriber.isClosed());
+        assertEquals(2, subscriber.pending());
+    }
+
+    @Test
+    void shouldIgnoreLocalEventsWhileChangeStreamsAreActive() {
+        eventBus.subscribe(OWNER_ID, null);
+        EventSubscriber subscriber = eventBus.subscribers().iterator().next();
+
+        eventBus.useChangeStreams(EChangeEntity.MICRO_TASK, true);
+        eventBus.publishLocal(event("task-1"));
+        assertEquals(0, subscriber.pending());
+
+        eventBus.useChangeStreams(EChangeEntity.MICRO_TASK, false);
+        eventBus.publishLocal(event("task-1"));
+        assertEquals(1, subscriber.pending());
+    }
+
+    @Test
+    void shouldKeepPublishingLocalEventsOfACollectionWhoseChangeStreamIsDown() {
+        eventBus.subscribe(OWNER_ID, null);
+        EventSubscriber subscriber = eventBus.subscribers().iterator().next();
+
+        eventBus.useChangeStreams(EChangeEntity.TASK, true);
+        eventBus.useChangeStreams(EChangeEntity.MICRO_TASK, true);
+        eventBus.useChangeStreams(EChangeEntity.TASK, false);
+
+        eventBus.publishLocal(new ChangeEventDTO(EChangeEntity.TASK, EChangeOperation.UPSERTED, "task-1", "task-1", 1L, null, OWNER_ID));
+        eventBus.publishLocal(event("task-1"));
+
+        assertEquals(1, subscriber.pending());
+    }
+
+    @Test
+    void shouldRejectSubscribersOverTheLimit() {
+        eventBus.subscribe(OWNER_ID, null);
+        eventBus.subscribe(OWNER_ID, "task-1");
+
+        assertThrows(SubscriberLimitException.class, () -> eventBus.subscribe(OWNER_ID, "task-2"));
+        assertEquals(2, eventBus.subscriberCount());
+    }
+
+    private ChangeEventDTO event(String taskId) {
+        return event(OWNER_ID, taskId);
+    }
+
+    private ChangeEventDTO event(String ownerId, String taskId) {
+        return new ChangeEventDTO(EChangeEntity.MICRO_TASK, EChangeOperation.UPSERTED, "micro-" + taskId, taskId, 1L, null, ownerId);
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.stepify.job;
+
+import br.com.stepify.config.OrphanCleanupProperties;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrphanMicroTaskCleanupJobTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void shouldSoftDeleteMicroTasksWhoseTaskIsNotLive() {
+        OrphanMicroTaskCleanupJob job = new OrphanMicroTaskCleanupJob(mongoTemplate, new OrphanCleanupProperties(true, 10, 5));
+        UpdateResult updateResult = mock(UpdateResult.class);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(any(Query.class), eq(MicroTask.class))).thenReturn(List.of(
+                microTaskOf("liveTask"), microTaskOf("deletedTask"), microTaskOf("deletedTask")));
+        when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of(Task.builder().id("liveTask").build()));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(MicroTask.class))).thenReturn(updateResult);
+        when(updateResult.getModifiedCount()).thenReturn(2L);
+
+        long cleaned = job.cleanUp();
+
+        assertEquals(2, cleaned);
+
+        verify(mongoTemplate).updateMulti(queryCaptor.capture(), any(Update.class), eq(MicroTask.class));
+        Document taskIdFilter = queryCaptor.getValue().getQueryObject().get("taskId", Document.class);
+        assertEquals(List.of("deletedTask"), List.copyOf((java.util.Collection<?>) taskIdFilter.get("$in")));
+    }
+
+    @Test
+    void shouldStopAfterTheMaximumNumberOfBatches() {
+        OrphanMicroTaskCleanupJob job = new OrphanMicroTaskCleanupJob(mongoTemplate, new OrphanCleanupProperties(true, 1, 3));
+
+        when(mongoTemplate.find(any(Query.class), eq(MicroTask.class))).thenReturn(List.of(microTaskOf("liveTask")));
+        when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of(Task.builder().id("liveTask").build()));
+
+        assertEquals(0, job.cleanUp());
+
+        verify(mongoTemplate, times(3)).find(any(Query.class), eq(MicroTask.class));
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(MicroTask.class));
+    }
+
+    @Test
+    void shouldContinueFromWhereTheLastRunStoppedAndStartOverAtTheEnd() {
+        OrphanMicroTaskCleanupJob job = new OrphanMicroTaskCleanupJob(mongoTemplate, new OrphanCleanupProperties(true, 1, 1));
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(any(Query.class), eq(MicroTask.class)))
+                .thenReturn(List.of(microTaskOf("firstTask")))
+                .thenReturn(List.of())
+                .thenReturn(List.of(microTaskOf("firstTask")));
+        when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of(Task.builder().id("firstTask").build()));
+
+        job.cleanUp();
+        job.cleanUp();
+        job.cleanUp();
+
+        verify(mongoTemplate, times(3)).find(queryCaptor.capture(), eq(MicroTask.class));
+        assertNull(queryCaptor.getAllValues().get(0).getQueryObject().get("taskId"));
+        assertEquals(new Document("$gt", "firstTask"), queryCaptor.getAllValues().get(1).getQueryObject().get("taskId"));
+        assertNull(queryCaptor.getAllValues().get(2).getQueryObject().get("taskId"));
+    }
+
+    private MicroTask microTaskOf(String taskId) {
+        return MicroTask.builder().taskId(taskId).build();
+    }
+}
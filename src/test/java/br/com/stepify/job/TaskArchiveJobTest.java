@@ -0,0 +1,105 @@
+package br.com.stepify.job;
+
+import br.com.stepify.cache.TaskCache;
+import br.com.stepify.config.ArchiveProperties;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.service.archive.TaskArchive;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskArchiveJobTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private TaskCache taskCache;
+    @Mock
+    private MongoConverter converter;
+    @Mock
+    private BulkOperations bulkOperations;
+    @Mock
+    private BulkOperations removeOperations;
+
+    private TaskArchiveJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new TaskArchiveJob(mongoTemplate, taskCache,
+                new ArchiveProperties(true, 10, 5, Duration.ofDays(30), Duration.ofDays(90), Duration.ofDays(365)));
+
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), anyString())).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void shouldCopyTasksWithTheirMicroTasksBeforeRemovingThem() {
+        ArgumentCaptor<Query> removeCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Query> microTasksCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(any(Query.class), eq(Task.class)))
+                .thenReturn(List.of(Task.builder().id("done").ownerId("owner").build()))
+                .thenReturn(List.of());
+        when(mongoTemplate.find(any(Query.class), eq(MicroTask.class)))
+                .thenReturn(List.of(MicroTask.builder().id("step").taskId("done").version(3L).build()))
+                .thenReturn(List.of());
+        when(mongoTemplate.remove(any(Query.class), eq(Task.class))).thenReturn(DeleteResult.acknowledged(1));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MicroTask.class)).thenReturn(removeOperations);
+        when(removeOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 0, 1, 0, List.of(), List.of()));
+
+        assertEquals(2, job.archive());
+
+        var inOrder = inOrder(mongoTemplate, bulkOperations, removeOperations);
+        inOrder.verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.UNORDERED, TaskArchive.MICRO_TASKS);
+        inOrder.verify(mongoTemplate).bulkOps(BulkOperations.BulkMode.UNORDERED, TaskArchive.TASKS);
+        inOrder.verify(bulkOperations).execute();
+        inOrder.verify(mongoTemplate).remove(any(Query.class), eq(Task.class));
+        inOrder.verify(removeOperations).execute();
+
+        verify(bulkOperations, times(2)).replaceOne(any(Query.class), any(Document.class), any(FindAndReplaceOptions.class));
+        verify(removeOperations).remove(removeCaptor.capture());
+        assertEquals(new Document("id", "step").append("version", 3L), removeCaptor.getValue().getQueryObject());
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(MicroTask.class));
+        verify(mongoTemplate, times(2)).find(microTasksCaptor.capture(), eq(MicroTask.class));
+        assertEquals(new Document("ownerId", "owner").append("taskId", new Document("$in", List.of("done"))),
+                microTasksCaptor.getAllValues().get(0).getQueryObject());
+        verify(taskCache).evictAll(Set.of("done"));
+    }
+
+    @Test
+    void shouldKeepMicroTasksOfATaskThatChangedWhileBeingArchived() {
+        Task reopened = Task.builder().id("reopened").build();
+
+        when(mongoTemplate.find(any(Query.class), eq(Task.class)))
+                .thenReturn(List.of(reopened))
+                .thenReturn(List.of(reopened));
+        when(mongoTemplate.find(any(Query.class), eq(MicroTask.class)))
+                .thenReturn(List.of(MicroTask.builder().id("step").taskId("reopened").build()))
+                .thenReturn(List.of());
+        when(mongoTemplate.remove(any(Query.class), eq(Task.class))).thenReturn(DeleteResult.acknowledged(0));
+
+        assertEquals(0, job.archive());
+
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(MicroTask.class));
+        verifyNoInteractions(taskCache);
+    }
+}
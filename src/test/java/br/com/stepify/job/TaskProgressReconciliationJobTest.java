@@ -0,0 +1,105 @@
+package br.com.stepify.job;
+
+import br.com.stepify.config.ProgressReconciliationProperties;
+import br.com.stepify.mongo.entity.MicroTaskCounts;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.service.progress.TaskProgressCounter;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskProgressReconciliationJobTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private TaskProgressCounter progressCounter;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRewriteOnlyTasksWhoseCountsDrifted() {
+        TaskProgressReconciliationJob job = new TaskProgressReconciliationJob(mongoTemplate, progressCounter,
+                new ProgressReconciliationProperties(true, 10, 5));
+        MicroTaskCounts halfDone = counts(2, 1, 1);
+        ArgumentCaptor<Collection<Task>> replacedCaptor = ArgumentCaptor.forClass(Collection.class);
+
+        List<Task> tasks = List.of(
+                taskOf("inStep", counts(2, 1, 1), 50),
+                taskOf("stale", counts(2, 0, 2), 0),
+                taskOf("legacy", null, null));
+
+        when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(tasks);
+        when(progressCounter.count(tasks)).thenReturn(Map.of(
+                "inStep", halfDone,
+                "stale", halfDone));
+        when(progressCounter.replace(anyCollection())).thenReturn(2L);
+
+        long repaired = job.reconcile();
+
+        assertEquals(2, repaired);
+
+        verify(progressCounter).replace(replacedCaptor.capture());
+        assertEquals(List.of("stale", "legacy"), replacedCaptor.getValue().stream().map(Task::getId).toList());
+        assertEquals(List.of(halfDone, new MicroTaskCounts()),
+                replacedCaptor.getValue().stream().map(Task::getMicroTaskCounts).toList());
+    }
+
+    @Test
+    void shouldStopAfterTheMaximumNumberOfBatches() {
+        TaskProgressReconciliationJob job = new TaskProgressReconciliationJob(mongoTemplate, progressCounter,
+                new ProgressReconciliationProperties(true, 1, 3));
+
+        when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of(taskOf("task", new MicroTaskCounts(), 0)));
+        when(progressCounter.count(anyCollection())).thenReturn(Map.of());
+
+        assertEquals(0, job.reconcile());
+
+        verify(mongoTemplate, times(3)).find(any(Query.class), eq(Task.class));
+    }
+
+    @Test
+    void shouldContinueAfterTheLastTaskOfARunCutShort() {
+        TaskProgressReconciliationJob job = new TaskProgressReconciliationJob(mongoTemplate, progressCounter,
+                new ProgressReconciliationProperties(true, 1, 1));
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(any(Query.class), eq(Task.class)))
+                .thenReturn(List.of(taskOf("first", new MicroTaskCounts(), 0)))
+                .thenReturn(List.of());
+        when(progressCounter.count(anyCollection())).thenReturn(Map.of());
+
+        job.reconcile();
+        job.reconcile();
+
+        verify(mongoTemplate, times(2)).find(queryCaptor.capture(), eq(Task.class));
+        assertNull(queryCaptor.getAllValues().get(0).getQueryObject().get("id"));
+        assertEquals(new Document("$gt", "first"), queryCaptor.getAllValues().get(1).getQueryObject().get("id"));
+    }
+
+    @Test
+    void shouldRoundProgressDownAndIgnoreCancelledMicroTasks() {
+        assertEquals(66, TaskProgressCounter.progressOf(MicroTaskCounts.builder().total(4).completed(2).cancelled(1).build()));
+        assertEquals(0, TaskProgressCounter.progressOf(MicroTaskCounts.builder().total(2).cancelled(2).build()));
+        assertEquals(100, TaskProgressCounter.progressOf(MicroTaskCounts.builder().total(3).completed(2).cancelled(1).build()));
+    }
+
+    private MicroTaskCounts counts(int total, int completed, int pending) {
+        return MicroTaskCounts.builder().total(total).completed(completed).pending(pending).build();
+    }
+
+    private Task taskOf(String id, MicroTaskCounts counts, Integer progress) {
+        return Task.builder().id(id).ownerId("owner").microTaskCounts(counts).progress(progress).build();
+    }
+}
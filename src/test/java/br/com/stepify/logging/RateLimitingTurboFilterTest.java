@@ -0,0 +1,40 @@
+package br.com.stepify.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitingTurboFilterTest {
+    private final Logger logger = new LoggerContext().getLogger("br.com.stepify.service.TaskService");
+
+    @Test
+    void shouldDenyMarkedEventsAboveTheLimitWithinOneSecond() {
+        RateLimitingTurboFilter filter = filter(2);
+
+        assertEquals(FilterReply.NEUTRAL, decide(filter));
+        assertEquals(FilterReply.NEUTRAL, decide(filter));
+        assertEquals(FilterReply.DENY, decide(filter));
+    }
+
+    @Test
+    void shouldIgnoreEventsWithoutTheMarker() {
+        RateLimitingTurboFilter filter = filter(0);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.WARN, "Other warning", null, null));
+    }
+
+    private FilterReply decide(RateLimitingTurboFilter filter) {
+        return filter.decide(LogMarkers.NOT_FOUND, logger, Level.WARN, "Task with ID: {} not found", new Object[]{"1"}, null);
+    }
+
+    private RateLimitingTurboFilter filter(int maxPerSecond) {
+        RateLimitingTurboFilter filter = new RateLimitingTurboFilter();
+        filter.setMarker("NOT_FOUND");
+        filter.setMaxPerSecond(maxPerSecond);
+        return filter;
+    }
+}
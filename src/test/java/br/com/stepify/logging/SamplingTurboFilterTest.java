@@ -0,0 +1,53 @@
+package br.com.stepify.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final Logger serviceLogger = loggerContext.getLogger("br.com.stepify.service.TaskService");
+    private final Logger otherLogger = loggerContext.getLogger("org.springframework.web");
+
+    @Test
+    void shouldDropServiceInfoEventsWhenSampleRateIsZero() {
+        SamplingTurboFilter filter = filter(0.0);
+
+        assertEquals(FilterReply.DENY, filter.decide(null, serviceLogger, Level.INFO, "Searching task", null, null));
+    }
+
+    @Test
+    void shouldNeverSampleOtherLevelsOrLoggers() {
+        SamplingTurboFilter filter = filter(0.0);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, serviceLogger, Level.WARN, "Task not found", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, otherLogger, Level.INFO, "Request", null, null));
+    }
+
+    @Test
+    void shouldNotAffectLevelChecks() {
+        SamplingTurboFilter filter = filter(0.0);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, serviceLogger, Level.INFO, null, null, null));
+    }
+
+    @Test
+    void shouldKeepEveryEventWhenSampleRateIsOne() {
+        SamplingTurboFilter filter = filter(1.0);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, serviceLogger, Level.INFO, "Searching task", null, null));
+        }
+    }
+
+    private SamplingTurboFilter filter(double sampleRate) {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setLoggerPrefix("br.com.stepify.service");
+        filter.setSampleRate(sampleRate);
+        return filter;
+    }
+}
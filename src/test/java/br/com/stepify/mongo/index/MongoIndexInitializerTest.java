@@ -0,0 +1,114 @@
+package br.com.stepify.mongo.index;
+
+import br.com.stepify.config.ArchiveProperties;
+import br.com.stepify.config.MongoIndexProperties;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MongoIndexInitializerTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private QueryPlanInspector queryPlanInspector;
+    @Mock
+    private MongoDatabaseFactory databaseFactory;
+    @Mock
+    private MongoDatabase adminDatabase;
+    @Mock
+    private MongoDatabase database;
+    @Mock
+    private IndexOperations taskIndexOperations;
+
+    @Test
+    void shouldFailStartupWhenACollectionCannotBeSharded() {
+        MongoIndexInitializer initializer = initializer(new MongoIndexProperties(false, false, true, null));
+
+        when(mongoTemplate.getMongoDatabaseFactory()).thenReturn(databaseFactory);
+        when(databaseFactory.getMongoDatabase("admin")).thenReturn(adminDatabase);
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.getName()).thenReturn("stepify-task");
+        when(mongoTemplate.getCollectionName(any())).thenReturn("task");
+        when(adminDatabase.runCommand(any(Document.class)))
+                .thenThrow(new MongoCommandException(new BsonDocument(), new ServerAddress()));
+
+        assertThrows(IllegalStateException.class, initializer::initialize);
+
+        verifyNoInteractions(queryPlanInspector);
+    }
+
+    @Test
+    void shouldAssignTheBackfillOwnerToDocumentsWithoutOne() {
+        MongoIndexInitializer initializer = initializer(new MongoIndexProperties(false, false, false, "legacy"));
+
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), any(Class.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        initializer.initialize();
+
+        verify(mongoTemplate).updateMulti(
+                argThat(query -> query.getQueryObject().toJson().contains("\"ownerId\": {\"$exists\": false}")),
+                eq(Update.update("ownerId", "legacy")),
+                eq(Task.class));
+        verify(mongoTemplate).updateMulti(any(Query.class), eq(Update.update("ownerId", "legacy")), eq(MicroTask.class));
+    }
+
+    @Test
+    void shouldDropOnlyTheSupersededIndexesThatStillExist() {
+        MongoIndexInitializer initializer = initializer(new MongoIndexProperties(true, false, false, null));
+        IndexOperations otherIndexOperations = mock(IndexOperations.class);
+
+        when(mongoTemplate.indexOps(any(Class.class))).thenAnswer(invocation ->
+                invocation.getArgument(0) == Task.class ? taskIndexOperations : otherIndexOperations);
+        when(mongoTemplate.indexOps(any(String.class))).thenReturn(otherIndexOperations);
+        when(taskIndexOperations.getIndexInfo()).thenReturn(List.of(
+                indexInfo("tasks_live_status_idx"), indexInfo("tasks_owner_live_status_idx")));
+
+        initializer.initialize();
+
+        verify(taskIndexOperations).dropIndex("tasks_live_status_idx");
+        verify(taskIndexOperations, never()).dropIndex("tasks_owner_live_status_idx");
+        verify(otherIndexOperations, never()).dropIndex(any());
+    }
+
+    @Test
+    void shouldKeepALiveTaskOrderIndexForJobsThatWalkEveryOwner() {
+        assertTrue(MongoIndexInitializer.indexDefinitions().get(MicroTask.class).stream()
+                .map(IndexDefinition::getIndexKeys)
+                .anyMatch(keys -> keys.keySet().iterator().next().equals("taskId")));
+        assertFalse(MongoIndexInitializer.supersededIndexes().get(MicroTask.class).contains("micro_tasks_live_task_order_idx"));
+    }
+
+    private MongoIndexInitializer initializer(MongoIndexProperties properties) {
+        ArchiveProperties archiveProperties = new ArchiveProperties(true, 500, 20, Duration.ofDays(30), Duration.ofDays(90), Duration.ofDays(365));
+        return new MongoIndexInitializer(mongoTemplate, properties, archiveProperties, queryPlanInspector);
+    }
+
+    private IndexInfo indexInfo(String name) {
+        return new IndexInfo(List.of(), name, false, false, null);
+    }
+}
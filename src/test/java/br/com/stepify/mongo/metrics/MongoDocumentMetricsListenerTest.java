@@ -0,0 +1,69 @@
+package br.com.stepify.mongo.metrics;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoDocumentMetricsListenerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MongoDocumentMetricsListener listener = new MongoDocumentMetricsListener(meterRegistry);
+    private final ConnectionDescription connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    @Test
+    void shouldRecordReturnedDocumentsPerCollectionAndCommand() {
+        BsonDocument firstBatch = new BsonDocument("cursor", new BsonDocument("firstBatch",
+                new BsonArray(List.of(new BsonDocument(), new BsonDocument(), new BsonDocument()))));
+
+        listener.commandStarted(started(1, "find", new BsonDocument("find", new BsonString("tasks"))));
+        listener.commandSucceeded(succeeded(1, "find", firstBatch));
+
+        DistributionSummary summary = meterRegistry.find(MongoDocumentMetricsListener.METRIC_NAME)
+                .tags("collection", "tasks", "command", "find")
+                .summary();
+        assertNotNull(summary);
+        assertEquals(1, summary.count());
+        assertEquals(3, summary.totalAmount());
+    }
+
+    @Test
+    void shouldRecordAffectedDocumentsOfWrites() {
+        listener.commandStarted(started(2, "update", new BsonDocument("update", new BsonString("micro_tasks"))));
+        listener.commandSucceeded(succeeded(2, "update", new BsonDocument("n", new BsonInt32(4))));
+
+        DistributionSummary summary = meterRegistry.find(MongoDocumentMetricsListener.METRIC_NAME)
+                .tags("collection", "micro_tasks", "command", "update")
+                .summary();
+        assertNotNull(summary);
+        assertEquals(4, summary.totalAmount());
+    }
+
+    @Test
+    void shouldIgnoreUntrackedCommands() {
+        listener.commandStarted(started(3, "ping", new BsonDocument("ping", new BsonInt32(1))));
+        listener.commandSucceeded(succeeded(3, "ping", new BsonDocument("ok", new BsonInt32(1))));
+
+        assertTrue(meterRegistry.find(MongoDocumentMetricsListener.METRIC_NAME).summaries().isEmpty());
+    }
+
+    private CommandStartedEvent started(int requestId, String commandName, BsonDocument command) {
+        return new CommandStartedEvent(null, 1, requestId, connection, "stepify-task", commandName, command);
+    }
+
+    private CommandSucceededEvent succeeded(int requestId, String commandName, BsonDocument response) {
+        return new CommandSucceededEvent(null, 1, requestId, connection, "stepify-task", commandName, response, 1_000);
+    }
+}
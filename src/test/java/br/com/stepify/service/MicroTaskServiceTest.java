@@ -1,40 +1,77 @@
 package br.com.stepify.service;
 
+import br.com.stepify.command.common.inputs.BulkDeleteCommand;
+import br.com.stepify.command.common.outputs.BulkResultDTO;
+import br.com.stepify.command.common.outputs.ChangeEventDTO;
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.common.outputs.VersionDTO;
+import br.com.stepify.command.microtask.inputs.BulkCreateMicroTasksCommand;
+import br.com.stepify.command.microtask.inputs.BulkUpdateMicroTaskItemCommand;
+import br.com.stepify.command.microtask.inputs.BulkUpdateMicroTasksCommand;
 import br.com.stepify.command.microtask.inputs.CreateMicroTaskCommand;
+import br.com.stepify.command.microtask.inputs.MicroTaskQueryCommand;
+import br.com.stepify.command.microtask.inputs.MoveMicroTaskCommand;
+import br.com.stepify.command.microtask.inputs.ReorderMicroTasksCommand;
 import br.com.stepify.command.microtask.inputs.UpdateMicroTaskCommand;
 import br.com.stepify.command.microtask.outputs.MicroTaskDTO;
-import br.com.stepify.command.task.outputs.TaskDTO;
-import br.com.stepify.enums.ETaskPriority;
+import br.com.stepify.config.ArchiveProperties;
+import br.com.stepify.config.ChangeFeedProperties;
+import br.com.stepify.enums.EBulkItemStatus;
+import br.com.stepify.enums.EChangeOperation;
+import br.com.stepify.enums.EReadRoute;
 import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.event.TaskEventBus;
+import br.com.stepify.exception.BadRequestException;
+import br.com.stepify.exception.ConflictException;
 import br.com.stepify.exception.EntityNotFoundException;
 import br.com.stepify.mapper.MicroTaskMapper;
 import br.com.stepify.mongo.entity.MicroTask;
 import br.com.stepify.mongo.repository.MicroTaskRepository;
+import br.com.stepify.mongo.routing.MongoReadRouter;
+import br.com.stepify.mongo.transaction.MongoTransactionRunner;
 import br.com.stepify.service.action.microtask.UpdateMicroTaskAction;
-import com.mongodb.client.result.UpdateResult;
+import br.com.stepify.service.ordering.MicroTaskRanks;
+import br.com.stepify.service.progress.ProgressDelta;
+import br.com.stepify.service.progress.TaskProgressCounter;
+import com.mongodb.bulk.BulkWriteResult;
 import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class MicroTaskServiceTest {
+    private static final String OWNER_ID = "owner";
+
     @Mock
     private MicroTaskMapper microTaskMapper;
     @Mock
@@ -44,50 +81,132 @@ class MicroTaskServiceTest {
     @Mock
     private MongoTemplate mongoTemplate;
     @Mock
+    private MongoReadRouter readRouter;
+    @Mock
     private MicroTaskRepository microTaskRepository;
+    @Spy
+    private ChangeFeedProperties changeFeedProperties = new ChangeFeedProperties(Duration.ofSeconds(5));
+    @Spy
+    private ArchiveProperties archiveProperties = new ArchiveProperties(true, 500, 20, Duration.ofDays(30), Duration.ofDays(90), Duration.ofDays(365));
+    @Mock
+    private TaskEventBus eventBus;
+    @Mock
+    private TaskProgressCounter progressCounter;
+    @Mock
+    private MicroTaskRanks microTaskRanks;
+    @Mock
+    private MongoTransactionRunner transactionRunner;
 
     @InjectMocks
     private MicroTaskService microTaskService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(readRouter.forRoute(any(EReadRoute.class))).thenReturn(mongoTemplate);
+        lenient().when(transactionRunner.call(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(transactionRunner).run(any(Runnable.class));
+    }
+
     @Nested
     class Create {
         @Test
         void shouldCreateMicroTaskSuccessfullyWhenTaskExists() {
-            TaskDTO mockTaskDTO = createMockTaskDTO();
             CreateMicroTaskCommand microTaskCommand = createMicroTaskCommand();
             MicroTask expectedMicroTask = createMicroTask(microTaskCommand);
             MicroTaskDTO expectedMicroTaskDTO = createMicroTaskDTO(expectedMicroTask);
 
-            when(taskService.findTaskById(anyString())).thenReturn(mockTaskDTO);
-            when(microTaskMapper.fromCommand(microTaskCommand)).thenReturn(expectedMicroTask);
+            when(microTaskMapper.fromCommand(OWNER_ID, microTaskCommand)).thenReturn(expectedMicroTask);
             when(microTaskRepository.save(expectedMicroTask)).thenReturn(expectedMicroTask);
             when(microTaskMapper.toDTO(expectedMicroTask)).thenReturn(expectedMicroTaskDTO);
 
-            MicroTaskDTO result = microTaskService.create(microTaskCommand);
+            MicroTaskDTO result = microTaskService.create(OWNER_ID, microTaskCommand);
 
             assertNotNull(result);
             assertMicroTaskDTO(expectedMicroTask, result);
 
-            verify(taskService).findTaskById(microTaskCommand.taskId());
-            verify(microTaskMapper).fromCommand(microTaskCommand);
+            verify(taskService).assertTaskExists(OWNER_ID, microTaskCommand.taskId());
+            verify(microTaskMapper).fromCommand(OWNER_ID, microTaskCommand);
             verify(microTaskRepository).save(expectedMicroTask);
             verify(microTaskMapper).toDTO(expectedMicroTask);
         }
 
+        @Test
+        void shouldRenumberTheTaskWhenNoRankIsLeftAfterItsLastMicroTask() {
+            CreateMicroTaskCommand microTaskCommand = new CreateMicroTaskCommand("taskId", "title", "description", ETaskStatus.PENDING, null);
+            MicroTask last = createMicroTask("last", Integer.MAX_VALUE - 1);
+            MicroTask created = createMicroTask(microTaskCommand);
+            BulkOperations operations = mock(BulkOperations.class);
+
+            when(microTaskMapper.fromCommand(OWNER_ID, microTaskCommand)).thenReturn(created);
+            when(microTaskRanks.lastRanks(OWNER_ID, List.of("taskId"))).thenReturn(Map.of("taskId", Integer.MAX_VALUE - 1));
+            when(microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(OWNER_ID, "taskId")).thenReturn(List.of(last));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MicroTask.class)).thenReturn(operations);
+            when(operations.execute()).thenReturn(matched(1));
+            when(microTaskRepository.save(created)).thenReturn(created);
+
+            microTaskService.create(OWNER_ID, microTaskCommand);
+
+            assertEquals(MicroTaskRanks.rankAt(0), last.getOrder());
+            assertEquals(MicroTaskRanks.rankAt(1), created.getOrder());
+        }
+
         @Test
         void shouldNotCreateMicroTaskWhenTaskDoesNotExists() {
             CreateMicroTaskCommand microTaskCommand = createMicroTaskCommand();
 
-            doThrow(EntityNotFoundException.class).when(taskService).findTaskById(anyString());
+            doThrow(EntityNotFoundException.class).when(taskService).assertTaskExists(eq(OWNER_ID), anyString());
 
-            assertThrows(EntityNotFoundException.class, () -> microTaskService.create(microTaskCommand));
+            assertThrows(EntityNotFoundException.class, () -> microTaskService.create(OWNER_ID, microTaskCommand));
 
             verify(microTaskRepository, never()).save(any(MicroTask.class));
         }
     }
 
     @Nested
-    class FindAllMicroTasks {
+    class CreateMicroTasks {
+        @Mock
+        private BulkOperations bulkOperations;
+
+        @Test
+        void shouldValidateParentsOnceAndInsertInOneBulkWrite() {
+            CreateMicroTaskCommand command = createMicroTaskCommand();
+            CreateMicroTaskCommand orphanCommand = new CreateMicroTaskCommand("missingTaskId", "title", null, ETaskStatus.PENDING, 1);
+            BulkCreateMicroTasksCommand bulkCommand = new BulkCreateMicroTasksCommand(List.of(command, command, orphanCommand));
+
+            when(taskService.findExistingTaskIds(eq(OWNER_ID), anyCollection())).thenReturn(Set.of("taskId"));
+            when(microTaskMapper.fromCommand(eq(OWNER_ID), any(CreateMicroTaskCommand.class))).thenAnswer(invocation -> createMicroTask(invocation.<CreateMicroTaskCommand>getArgument(1)));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MicroTask.class)).thenReturn(bulkOperations);
+
+            BulkResultDTO result = microTaskService.createMicroTasks(OWNER_ID, bulkCommand);
+
+            assertEquals(2, result.succeeded());
+            assertEquals(1, result.failed());
+            assertEquals(EBulkItemStatus.NOT_FOUND, result.items().get(2).status());
+
+            verify(taskService, times(1)).findExistingTaskIds(OWNER_ID, Set.of("taskId", "missingTaskId"));
+            verify(taskService, never()).assertTaskExists(anyString(), anyString());
+            verify(bulkOperations, times(2)).insert(any(MicroTask.class));
+            verify(bulkOperations, times(1)).execute();
+        }
+
+        @Test
+        void shouldSoftDeleteExistingMicroTasksWithASingleUpdate() {
+            when(mongoTemplate.find(any(Query.class), eq(MicroTask.class))).thenReturn(List.of(createMicroTask("1", 1)));
+
+            BulkResultDTO result = microTaskService.deleteMicroTasks(OWNER_ID, new BulkDeleteCommand(List.of("1", "2")));
+
+            assertEquals(EBulkItemStatus.DELETED, result.items().get(0).status());
+            assertEquals(EBulkItemStatus.NOT_FOUND, result.items().get(1).status());
+
+            verify(mongoTemplate, times(1)).updateMulti(any(Query.class), any(Update.class), eq(MicroTask.class));
+        }
+    }
+
+    @Nested
+    class FindMicroTasks {
         @Test
         void shouldRetrieveAllMicroTasksSuccessfully() {
             MicroTask microTask1 = createMicroTask("1", 1);
@@ -96,24 +215,67 @@ class MicroTaskServiceTest {
             MicroTaskDTO microTaskDTO2 = createMicroTaskDTO(microTask2);
             List<MicroTask> expectedMicroTasks = List.of(microTask1, microTask2);
 
-            when(microTaskRepository.findAllByDeletedFalse()).thenReturn(expectedMicroTasks);
+            when(mongoTemplate.find(any(Query.class), eq(MicroTask.class))).thenReturn(expectedMicroTasks);
             when(microTaskMapper.toDTO(microTask1)).thenReturn(microTaskDTO1);
             when(microTaskMapper.toDTO(microTask2)).thenReturn(microTaskDTO2);
 
-            List<MicroTaskDTO> result = microTaskService.findAllMicroTasks();
+            PageDTO<MicroTaskDTO> result = microTaskService.findMicroTasks(OWNER_ID, null, null);
 
             assertNotNull(result);
-            assertMicroTaskDTO(expectedMicroTasks, result);
+            assertMicroTaskDTO(expectedMicroTasks, result.items());
+            assertFalse(result.hasMore());
+        }
+
+        @Test
+        void shouldReturnNextCursorWhenMoreMicroTasksExist() {
+            MicroTask microTask1 = createMicroTask("1", 1);
+            MicroTask microTask2 = createMicroTask("2", 2);
+
+            when(mongoTemplate.find(any(Query.class), eq(MicroTask.class))).thenReturn(List.of(microTask1, microTask2));
+            when(microTaskMapper.toDTO(microTask1)).thenReturn(createMicroTaskDTO(microTask1));
+
+            PageDTO<MicroTaskDTO> result = microTaskService.findMicroTasks(OWNER_ID, null, 1);
+
+            assertEquals(1, result.items().size());
+            assertTrue(result.hasMore());
+            assertNotNull(result.nextCursor());
         }
 
         @Test
         void shouldReturnEmptyListWhenNoMicroTaskIsFound() {
-            when(microTaskRepository.findAllByDeletedFalse()).thenReturn(Collections.emptyList());
+            when(mongoTemplate.find(any(Query.class), eq(MicroTask.class))).thenReturn(Collections.emptyList());
 
-            List<MicroTaskDTO> result = microTaskService.findAllMicroTasks();
+            PageDTO<MicroTaskDTO> result = microTaskService.findMicroTasks(OWNER_ID, null, null);
 
             assertNotNull(result);
-            assertTrue(result.isEmpty());
+            assertTrue(result.items().isEmpty());
+        }
+
+        @Test
+        void shouldStreamAllMicroTasksToConsumer() {
+            MicroTask microTask = createMicroTask("1", 1);
+            MicroTaskDTO microTaskDTO = createMicroTaskDTO(microTask);
+            List<MicroTaskDTO> streamed = new ArrayList<>();
+
+            when(mongoTemplate.stream(any(Query.class), eq(MicroTask.class))).thenReturn(Stream.of(microTask));
+            when(microTaskMapper.toDTO(microTask)).thenReturn(microTaskDTO);
+
+            microTaskService.streamAllMicroTasks(OWNER_ID, streamed::add);
+
+            assertEquals(List.of(microTaskDTO), streamed);
+        }
+
+        @Test
+        void shouldFilterByStatusAndSortByOrder() {
+            MicroTaskQueryCommand command = new MicroTaskQueryCommand(Set.of(ETaskStatus.COMPLETED), "order", null);
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+            microTaskService.findMicroTasks(OWNER_ID, command, null, 10);
+
+            verify(mongoTemplate).find(queryCaptor.capture(), eq(MicroTask.class));
+            Document statusFilter = queryCaptor.getValue().getQueryObject().get("status", Document.class);
+            assertTrue(statusFilter.get("$in", Collection.class).contains(ETaskStatus.COMPLETED));
+            assertEquals(new Document("order", 1).append("id", 1), queryCaptor.getValue().getSortObject());
         }
     }
 
@@ -125,58 +287,136 @@ class MicroTaskServiceTest {
             MicroTask expectedMicroTask = createMicroTask(microTaskId, 1);
             MicroTaskDTO expectedMicroTaskDTO = createMicroTaskDTO(expectedMicroTask);
 
-            when(microTaskRepository.findByIdAndDeletedFalse(microTaskId)).thenReturn(Optional.of(expectedMicroTask));
+            when(microTaskRepository.findByOwnerIdAndIdAndDeletedFalse(OWNER_ID, microTaskId)).thenReturn(Optional.of(expectedMicroTask));
             when(microTaskMapper.toDTO(expectedMicroTask)).thenReturn(expectedMicroTaskDTO);
 
-            MicroTaskDTO result = microTaskService.findMicroTaskById(microTaskId);
+            MicroTaskDTO result = microTaskService.findMicroTaskById(OWNER_ID, microTaskId);
 
             assertNotNull(result);
             assertMicroTaskDTO(expectedMicroTask, result);
 
-            verify(microTaskRepository).findByIdAndDeletedFalse(microTaskId);
+            verify(microTaskRepository).findByOwnerIdAndIdAndDeletedFalse(OWNER_ID, microTaskId);
             verify(microTaskMapper).toDTO(expectedMicroTask);
         }
 
         @Test
         void shouldThrowEntityNotFoundExceptionWhenMicroTaskDoesNotExists() {
-            when(microTaskRepository.findByIdAndDeletedFalse(anyString())).thenReturn(Optional.empty());
+            when(microTaskRepository.findByOwnerIdAndIdAndDeletedFalse(eq(OWNER_ID), anyString())).thenReturn(Optional.empty());
+
+            assertThrows(EntityNotFoundException.class, () -> microTaskService.findMicroTaskById(OWNER_ID, "1"));
+        }
+
+        @Test
+        void shouldAskThePrimaryForTheVersionWhenTheReplicaMissesTheMicroTask() {
+            MicroTask storedMicroTask = createMicroTask("1", 1);
+            storedMicroTask.setVersion(2L);
+            MongoTemplate replicaTemplate = mock(MongoTemplate.class);
+
+            when(readRouter.forRoute(EReadRoute.MICRO_TASK_VERSION)).thenReturn(replicaTemplate);
+            when(mongoTemplate.findOne(any(Query.class), eq(MicroTask.class))).thenReturn(storedMicroTask);
+
+            assertEquals(new VersionDTO(2L, storedMicroTask.getUpdatedAt()), microTaskService.findMicroTaskVersion(OWNER_ID, "1"));
+
+            verify(replicaTemplate).findOne(any(Query.class), eq(MicroTask.class));
+        }
+
+        @Test
+        void shouldThrowEntityNotFoundExceptionWhenNeitherReplicaNorPrimaryHaveTheMicroTask() {
+            when(readRouter.forRoute(EReadRoute.MICRO_TASK_VERSION)).thenReturn(mock(MongoTemplate.class));
+
+            assertThrows(EntityNotFoundException.class, () -> microTaskService.findMicroTaskVersion(OWNER_ID, "1"));
 
-            assertThrows(EntityNotFoundException.class, () -> microTaskService.findMicroTaskById("1"));
+            verify(mongoTemplate).findOne(any(Query.class), eq(MicroTask.class));
         }
 
         @Nested
         class UpdateMicroTaskById {
             @Test
-            void shouldUpdateMicroTaskSuccessfullyWhenExists() {
+            void shouldUpdateMicroTaskAtomicallyWhenExists() {
                 String microTaskId = "1";
                 UpdateMicroTaskCommand command = updateMicroTaskCommand();
-                MicroTask existingMicroTask = createMicroTask(microTaskId, 1);
-                MicroTask updatedMicroTask = createMicroTask(microTaskId, existingMicroTask.getTaskId(), command);
-                MicroTaskDTO expectedMicroTaskDTO = createMicroTaskDTO(updatedMicroTask);
+                MicroTask updatedMicroTask = createMicroTask(microTaskId, "taskId", command);
 
-                when(microTaskRepository.findByIdAndDeletedFalse(microTaskId)).thenReturn(Optional.of(existingMicroTask));
-                doNothing().when(updateMicroTaskAction).execute(existingMicroTask, command);
-                when(microTaskRepository.save(existingMicroTask)).thenReturn(updatedMicroTask);
-                when(microTaskMapper.toDTO(existingMicroTask)).thenReturn(expectedMicroTaskDTO);
+                ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+                ArgumentCaptor<FindAndModifyOptions> optionsCaptor = ArgumentCaptor.forClass(FindAndModifyOptions.class);
 
-                MicroTaskDTO result = microTaskService.updateMicroTaskById(microTaskId, command);
+                when(updateMicroTaskAction.toUpdate(command)).thenReturn(Update.update("status", command.status()));
+                when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MicroTask.class)))
+                        .thenReturn(updatedMicroTask);
+                when(microTaskMapper.toDTO(updatedMicroTask)).thenAnswer(invocation -> createMicroTaskDTO(invocation.getArgument(0)));
+
+                MicroTaskDTO result = microTaskService.updateMicroTaskById(OWNER_ID, microTaskId, command);
 
                 assertNotNull(result);
                 assertMicroTaskDTO(updatedMicroTask, result);
 
-                verify(microTaskRepository).findByIdAndDeletedFalse(microTaskId);
-                verify(updateMicroTaskAction).execute(existingMicroTask, command);
-                verify(microTaskRepository).save(existingMicroTask);
-                verify(microTaskMapper).toDTO(existingMicroTask);
+                verify(mongoTemplate).findAndModify(queryCaptor.capture(), any(Update.class), optionsCaptor.capture(), eq(MicroTask.class));
+                assertEquals(microTaskId, queryCaptor.getValue().getQueryObject().get("id"));
+                assertEquals(false, queryCaptor.getValue().getQueryObject().get("deleted"));
+                assertFalse(optionsCaptor.getValue().isReturnNew());
+                verify(updateMicroTaskAction).execute(updatedMicroTask, command);
+                verify(progressCounter).apply(eq(OWNER_ID), any(ProgressDelta.class));
+
+                verify(microTaskRepository, never()).findByOwnerIdAndIdAndDeletedFalse(anyString(), anyString());
+                verify(microTaskRepository, never()).save(any(MicroTask.class));
             }
 
             @Test
             void shouldThrowEntityNotFoundExceptionWhenMicroTaskDoesNotExists() {
                 UpdateMicroTaskCommand command = updateMicroTaskCommand();
 
-                when(microTaskRepository.findByIdAndDeletedFalse(anyString())).thenReturn(Optional.empty());
+                when(updateMicroTaskAction.toUpdate(command)).thenReturn(new Update());
+                when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MicroTask.class)))
+                        .thenReturn(null);
+
+                assertThrows(EntityNotFoundException.class, () -> microTaskService.updateMicroTaskById(OWNER_ID, "1", command));
+            }
+
+            @Test
+            void shouldFailTheUpdateWhenTheTaskCountersCannotBeWritten() {
+                UpdateMicroTaskCommand command = updateMicroTaskCommand();
+
+                when(updateMicroTaskAction.toUpdate(command)).thenReturn(Update.update("status", command.status()));
+                when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MicroTask.class)))
+                        .thenReturn(createMicroTask("1", "taskId", command));
+                doThrow(new IllegalStateException("write conflict")).when(progressCounter).apply(eq(OWNER_ID), any(ProgressDelta.class));
+
+                assertThrows(IllegalStateException.class, () -> microTaskService.updateMicroTaskById(OWNER_ID, "1", command));
+
+                verify(transactionRunner).call(any());
+                verifyNoInteractions(eventBus);
+            }
+
+            @Test
+            void shouldThrowConflictExceptionWhenVersionDoesNotMatch() {
+                UpdateMicroTaskCommand command = updateMicroTaskCommand();
+                MicroTask currentMicroTask = createMicroTask("1", "taskId", command);
+                currentMicroTask.setVersion(5L);
+
+                when(updateMicroTaskAction.toUpdate(command)).thenReturn(new Update());
+                when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MicroTask.class)))
+                        .thenReturn(null);
+                when(mongoTemplate.findOne(any(Query.class), eq(MicroTask.class))).thenReturn(currentMicroTask);
+
+                assertThrows(ConflictException.class, () -> microTaskService.updateMicroTaskById(OWNER_ID, "1", command, 4L));
+            }
+
+            @Test
+            void shouldMatchDocumentsWithoutVersionWhenExpectingVersionZero() {
+                UpdateMicroTaskCommand command = updateMicroTaskCommand();
+                MicroTask updatedMicroTask = createMicroTask("1", "taskId", command);
+                ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+                when(updateMicroTaskAction.toUpdate(command)).thenReturn(new Update());
+                when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MicroTask.class)))
+                        .thenReturn(updatedMicroTask);
+                when(microTaskMapper.toDTO(updatedMicroTask)).thenReturn(createMicroTaskDTO(updatedMicroTask));
+
+                microTaskService.updateMicroTaskById(OWNER_ID, "1", command, 0L);
 
-                assertThrows(EntityNotFoundException.class, () -> microTaskService.updateMicroTaskById("1", command));
+                verify(mongoTemplate).findAndModify(queryCaptor.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(MicroTask.class));
+                Document version = queryCaptor.getValue().getQueryObject().get("version", Document.class);
+                assertEquals(Arrays.asList(0L, null), version.get("$in"));
             }
         }
     }
@@ -186,37 +426,169 @@ class MicroTaskServiceTest {
         @Test
         void shouldDeleteMicroTaskSuccessfullyWhenExists() {
             String microTaskId = "1";
-            MicroTask expectedMicroTask = createMicroTask(microTaskId, 1);
-            UpdateResult updateResult = mock(UpdateResult.class);
 
             ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
             ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+            ArgumentCaptor<ChangeEventDTO> eventCaptor = ArgumentCaptor.forClass(ChangeEventDTO.class);
 
-            when(microTaskRepository.findByIdAndDeletedFalse(microTaskId)).thenReturn(Optional.of(expectedMicroTask));
-            when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(MicroTask.class))).thenReturn(updateResult);
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(MicroTask.class)))
+                    .thenReturn(MicroTask.builder().id(microTaskId).taskId("taskId").build());
 
-            assertDoesNotThrow(() -> microTaskService.deleteMicroTaskById(microTaskId));
+            assertDoesNotThrow(() -> microTaskService.deleteMicroTaskById(OWNER_ID, microTaskId));
 
-            verify(microTaskRepository).findByIdAndDeletedFalse(microTaskId);
-            verify(mongoTemplate).updateFirst(queryCaptor.capture(), updateCaptor.capture(), eq(MicroTask.class));
+            verify(microTaskRepository, never()).findByOwnerIdAndIdAndDeletedFalse(anyString(), anyString());
+            verify(mongoTemplate).findAndModify(queryCaptor.capture(), updateCaptor.capture(), eq(MicroTask.class));
 
             Query capturedQuery = queryCaptor.getValue();
             assertEquals(microTaskId, capturedQuery.getQueryObject().get("id"));
+            assertEquals(false, capturedQuery.getQueryObject().get("deleted"));
 
             Update capturedUpdate = updateCaptor.getValue();
             assertEquals(true, capturedUpdate.getUpdateObject().get("$set", Document.class).get("deleted"));
+
+            verify(eventBus).publishLocal(eventCaptor.capture());
+            assertEquals(EChangeOperation.DELETED, eventCaptor.getValue().operation());
+            assertEquals("taskId", eventCaptor.getValue().taskId());
         }
 
         @Test
         void shouldThrowEntityNotFoundExceptionWhenMicroTaskDoesNotExists() {
-            when(microTaskRepository.findByIdAndDeletedFalse(anyString())).thenReturn(Optional.empty());
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(MicroTask.class))).thenReturn(null);
+
+            assertThrows(EntityNotFoundException.class, () -> microTaskService.deleteMicroTaskById(OWNER_ID, "1"));
+
+            verifyNoInteractions(eventBus);
+        }
+    }
+
+    @Nested
+    class UpdateMicroTasks {
+        @Test
+        void shouldThrowBadRequestExceptionWhenIdsRepeat() {
+            BulkUpdateMicroTasksCommand command = new BulkUpdateMicroTasksCommand(List.of(
+                    new BulkUpdateMicroTaskItemCommand("1", updateMicroTaskCommand()),
+                    new BulkUpdateMicroTaskItemCommand("1", updateMicroTaskCommand())));
+
+            assertThrows(BadRequestException.class, () -> microTaskService.updateMicroTasks(OWNER_ID, command));
+
+            verifyNoInteractions(mongoTemplate, progressCounter);
+        }
+    }
+
+    @Nested
+    class ReorderMicroTasks {
+        @Test
+        void shouldWriteOnlyTheMicroTasksWhoseRankChangesInOneBulkWrite() {
+            MicroTask first = createMicroTask("1", MicroTaskRanks.rankAt(0));
+            MicroTask second = createMicroTask("2", MicroTaskRanks.rankAt(1));
+            MicroTask third = createMicroTask("3", MicroTaskRanks.rankAt(2));
+            BulkOperations operations = mock(BulkOperations.class);
+
+            when(microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(OWNER_ID, "taskId")).thenReturn(List.of(first, second, third));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MicroTask.class)).thenReturn(operations);
+            when(operations.execute()).thenReturn(matched(2));
+
+            microTaskService.reorderMicroTasks(OWNER_ID, new ReorderMicroTasksCommand("taskId", List.of("1", "3", "2")));
+
+            verify(operations, times(2)).updateOne(any(Query.class), any(Update.class));
+            verify(operations).execute();
+            assertEquals(MicroTaskRanks.rankAt(0), first.getOrder());
+            assertEquals(MicroTaskRanks.rankAt(1), third.getOrder());
+            assertEquals(MicroTaskRanks.rankAt(2), second.getOrder());
+            verify(mongoTemplate, never()).find(any(Query.class), eq(MicroTask.class));
+        }
+
+        @Test
+        void shouldLeaveOutMicroTasksDeletedWhileBeingReordered() {
+            MicroTask first = createMicroTask("1", MicroTaskRanks.rankAt(0));
+            MicroTask second = createMicroTask("2", MicroTaskRanks.rankAt(1));
+            BulkOperations operations = mock(BulkOperations.class);
+
+            when(microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(OWNER_ID, "taskId")).thenReturn(List.of(first, second));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MicroTask.class)).thenReturn(operations);
+            when(operations.execute()).thenReturn(matched(1));
+            when(mongoTemplate.find(any(Query.class), eq(MicroTask.class))).thenReturn(List.of(second));
+            when(microTaskMapper.toDTO(second)).thenReturn(createMicroTaskDTO(second));
+
+            List<MicroTaskDTO> result = microTaskService.reorderMicroTasks(OWNER_ID, new ReorderMicroTasksCommand("taskId", List.of("2", "1")));
+
+            assertEquals(List.of("2"), result.stream().map(MicroTaskDTO::id).toList());
+            verify(eventBus).publishLocal(argThat(event -> event.id().equals("2")));
+            verify(eventBus, never()).publishLocal(argThat(event -> event.id().equals("1")));
+        }
+
+        @Test
+        void shouldThrowConflictExceptionWhenIdsDoNotMatchTheMicroTasksOfTheTask() {
+            when(microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(OWNER_ID, "taskId"))
+                    .thenReturn(List.of(createMicroTask("1", 1024), createMicroTask("2", 2048)));
+
+            assertThrows(ConflictException.class,
+                    () -> microTaskService.reorderMicroTasks(OWNER_ID, new ReorderMicroTasksCommand("taskId", List.of("2"))));
+
+            verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(MicroTask.class));
+        }
+
+        @Test
+        void shouldThrowBadRequestExceptionWhenIdsRepeat() {
+            assertThrows(BadRequestException.class,
+                    () -> microTaskService.reorderMicroTasks(OWNER_ID, new ReorderMicroTasksCommand("taskId", List.of("1", "1"))));
+        }
+    }
+
+    @Nested
+    class MoveMicroTask {
+        @Test
+        void shouldTakeTheFreeRankBetweenTheNewNeighbours() {
+            MicroTask moving = createMicroTask("3", 3072);
+            MicroTask previous = createMicroTask("1", 1024);
+            ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+
+            when(microTaskRepository.findByOwnerIdAndIdAndDeletedFalse(OWNER_ID, "3")).thenReturn(Optional.of(moving));
+            when(microTaskRepository.findByOwnerIdAndIdAndDeletedFalse(OWNER_ID, "1")).thenReturn(Optional.of(previous));
+            when(mongoTemplate.findOne(any(Query.class), eq(MicroTask.class))).thenReturn(createMicroTask("2", 2048));
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MicroTask.class)))
+                    .thenReturn(moving);
+
+            microTaskService.moveMicroTask(OWNER_ID, "3", new MoveMicroTaskCommand("1"));
+
+            verify(mongoTemplate).findAndModify(any(Query.class), updateCaptor.capture(), any(FindAndModifyOptions.class), eq(MicroTask.class));
+            assertEquals(1536, updateCaptor.getValue().getUpdateObject().get("$set", Document.class).get("order"));
+            verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(MicroTask.class));
+        }
 
-            assertThrows(EntityNotFoundException.class, () -> microTaskService.deleteMicroTaskById("1"));
+        @Test
+        void shouldRenumberTheTaskWhenTheNeighboursAreAdjacent() {
+            MicroTask first = createMicroTask("1", 1024);
+            MicroTask second = createMicroTask("2", 1025);
+            MicroTask moving = createMicroTask("3", 2048);
+            BulkOperations operations = mock(BulkOperations.class);
+
+            when(microTaskRepository.findByOwnerIdAndIdAndDeletedFalse(OWNER_ID, "3")).thenReturn(Optional.of(moving));
+            when(microTaskRepository.findByOwnerIdAndIdAndDeletedFalse(OWNER_ID, "1")).thenReturn(Optional.of(first));
+            when(mongoTemplate.findOne(any(Query.class), eq(MicroTask.class))).thenReturn(second);
+            when(microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(OWNER_ID, "taskId")).thenReturn(List.of(first, second, moving));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MicroTask.class)).thenReturn(operations);
+            when(operations.execute()).thenReturn(matched(3));
+
+            microTaskService.moveMicroTask(OWNER_ID, "3", new MoveMicroTaskCommand("1"));
+
+            assertEquals(MicroTaskRanks.rankAt(0), first.getOrder());
+            assertEquals(MicroTaskRanks.rankAt(1), moving.getOrder());
+            assertEquals(MicroTaskRanks.rankAt(2), second.getOrder());
+            verify(operations).updateOne(any(Query.class), any(Update.class));
+            verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(MicroTask.class));
+        }
 
-            verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(MicroTask.class));
+        @Test
+        void shouldThrowBadRequestExceptionWhenMovedAfterItself() {
+            assertThrows(BadRequestException.class, () -> microTaskService.moveMicroTask(OWNER_ID, "1", new MoveMicroTaskCommand("1")));
         }
     }
 
+    private BulkWriteResult matched(int count) {
+        return BulkWriteResult.acknowledged(0, count, 0, count, List.of(), List.of());
+    }
+
     private void assertMicroTaskDTO(MicroTask expected, MicroTaskDTO actual) {
         assertEquals(expected.getId(), actual.id());
         assertEquals(expected.getTaskId(), actual.taskId());
@@ -259,6 +631,7 @@ class MicroTaskServiceTest {
     private MicroTask createMicroTask(String id, int order) {
         return MicroTask.builder()
                 .id(id)
+                .ownerId(OWNER_ID)
                 .taskId("taskId")
                 .title("title")
                 .description("description")
@@ -274,6 +647,7 @@ class MicroTaskServiceTest {
     private MicroTask createMicroTask(CreateMicroTaskCommand command) {
         return MicroTask.builder()
                 .id("1")
+                .ownerId(OWNER_ID)
                 .taskId(command.taskId())
                 .title(command.title())
                 .description(command.description())
@@ -289,6 +663,7 @@ class MicroTaskServiceTest {
     private MicroTask createMicroTask(String id, String taskId, UpdateMicroTaskCommand command) {
         return MicroTask.builder()
                 .id(id)
+                .ownerId(OWNER_ID)
                 .taskId(taskId)
                 .title(command.title())
                 .description(command.description())
@@ -310,21 +685,8 @@ class MicroTaskServiceTest {
                 expectedMicroTask.getStatus(),
                 expectedMicroTask.getOrder(),
                 expectedMicroTask.getCreatedAt(),
-                expectedMicroTask.getUpdatedAt()
-        );
-    }
-
-    private TaskDTO createMockTaskDTO() {
-        return new TaskDTO(
-                "taskId",
-                "Task Title",
-                "Task Description",
-                ETaskStatus.IN_PROGRESS,
-                ETaskPriority.HIGH,
-                LocalDateTime.now().plusDays(7),
-                null,
-                LocalDateTime.now(),
-                LocalDateTime.now()
+                expectedMicroTask.getUpdatedAt(),
+                expectedMicroTask.getVersion()
         );
     }
 }
\ No newline at end of file
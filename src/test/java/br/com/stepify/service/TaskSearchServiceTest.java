@@ -0,0 +1,132 @@
+package br.com.stepify.service;
+
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.microtask.outputs.MicroTaskDTO;
+import br.com.stepify.command.task.outputs.TaskDTO;
+import br.com.stepify.command.task.outputs.TaskSearchResultDTO;
+import br.com.stepify.enums.EReadRoute;
+import br.com.stepify.exception.BadRequestException;
+import br.com.stepify.mapper.MicroTaskMapper;
+import br.com.stepify.mapper.TaskMapper;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.mongo.routing.MongoReadRouter;
+import br.com.stepify.service.pagination.PageCursor;
+import br.com.stepify.service.search.TextHit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskSearchServiceTest {
+    private static final String OWNER_ID = "owner";
+
+    @Mock
+    private MongoReadRouter readRouter;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private TaskMapper taskMapper;
+    @Mock
+    private MicroTaskMapper microTaskMapper;
+
+    @InjectMocks
+    private TaskSearchService taskSearchService;
+
+    @Test
+    void shouldRankTasksByTheirBestMatchAndGroupMatchingMicroTasks() {
+        Task titleMatch = Task.builder().id("titleMatch").build();
+        Task stepMatch = Task.builder().id("stepMatch").build();
+        MicroTask step = MicroTask.builder().id("step").taskId("stepMatch").order(1).build();
+
+        when(readRouter.forRoute(EReadRoute.TASK_SEARCH)).thenReturn(mongoTemplate);
+        when(mongoTemplate.find(any(Query.class), eq(TextHit.class), eq("tasks")))
+                .thenReturn(List.of(new TextHit("titleMatch", null, 1.5), new TextHit("stepMatch", null, 0.5)));
+        when(mongoTemplate.find(any(Query.class), eq(TextHit.class), eq("micro_tasks")))
+                .thenReturn(List.of(new TextHit("step", "stepMatch", 2.0)));
+        when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of(titleMatch, stepMatch));
+        when(mongoTemplate.find(any(Query.class), eq(MicroTask.class))).thenReturn(List.of(step));
+        when(taskMapper.toDTO(any(Task.class))).thenAnswer(invocation -> taskDTO(invocation.<Task>getArgument(0).getId()));
+        when(microTaskMapper.toDTO(step)).thenReturn(microTaskDTO("step"));
+
+        PageDTO<TaskSearchResultDTO> result = taskSearchService.searchTasks(OWNER_ID, "report", null, 10);
+
+        assertEquals(List.of("stepMatch", "titleMatch"), result.items().stream().map(item -> item.task().id()).toList());
+        assertEquals(2.0, result.items().get(0).score());
+        assertEquals(List.of("step"), result.items().get(0).matchingMicroTasks().stream().map(MicroTaskDTO::id).toList());
+        assertTrue(result.items().get(1).matchingMicroTasks().isEmpty());
+        assertFalse(result.hasMore());
+    }
+
+    @Test
+    void shouldOnlyLoadTheTasksOfTheRequestedPage() {
+        when(readRouter.forRoute(EReadRoute.TASK_SEARCH)).thenReturn(mongoTemplate);
+        when(mongoTemplate.find(any(Query.class), eq(TextHit.class), eq("tasks")))
+                .thenReturn(List.of(new TextHit("1", null, 3.0), new TextHit("2", null, 2.0), new TextHit("3", null, 1.0)));
+        when(mongoTemplate.find(any(Query.class), eq(TextHit.class), eq("micro_tasks"))).thenReturn(List.of());
+        when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of(Task.builder().id("2").build()));
+        when(taskMapper.toDTO(any(Task.class))).thenAnswer(invocation -> taskDTO(invocation.<Task>getArgument(0).getId()));
+
+        PageDTO<TaskSearchResultDTO> result = taskSearchService.searchTasks(OWNER_ID, "report", PageCursor.encode("1"), 1);
+
+        assertEquals(List.of("2"), result.items().stream().map(item -> item.task().id()).toList());
+        assertEquals(PageCursor.encode("2"), result.nextCursor());
+        assertTrue(result.hasMore());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(MicroTask.class));
+    }
+
+    @Test
+    void shouldEndTheLastPageAtTheMaximumNumberOfRankedTasks() {
+        List<TextHit> taskHits = IntStream.range(0, 300).mapToObj(index -> new TextHit("task" + index, null, 1.0)).toList();
+        List<TextHit> stepHits = IntStream.range(0, 300).mapToObj(index -> new TextHit("step" + index, "parent" + index, 2.0)).toList();
+
+        when(readRouter.forRoute(EReadRoute.TASK_SEARCH)).thenReturn(mongoTemplate);
+        when(mongoTemplate.find(any(Query.class), eq(TextHit.class), eq("tasks"))).thenReturn(taskHits);
+        when(mongoTemplate.find(any(Query.class), eq(TextHit.class), eq("micro_tasks"))).thenReturn(stepHits);
+
+        PageDTO<TaskSearchResultDTO> result = taskSearchService.searchTasks(OWNER_ID, "report", PageCursor.encode("490"), 10);
+
+        assertFalse(result.hasMore());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void shouldThrowBadRequestExceptionWhenQueryIsBlank() {
+        assertThrows(BadRequestException.class, () -> taskSearchService.searchTasks(OWNER_ID, " ", null, 10));
+
+        verifyNoInteractions(readRouter);
+    }
+
+    @Test
+    void shouldThrowBadRequestExceptionWhenCursorIsNotAnOffset() {
+        assertThrows(BadRequestException.class,
+                () -> taskSearchService.searchTasks(OWNER_ID, "report", PageCursor.encode("abc"), 10));
+    }
+
+    @Test
+    void shouldThrowBadRequestExceptionWhenCursorIsBeyondTheRankedMatches() {
+        assertThrows(BadRequestException.class,
+                () -> taskSearchService.searchTasks(OWNER_ID, "report", PageCursor.encode(String.valueOf(Integer.MAX_VALUE)), 10));
+
+        verifyNoInteractions(readRouter);
+    }
+
+    private TaskDTO taskDTO(String id) {
+        return new TaskDTO(id, "title", null, null, null, null, null, null, null, null, null, null);
+    }
+
+    private MicroTaskDTO microTaskDTO(String id) {
+        return new MicroTaskDTO(id, "stepMatch", "title", null, null, 1, null, null, null);
+    }
+}
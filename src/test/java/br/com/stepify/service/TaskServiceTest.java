@@ -1,32 +1,70 @@
 package br.com.stepify.service;
 
+import br.com.stepify.cache.TaskCache;
+import br.com.stepify.command.common.inputs.BulkDeleteCommand;
+import br.com.stepify.command.common.outputs.BulkResultDTO;
+import br.com.stepify.command.common.outputs.ChangeEventDTO;
+import br.com.stepify.command.common.outputs.ChangesDTO;
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.common.outputs.VersionDTO;
+import br.com.stepify.command.task.inputs.BulkCreateTasksCommand;
+import br.com.stepify.command.task.inputs.BulkUpdateTaskItemCommand;
+import br.com.stepify.command.task.inputs.BulkUpdateTasksCommand;
 import br.com.stepify.command.task.inputs.CreateTaskCommand;
+import br.com.stepify.command.task.inputs.TaskQueryCommand;
 import br.com.stepify.command.task.inputs.UpdateTaskCommand;
 import br.com.stepify.command.task.outputs.TaskDTO;
+import br.com.stepify.config.ArchiveProperties;
+import br.com.stepify.config.ChangeFeedProperties;
+import br.com.stepify.enums.EBulkItemStatus;
+import br.com.stepify.enums.EChangeEntity;
+import br.com.stepify.enums.EChangeOperation;
+import br.com.stepify.enums.EReadRoute;
 import br.com.stepify.enums.ETaskPriority;
 import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.event.TaskEventBus;
+import br.com.stepify.exception.BadRequestException;
+import br.com.stepify.exception.ChangesExpiredException;
+import br.com.stepify.exception.ConflictException;
 import br.com.stepify.exception.EntityNotFoundException;
 import br.com.stepify.mapper.TaskMapper;
+import br.com.stepify.mongo.entity.MicroTask;
 import br.com.stepify.mongo.entity.Task;
 import br.com.stepify.mongo.repository.TaskRepository;
+import br.com.stepify.mongo.routing.MongoReadRouter;
+import br.com.stepify.mongo.transaction.MongoTransactionRunner;
 import br.com.stepify.service.action.task.UpdateTaskAction;
+import br.com.stepify.service.pagination.PageCursor;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
 import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,6 +72,8 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class TaskServiceTest {
+    private static final String OWNER_ID = "owner";
+
     @Mock
     private TaskMapper taskMapper;
     @Mock
@@ -41,11 +81,28 @@ class TaskServiceTest {
     @Mock
     private MongoTemplate mongoTemplate;
     @Mock
+    private MongoReadRouter readRouter;
+    @Mock
     private TaskRepository taskRepository;
+    @Mock
+    private TaskCache taskCache;
+    @Mock
+    private MongoTransactionRunner transactionRunner;
+    @Spy
+    private ChangeFeedProperties changeFeedProperties = new ChangeFeedProperties(Duration.ofSeconds(5));
+    @Spy
+    private ArchiveProperties archiveProperties = new ArchiveProperties(true, 500, 20, Duration.ofDays(30), Duration.ofDays(90), Duration.ofDays(365));
+    @Mock
+    private TaskEventBus eventBus;
 
     @InjectMocks
     private TaskService taskService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(readRouter.forRoute(any(EReadRoute.class))).thenReturn(mongoTemplate);
+    }
+
     @Nested
     class CreateTask {
         @Test
@@ -54,23 +111,131 @@ class TaskServiceTest {
             Task expectedTask = createTask("1", taskCommand);
             TaskDTO expectedTaskDTO = createTaskDTO(expectedTask);
 
-            when(taskMapper.fromCommand(any(CreateTaskCommand.class))).thenReturn(expectedTask);
+            when(taskMapper.fromCommand(eq(OWNER_ID), any(CreateTaskCommand.class))).thenReturn(expectedTask);
             when(taskRepository.save(any(Task.class))).thenReturn(expectedTask);
             when(taskMapper.toDTO(any(Task.class))).thenReturn(expectedTaskDTO);
 
-            TaskDTO result = taskService.createTask(taskCommand);
+            TaskDTO result = taskService.createTask(OWNER_ID, taskCommand);
 
             assertNotNull(result);
             assertTaskDTO(taskCommand, result);
 
-            verify(taskMapper).fromCommand(taskCommand);
+            verify(taskMapper).fromCommand(OWNER_ID, taskCommand);
             verify(taskRepository).save(expectedTask);
             verify(taskMapper).toDTO(expectedTask);
         }
     }
 
     @Nested
-    class FindAllTasks {
+    class BulkTasks {
+        @Mock
+        private BulkOperations bulkOperations;
+
+        @Test
+        void shouldCreateAllTasksInOneBulkWrite() {
+            BulkCreateTasksCommand command = new BulkCreateTasksCommand(List.of(createTaskCommand("Task 1"), createTaskCommand("Task 2")));
+
+            when(taskMapper.fromCommand(eq(OWNER_ID), any(CreateTaskCommand.class))).thenAnswer(invocation -> createTask(null, invocation.getArgument(1)));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class)).thenReturn(bulkOperations);
+
+            BulkResultDTO result = taskService.createTasks(OWNER_ID, command);
+
+            assertEquals(2, result.succeeded());
+            assertEquals(0, result.failed());
+            assertTrue(result.items().stream().allMatch(item -> item.status() == EBulkItemStatus.CREATED && item.id() != null));
+
+            verify(bulkOperations).insert(anyList());
+            verify(bulkOperations).execute();
+            verify(taskRepository, never()).save(any(Task.class));
+        }
+
+        @Test
+        void shouldReportFailedItemsOfThePartiallyAppliedBulk() {
+            BulkCreateTasksCommand command = new BulkCreateTasksCommand(List.of(createTaskCommand("Task 1"), createTaskCommand("Task 2")));
+            BulkOperationException exception = mock(BulkOperationException.class);
+            BulkWriteError error = new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1);
+
+            when(taskMapper.fromCommand(eq(OWNER_ID), any(CreateTaskCommand.class))).thenAnswer(invocation -> createTask(null, invocation.getArgument(1)));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class)).thenReturn(bulkOperations);
+            when(exception.getErrors()).thenReturn(List.of(error));
+            when(bulkOperations.execute()).thenThrow(exception);
+
+            BulkResultDTO result = taskService.createTasks(OWNER_ID, command);
+
+            assertEquals(1, result.succeeded());
+            assertEquals(1, result.failed());
+            assertEquals(EBulkItemStatus.CREATED, result.items().get(0).status());
+            assertEquals(EBulkItemStatus.FAILED, result.items().get(1).status());
+        }
+
+        @Test
+        void shouldUpdateOnlyExistingTasksAndReportMissingOnes() {
+            BulkUpdateTasksCommand command = new BulkUpdateTasksCommand(List.of(
+                    new BulkUpdateTaskItemCommand("1", createUpdateTaskCommand()),
+                    new BulkUpdateTaskItemCommand("2", createUpdateTaskCommand())
+            ));
+
+            when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of(createTask("1")));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class)).thenReturn(bulkOperations);
+            when(bulkOperations.execute()).thenReturn(updateResult(1));
+            when(updateTaskAction.toUpdate(any(UpdateTaskCommand.class))).thenReturn(new Update());
+
+            BulkResultDTO result = taskService.updateTasks(OWNER_ID, command);
+
+            assertEquals(EBulkItemStatus.UPDATED, result.items().get(0).status());
+            assertEquals(EBulkItemStatus.NOT_FOUND, result.items().get(1).status());
+
+            verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+            verify(bulkOperations).execute();
+            verify(mongoTemplate, times(1)).find(any(Query.class), eq(Task.class));
+        }
+
+        @Test
+        void shouldReportTasksDeletedBeforeTheBulkWriteAsNotFound() {
+            BulkUpdateTasksCommand command = new BulkUpdateTasksCommand(List.of(
+                    new BulkUpdateTaskItemCommand("1", createUpdateTaskCommand()),
+                    new BulkUpdateTaskItemCommand("2", createUpdateTaskCommand())
+            ));
+
+            when(mongoTemplate.find(any(Query.class), eq(Task.class)))
+                    .thenReturn(List.of(createTask("1"), createTask("2")))
+                    .thenReturn(List.of(createTask("1")));
+            when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class)).thenReturn(bulkOperations);
+            when(bulkOperations.execute()).thenReturn(updateResult(1));
+            when(updateTaskAction.toUpdate(any(UpdateTaskCommand.class))).thenReturn(new Update());
+
+            BulkResultDTO result = taskService.updateTasks(OWNER_ID, command);
+
+            assertEquals(EBulkItemStatus.UPDATED, result.items().get(0).status());
+            assertEquals(EBulkItemStatus.NOT_FOUND, result.items().get(1).status());
+
+            verify(eventBus).publishLocal(new ChangeEventDTO(EChangeEntity.TASK, EChangeOperation.UPSERTED, "1", "1", null, null, OWNER_ID));
+            verifyNoMoreInteractions(eventBus);
+        }
+
+        private BulkWriteResult updateResult(int matchedCount) {
+            return BulkWriteResult.acknowledged(0, matchedCount, 0, matchedCount, List.of(), List.of());
+        }
+
+        @Test
+        void shouldSoftDeleteExistingTasksAndTheirMicroTasksWithASingleUpdateEach() {
+            runTransactionsInline();
+            when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of(createTask("1")));
+            when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), any(Class.class))).thenReturn(mock(UpdateResult.class));
+
+            BulkResultDTO result = taskService.deleteTasks(OWNER_ID, new BulkDeleteCommand(List.of("1", "2")));
+
+            assertEquals(EBulkItemStatus.DELETED, result.items().get(0).status());
+            assertEquals(EBulkItemStatus.NOT_FOUND, result.items().get(1).status());
+
+            verify(mongoTemplate, times(1)).updateMulti(any(Query.class), any(Update.class), eq(Task.class));
+            verify(mongoTemplate, times(1)).updateMulti(any(Query.class), any(Update.class), eq(MicroTask.class));
+            verify(taskCache).evictAll(Set.of("1"));
+        }
+    }
+
+    @Nested
+    class FindTasks {
         @Test
         void shouldReturnAllTasksSuccessfully() {
             CreateTaskCommand taskCommand1 = createTaskCommand("Task 1");
@@ -81,33 +246,198 @@ class TaskServiceTest {
             TaskDTO expectedTaskDTO1 = createTaskDTO(expectedTask1);
             TaskDTO expectedTaskDTO2 = createTaskDTO(expectedTask2);
 
-            when(taskRepository.findAllByDeletedFalse()).thenReturn(expectedTaskList);
+            when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(expectedTaskList);
             when(taskMapper.toDTO(expectedTask1)).thenReturn(expectedTaskDTO1);
             when(taskMapper.toDTO(expectedTask2)).thenReturn(expectedTaskDTO2);
 
-            List<TaskDTO> result = taskService.findAllTasks();
+            PageDTO<TaskDTO> result = taskService.findTasks(OWNER_ID, null, 10);
 
             assertNotNull(result);
-            assertEquals(2, result.size());
-            assertEquals("1", result.get(0).id());
-            assertEquals("2", result.get(1).id());
+            assertEquals(2, result.items().size());
+            assertEquals("1", result.items().get(0).id());
+            assertEquals("2", result.items().get(1).id());
+            assertFalse(result.hasMore());
+            assertNull(result.nextCursor());
 
-            verify(taskRepository).findAllByDeletedFalse();
             verify(taskMapper, times(2)).toDTO(any(Task.class));
         }
 
+        @Test
+        void shouldReturnNextCursorWhenMoreTasksExist() {
+            Task expectedTask1 = createTask("1");
+            Task expectedTask2 = createTask("2");
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+            when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(new ArrayList<>(List.of(expectedTask1, expectedTask2)));
+            when(taskMapper.toDTO(expectedTask1)).thenReturn(createTaskDTO(expectedTask1));
+
+            PageDTO<TaskDTO> result = taskService.findTasks(OWNER_ID, null, 1);
+
+            assertEquals(1, result.items().size());
+            assertTrue(result.hasMore());
+            assertNotNull(result.nextCursor());
+
+            verify(mongoTemplate).find(queryCaptor.capture(), eq(Task.class));
+            assertEquals(2, queryCaptor.getValue().getLimit());
+            verify(taskMapper, never()).toDTO(expectedTask2);
+        }
+
+        @Test
+        void shouldStartAfterCursorWhenCursorIsProvided() {
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+            taskService.findTasks(OWNER_ID, PageCursor.encode("1"), 1);
+
+            verify(mongoTemplate).find(queryCaptor.capture(), eq(Task.class));
+            Document idFilter = queryCaptor.getValue().getQueryObject().get("id", Document.class);
+            assertEquals("1", idFilter.get("$gt"));
+        }
+
+        @Test
+        void shouldThrowBadRequestExceptionWhenCursorIsInvalid() {
+            assertThrows(BadRequestException.class, () -> taskService.findTasks(OWNER_ID, "%%%", 10));
+
+            verify(mongoTemplate, never()).find(any(Query.class), eq(Task.class));
+        }
+
         @Test
         void shouldReturnEmptyListWhenNoTasksExist() {
-            when(taskRepository.findAllByDeletedFalse()).thenReturn(Collections.emptyList());
+            when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(Collections.emptyList());
 
-            List<TaskDTO> result = taskService.findAllTasks();
+            PageDTO<TaskDTO> result = taskService.findTasks(OWNER_ID, null, null);
 
             assertNotNull(result);
-            assertTrue(result.isEmpty());
+            assertTrue(result.items().isEmpty());
+            assertFalse(result.hasMore());
 
-            verify(taskRepository).findAllByDeletedFalse();
             verify(taskMapper, never()).toDTO(any());
         }
+
+        @Test
+        void shouldStreamAllTasksToConsumer() {
+            Task expectedTask = createTask("1");
+            TaskDTO expectedTaskDTO = createTaskDTO(expectedTask);
+            List<TaskDTO> streamed = new ArrayList<>();
+
+            when(mongoTemplate.stream(any(Query.class), eq(Task.class))).thenReturn(Stream.of(expectedTask));
+            when(taskMapper.toDTO(expectedTask)).thenReturn(expectedTaskDTO);
+
+            taskService.streamAllTasks(OWNER_ID, streamed::add);
+
+            assertEquals(List.of(expectedTaskDTO), streamed);
+        }
+    }
+
+    @Nested
+    class FindTasksWithQuery {
+        @Test
+        void shouldFilterByStatusPriorityAndDueDateRange() {
+            LocalDateTime dueFrom = LocalDateTime.of(2025, 1, 1, 0, 0);
+            LocalDateTime dueTo = LocalDateTime.of(2025, 2, 1, 0, 0);
+            TaskQueryCommand command = new TaskQueryCommand(Set.of(ETaskStatus.PENDING), Set.of(ETaskPriority.HIGH),
+                    dueFrom, dueTo, null, null, null, null);
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+            taskService.findTasks(OWNER_ID, command, null, 10);
+
+            verify(mongoTemplate).find(queryCaptor.capture(), eq(Task.class));
+            Document filter = queryCaptor.getValue().getQueryObject();
+            assertEquals(false, filter.get("deleted"));
+            assertEquals(List.of(ETaskStatus.PENDING), List.copyOf(filter.get("status", Document.class).get("$in", Collection.class)));
+            assertEquals(List.of(ETaskPriority.HIGH), List.copyOf(filter.get("priority", Document.class).get("$in", Collection.class)));
+            assertEquals(dueFrom, filter.get("dueDate", Document.class).get("$gte"));
+            assertEquals(dueTo, filter.get("dueDate", Document.class).get("$lte"));
+        }
+
+        @Test
+        void shouldSortByRequestedPropertyAndResumeAfterTheCursorPosition() {
+            Task first = createTask("1");
+            Task second = createTask("2");
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+            TaskQueryCommand command = new TaskQueryCommand(null, null, null, null, null, null, "-dueDate", null);
+
+            when(mongoTemplate.find(any(Query.class), eq(Task.class)))
+                    .thenReturn(new ArrayList<>(List.of(first, second)))
+                    .thenReturn(Collections.emptyList());
+            when(taskMapper.toDTO(first)).thenReturn(createTaskDTO(first));
+
+            PageDTO<TaskDTO> page = taskService.findTasks(OWNER_ID, command, null, 1);
+            taskService.findTasks(OWNER_ID, command, page.nextCursor(), 1);
+
+            verify(mongoTemplate, times(2)).find(queryCaptor.capture(), eq(Task.class));
+            Query firstQuery = queryCaptor.getAllValues().get(0);
+            Query nextQuery = queryCaptor.getAllValues().get(1);
+            assertEquals(new Document("dueDate", -1).append("id", -1), firstQuery.getSortObject());
+
+            List<?> keyset = nextQuery.getQueryObject().get("$or", List.class);
+            assertEquals(3, keyset.size());
+            assertEquals(new Document("dueDate", new Document("$lt", first.getDueDate())), keyset.get(0));
+        }
+
+        @Test
+        void shouldOnlyIncludeRequestedFieldsAndTheSortAndVersionProperties() {
+            TaskQueryCommand command = new TaskQueryCommand(null, null, null, null, null, null, "title", Set.of("status"));
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+            taskService.findTasks(OWNER_ID, command, null, 10);
+
+            verify(mongoTemplate).find(queryCaptor.capture(), eq(Task.class));
+            assertEquals(Set.of("status", "id", "updatedAt", "title"), queryCaptor.getValue().getFieldsObject().keySet());
+        }
+
+        @Test
+        void shouldThrowBadRequestExceptionWhenSortIsNotSupported() {
+            TaskQueryCommand command = new TaskQueryCommand(null, null, null, null, null, null, "description", null);
+
+            assertThrows(BadRequestException.class, () -> taskService.findTasks(OWNER_ID, command, null, 10));
+
+            verify(mongoTemplate, never()).find(any(Query.class), eq(Task.class));
+        }
+
+        @Test
+        void shouldThrowBadRequestExceptionWhenFieldIsNotSupported() {
+            TaskQueryCommand command = new TaskQueryCommand(null, null, null, null, null, null, null, Set.of("deleted"));
+
+            assertThrows(BadRequestException.class, () -> taskService.findTasks(OWNER_ID, command, null, 10));
+        }
+
+        @Test
+        void shouldThrowBadRequestExceptionWhenCursorBelongsToAnotherSort() {
+            TaskQueryCommand command = new TaskQueryCommand(null, null, null, null, null, null, "createdAt", null);
+
+            assertThrows(BadRequestException.class, () -> taskService.findTasks(OWNER_ID, command, PageCursor.encode("1"), 10));
+        }
+
+        @Test
+        void shouldThrowBadRequestExceptionWhenDueDateRangeIsInverted() {
+            LocalDateTime now = LocalDateTime.now();
+            TaskQueryCommand command = new TaskQueryCommand(null, null, now, now.minusDays(1), null, null, null, null);
+
+            assertThrows(BadRequestException.class, () -> taskService.findTasks(OWNER_ID, command, null, 10));
+        }
+
+        @Test
+        void shouldFilterByProgressRange() {
+            TaskQueryCommand command = new TaskQueryCommand(null, null, null, null, 25, 75, "-progress", null);
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+            taskService.findTasks(OWNER_ID, command, null, 10);
+
+            verify(mongoTemplate).find(queryCaptor.capture(), eq(Task.class));
+            Query query = queryCaptor.getValue();
+            assertEquals(25, query.getQueryObject().get("progress", Document.class).get("$gte"));
+            assertEquals(75, query.getQueryObject().get("progress", Document.class).get("$lte"));
+            assertEquals(-1, query.getSortObject().get("progress"));
+        }
+
+        @Test
+        void shouldThrowBadRequestExceptionWhenProgressRangeIsInvalid() {
+            TaskQueryCommand outOfRange = new TaskQueryCommand(null, null, null, null, null, 101, null, null);
+            TaskQueryCommand inverted = new TaskQueryCommand(null, null, null, null, 80, 20, null, null);
+
+            assertThrows(BadRequestException.class, () -> taskService.findTasks(OWNER_ID, outOfRange, null, 10));
+            assertThrows(BadRequestException.class, () -> taskService.findTasks(OWNER_ID, inverted, null, 10));
+        }
     }
 
     @Nested
@@ -118,59 +448,303 @@ class TaskServiceTest {
             Task expectedTask = createTask(taskId);
             TaskDTO expectedTaskDTO = createTaskDTO(expectedTask);
 
-            when(taskRepository.findByIdAndDeletedFalse(taskId)).thenReturn(Optional.of(expectedTask));
+            when(taskRepository.findByOwnerIdAndIdAndDeletedFalse(OWNER_ID, taskId)).thenReturn(Optional.of(expectedTask));
             when(taskMapper.toDTO(expectedTask)).thenReturn(expectedTaskDTO);
 
-            TaskDTO result = taskService.findTaskById(taskId);
+            TaskDTO result = taskService.findTaskById(OWNER_ID, taskId);
 
             assertNotNull(result);
             assertTaskDTO(expectedTask, result);
 
-            verify(taskRepository).findByIdAndDeletedFalse(taskId);
+            verify(taskRepository).findByOwnerIdAndIdAndDeletedFalse(OWNER_ID, taskId);
             verify(taskMapper).toDTO(expectedTask);
         }
 
         @Test
         void shouldThrowEntityNotFoundExceptionWhenTaskDoesNotExists() {
-            when(taskRepository.findByIdAndDeletedFalse(anyString())).thenReturn(Optional.empty());
+            when(taskRepository.findByOwnerIdAndIdAndDeletedFalse(eq(OWNER_ID), anyString())).thenReturn(Optional.empty());
 
-            assertThrows(EntityNotFoundException.class, () -> taskService.findTaskById("1"));
+            assertThrows(EntityNotFoundException.class, () -> taskService.findTaskById(OWNER_ID, "1"));
+
+            verify(taskCache, never()).put(any(Task.class));
+        }
+
+        @Test
+        void shouldReturnCachedTaskWithoutQueryingMongo() {
+            Task cachedTask = createTask("1");
+
+            when(taskCache.get("1")).thenReturn(Optional.of(cachedTask));
+            when(taskMapper.toDTO(cachedTask)).thenReturn(createTaskDTO(cachedTask));
+
+            TaskDTO result = taskService.findTaskById(OWNER_ID, "1");
+
+            assertTaskDTO(cachedTask, result);
+
+            verify(taskRepository, never()).findByOwnerIdAndIdAndDeletedFalse(anyString(), anyString());
+        }
+
+        @Test
+        void shouldNotReturnCachedTaskOfAnotherOwner() {
+            when(taskCache.get("1")).thenReturn(Optional.of(createTask("1")));
+            when(taskRepository.findByOwnerIdAndIdAndDeletedFalse("another-owner", "1")).thenReturn(Optional.empty());
+
+            assertThrows(EntityNotFoundException.class, () -> taskService.findTaskById("another-owner", "1"));
+
+            verify(taskMapper, never()).toDTO(any(Task.class));
+        }
+
+        @Test
+        void shouldPopulateCacheWhenTaskIsLoadedFromMongo() {
+            Task expectedTask = createTask("1");
+
+            when(taskRepository.findByOwnerIdAndIdAndDeletedFalse(OWNER_ID, "1")).thenReturn(Optional.of(expectedTask));
+
+            taskService.findTaskById(OWNER_ID, "1");
+
+            verify(taskCache).put(expectedTask);
+        }
+    }
+
+    @Nested
+    class FindTaskChanges {
+        @Test
+        void shouldSplitLiveAndDeletedTasksAndReturnTheLastPositionAsToken() {
+            Task updatedTask = createTask("1");
+            Task deletedTask = createTask("2").toBuilder().deleted(true).build();
+            Task extraTask = createTask("3");
+
+            when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of(updatedTask, deletedTask, extraTask));
+            when(taskMapper.toDTO(updatedTask)).thenReturn(createTaskDTO(updatedTask));
+
+            ChangesDTO<TaskDTO> changes = taskService.findTaskChanges(OWNER_ID, null, 2);
+
+            assertEquals(1, changes.items().size());
+            assertEquals("1", changes.items().get(0).id());
+            assertEquals(List.of("2"), changes.deletedIds());
+            assertTrue(changes.hasMore());
+            assertEquals(List.of(deletedTask.getUpdatedAt().toString(), "2"), PageCursor.decodeParts(changes.nextToken()).subList(0, 2));
+        }
+
+        @Test
+        void shouldIncludeDeletedTasksAndResumeAfterTheTokenPosition() {
+            LocalDateTime since = LocalDateTime.now().minusDays(1);
+            String token = PageCursor.encode(List.of(since.toString(), "64b000000000000000000001"));
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+            when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of());
+
+            ChangesDTO<TaskDTO> changes = taskService.findTaskChanges(OWNER_ID, token, 10);
+
+            verify(mongoTemplate).find(queryCaptor.capture(), eq(Task.class));
+            Document queryObject = queryCaptor.getValue().getQueryObject();
+            assertFalse(queryObject.containsKey("deleted"));
+            assertEquals(2, queryObject.getList("$or", Document.class).size());
+            assertEquals(new Document("updatedAt", 1).append("id", 1), queryCaptor.getValue().getSortObject());
+            List<String> nextParts = PageCursor.decodeParts(changes.nextToken());
+            assertEquals(List.of(since.toString(), "64b000000000000000000001"), nextParts.subList(0, 2));
+            assertTrue(LocalDateTime.parse(nextParts.get(2)).isAfter(since));
+            assertFalse(changes.hasMore());
+        }
+
+        @Test
+        void shouldKeepAcceptingTheTokensOfAnOwnerWithoutRecentWrites() {
+            Task oldTask = createTask("1").toBuilder().updatedAt(LocalDateTime.now().minusDays(40)).build();
+
+            when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(List.of(oldTask)).thenReturn(List.of());
+            when(taskMapper.toDTO(oldTask)).thenReturn(createTaskDTO(oldTask));
+
+            String token = taskService.findTaskChanges(OWNER_ID, null, 10).nextToken();
+            String nextToken = taskService.findTaskChanges(OWNER_ID, token, 10).nextToken();
+
+            assertDoesNotThrow(() -> taskService.findTaskChanges(OWNER_ID, nextToken, 10));
+        }
+
+        @Test
+        void shouldRejectATokenOlderThanTheRetainedDeletions() {
+            LocalDateTime longAgo = LocalDateTime.now().minusDays(31);
+            String token = PageCursor.encode(List.of(longAgo.toString(), "64b000000000000000000001", longAgo.toString()));
+
+            assertThrows(ChangesExpiredException.class, () -> taskService.findTaskChanges(OWNER_ID, token, 10));
+
+            verifyNoInteractions(mongoTemplate);
+        }
+
+        @Test
+        void shouldRejectInvalidToken() {
+            assertThrows(BadRequestException.class, () -> taskService.findTaskChanges(OWNER_ID, PageCursor.encode("garbage"), 10));
+
+            verifyNoInteractions(mongoTemplate);
+        }
+    }
+
+    @Nested
+    class FindTaskVersion {
+        @Test
+        void shouldAnswerFromTheStoredVersionAndDropAnOlderCachedTask() {
+            Task cachedTask = createTask("1");
+            Task storedTask = createTask("1");
+            storedTask.setVersion(4L);
+
+            when(taskCache.get("1")).thenReturn(Optional.of(cachedTask));
+            when(mongoTemplate.findOne(any(Query.class), eq(Task.class))).thenReturn(storedTask);
+
+            assertEquals(new VersionDTO(4L, storedTask.getUpdatedAt()), taskService.findTaskVersion(OWNER_ID, "1"));
+
+            verify(taskCache).evict("1");
+        }
+
+        @Test
+        void shouldOnlyProjectVersionAndUpdatedAt() {
+            Task storedTask = createTask("1");
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+            when(taskCache.get("1")).thenReturn(Optional.empty());
+            when(mongoTemplate.findOne(any(Query.class), eq(Task.class))).thenReturn(storedTask);
+
+            assertEquals(new VersionDTO(3L, storedTask.getUpdatedAt()), taskService.findTaskVersion(OWNER_ID, "1"));
+
+            verify(readRouter).forRoute(EReadRoute.TASK_VERSION);
+            verify(mongoTemplate).findOne(queryCaptor.capture(), eq(Task.class));
+            assertEquals(new Document("version", 1).append("updatedAt", 1), queryCaptor.getValue().getFieldsObject());
+            verify(taskRepository, never()).findByOwnerIdAndIdAndDeletedFalse(anyString(), anyString());
+        }
+
+        @Test
+        void shouldAskThePrimaryWhenTheReplicaMissesTheTask() {
+            Task storedTask = createTask("1");
+            MongoTemplate replicaTemplate = mock(MongoTemplate.class);
+
+            when(readRouter.forRoute(EReadRoute.TASK_VERSION)).thenReturn(replicaTemplate);
+            when(mongoTemplate.findOne(any(Query.class), eq(Task.class))).thenReturn(storedTask);
+
+            assertEquals(new VersionDTO(3L, storedTask.getUpdatedAt()), taskService.findTaskVersion(OWNER_ID, "1"));
+
+            verify(replicaTemplate).findOne(any(Query.class), eq(Task.class));
+        }
+
+        @Test
+        void shouldThrowEntityNotFoundExceptionWhenTaskDoesNotExist() {
+            assertThrows(EntityNotFoundException.class, () -> taskService.findTaskVersion(OWNER_ID, "1"));
+        }
+    }
+
+    @Nested
+    class AssertTaskExists {
+        @Test
+        void shouldAnswerFromCacheWithoutMappingTask() {
+            when(taskCache.get("1")).thenReturn(Optional.of(createTask("1")));
+
+            assertDoesNotThrow(() -> taskService.assertTaskExists(OWNER_ID, "1"));
+
+            verify(taskRepository, never()).findByOwnerIdAndIdAndDeletedFalse(anyString(), anyString());
+            verify(taskMapper, never()).toDTO(any(Task.class));
+        }
+
+        @Test
+        void shouldThrowEntityNotFoundExceptionWhenTaskDoesNotExists() {
+            when(taskRepository.findByOwnerIdAndIdAndDeletedFalse(OWNER_ID, "1")).thenReturn(Optional.empty());
+
+            assertThrows(EntityNotFoundException.class, () -> taskService.assertTaskExists(OWNER_ID, "1"));
         }
     }
 
     @Nested
     class UpdateTaskById {
         @Test
-        void shouldUpdateTaskSuccessfullyWhenExists() {
+        void shouldUpdateTaskAtomicallyWhenExists() {
             String taskId = "1";
             UpdateTaskCommand command = createUpdateTaskCommand();
-            Task existingTask = createTask(taskId);
             Task updatedTask = createTask(command);
             TaskDTO expectedTaskDTO = createTaskDTO(updatedTask);
 
-            when(taskRepository.findByIdAndDeletedFalse(taskId)).thenReturn(Optional.of(existingTask));
-            doNothing().when(updateTaskAction).execute(existingTask, command);
-            when(taskRepository.save(existingTask)).thenReturn(updatedTask);
-            when(taskMapper.toDTO(existingTask)).thenReturn(expectedTaskDTO);
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+            ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
 
-            TaskDTO result = taskService.updateTaskById(taskId, command);
+            when(updateTaskAction.toUpdate(command)).thenReturn(Update.update("title", command.title()));
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                    .thenReturn(updatedTask);
+            when(taskMapper.toDTO(updatedTask)).thenReturn(expectedTaskDTO);
+
+            TaskDTO result = taskService.updateTaskById(OWNER_ID, taskId, command);
 
             assertNotNull(result);
             assertTaskDTO(updatedTask, result);
 
-            verify(taskRepository).findByIdAndDeletedFalse(taskId);
-            verify(updateTaskAction).execute(existingTask, command);
-            verify(taskRepository).save(existingTask);
-            verify(taskMapper).toDTO(existingTask);
+            verify(mongoTemplate).findAndModify(queryCaptor.capture(), updateCaptor.capture(), any(FindAndModifyOptions.class), eq(Task.class));
+            assertEquals(taskId, queryCaptor.getValue().getQueryObject().get("id"));
+            assertEquals(false, queryCaptor.getValue().getQueryObject().get("deleted"));
+
+            Document set = updateCaptor.getValue().getUpdateObject().get("$set", Document.class);
+            assertEquals(command.title(), set.get("title"));
+            assertNotNull(set.get("updatedAt"));
+            assertEquals(1, updateCaptor.getValue().getUpdateObject().get("$inc", Document.class).get("version"));
+            assertFalse(queryCaptor.getValue().getQueryObject().containsKey("version"));
+
+            verify(taskRepository, never()).findByOwnerIdAndIdAndDeletedFalse(anyString(), anyString());
+            verify(taskRepository, never()).save(any(Task.class));
+            verify(taskCache).evict(taskId);
         }
 
         @Test
         void shouldThrowEntityNotFoundExceptionWhenTaskDoesNotExists() {
             UpdateTaskCommand command = createUpdateTaskCommand();
 
-            when(taskRepository.findByIdAndDeletedFalse(anyString())).thenReturn(Optional.empty());
+            when(updateTaskAction.toUpdate(command)).thenReturn(new Update());
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                    .thenReturn(null);
+
+            assertThrows(EntityNotFoundException.class, () -> taskService.updateTaskById(OWNER_ID, "1", command));
+
+            verify(taskCache, never()).evict(anyString());
+        }
+
+        @Test
+        void shouldOnlyUpdateTheExpectedVersion() {
+            UpdateTaskCommand command = createUpdateTaskCommand();
+            Task updatedTask = createTask(command);
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+            when(updateTaskAction.toUpdate(command)).thenReturn(new Update());
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                    .thenReturn(updatedTask);
+            when(taskMapper.toDTO(updatedTask)).thenReturn(createTaskDTO(updatedTask));
+
+            taskService.updateTaskById(OWNER_ID, "1", command, 2L);
+
+            verify(mongoTemplate).findAndModify(queryCaptor.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class));
+            assertEquals(2L, queryCaptor.getValue().getQueryObject().get("version"));
+        }
+
+        @Test
+        void shouldThrowConflictExceptionWhenVersionDoesNotMatch() {
+            UpdateTaskCommand command = createUpdateTaskCommand();
+
+            when(updateTaskAction.toUpdate(command)).thenReturn(new Update());
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                    .thenReturn(null);
+            when(mongoTemplate.findOne(any(Query.class), eq(Task.class))).thenReturn(createTask("1"));
 
-            assertThrows(EntityNotFoundException.class, () -> taskService.updateTaskById("1", command));
+            ConflictException exception = assertThrows(ConflictException.class, () -> taskService.updateTaskById(OWNER_ID, "1", command, 2L));
+
+            assertTrue(exception.getMessage().contains("current version is 3"));
+            verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class));
+            verify(readRouter, never()).forRoute(any(EReadRoute.class));
+            verify(taskCache, never()).evict(anyString());
+        }
+
+        @Test
+        void shouldNotReapplyStatusOnlyChangesWithAStaleExpectedVersion() {
+            UpdateTaskCommand command = new UpdateTaskCommand(null, null, ETaskStatus.COMPLETED, null, null, null);
+
+            when(updateTaskAction.toUpdate(command)).thenReturn(new Update());
+            when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                    .thenReturn(null);
+            when(mongoTemplate.findOne(any(Query.class), eq(Task.class))).thenReturn(createTask("1"));
+
+            assertThrows(ConflictException.class, () -> taskService.updateTaskById(OWNER_ID, "1", command, 2L));
+
+            verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class));
+            verifyNoInteractions(eventBus);
         }
     }
 
@@ -179,37 +753,74 @@ class TaskServiceTest {
         @Test
         void shouldDeleteTaskSuccessfullyWhenExists() {
             String taskId = "1";
-            Task expectedTask = createTask(taskId);
             UpdateResult updateResult = mock(UpdateResult.class);
 
             ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
             ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
 
-            when(taskRepository.findByIdAndDeletedFalse(taskId)).thenReturn(Optional.of(expectedTask));
+            runTransactionsInline();
+            when(updateResult.getMatchedCount()).thenReturn(1L);
             when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Task.class))).thenReturn(updateResult);
+            when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(MicroTask.class))).thenReturn(updateResult);
 
-            assertDoesNotThrow(() -> taskService.deleteTaskById(taskId));
+            assertDoesNotThrow(() -> taskService.deleteTaskById(OWNER_ID, taskId));
 
-            verify(taskRepository).findByIdAndDeletedFalse(taskId);
+            verify(taskRepository, never()).findByOwnerIdAndIdAndDeletedFalse(anyString(), anyString());
             verify(mongoTemplate).updateFirst(queryCaptor.capture(), updateCaptor.capture(), eq(Task.class));
 
             Query capturedQuery = queryCaptor.getValue();
             assertEquals(taskId, capturedQuery.getQueryObject().get("id"));
+            assertEquals(false, capturedQuery.getQueryObject().get("deleted"));
 
             Update capturedUpdate = updateCaptor.getValue();
             assertEquals(true, capturedUpdate.getUpdateObject().get("$set", Document.class).get("deleted"));
+            assertNotNull(capturedUpdate.getUpdateObject().get("$set", Document.class).get("updatedAt"));
+
+            verify(taskCache).evict(taskId);
+            verify(eventBus).publishLocal(new ChangeEventDTO(EChangeEntity.TASK, EChangeOperation.DELETED, taskId, taskId, null, null, OWNER_ID));
+        }
+
+        @Test
+        void shouldCascadeSoftDeleteToMicroTasksOfTheTask() {
+            String taskId = "1";
+            UpdateResult updateResult = mock(UpdateResult.class);
+            ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+            runTransactionsInline();
+            when(updateResult.getMatchedCount()).thenReturn(1L);
+            when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Task.class))).thenReturn(updateResult);
+            when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(MicroTask.class))).thenReturn(updateResult);
+
+            taskService.deleteTaskById(OWNER_ID, taskId);
+
+            verify(transactionRunner).run(any(Runnable.class));
+            verify(mongoTemplate).updateMulti(queryCaptor.capture(), any(Update.class), eq(MicroTask.class));
+            assertEquals(taskId, queryCaptor.getValue().getQueryObject().get("taskId"));
+            assertEquals(false, queryCaptor.getValue().getQueryObject().get("deleted"));
         }
 
         @Test
         void shouldThrowEntityNotFoundExceptionWhenTaskDoesNotExists() {
-            when(taskRepository.findByIdAndDeletedFalse(anyString())).thenReturn(Optional.empty());
+            UpdateResult updateResult = mock(UpdateResult.class);
 
-            assertThrows(EntityNotFoundException.class, () -> taskService.deleteTaskById("1"));
+            runTransactionsInline();
+            when(updateResult.getMatchedCount()).thenReturn(0L);
+            when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Task.class))).thenReturn(updateResult);
 
-            verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Task.class));
+            assertThrows(EntityNotFoundException.class, () -> taskService.deleteTaskById(OWNER_ID, "1"));
+
+            verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(MicroTask.class));
+            verify(taskCache, never()).evict(anyString());
         }
     }
 
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(transactionRunner).run(any(Runnable.class));
+    }
+
     private void assertTaskDTO(CreateTaskCommand expected, TaskDTO actual) {
         assertEquals(expected.title(), actual.title());
         assertEquals(expected.description(), actual.description());
@@ -250,6 +861,7 @@ class TaskServiceTest {
     private Task createTask(String id, CreateTaskCommand command) {
         return Task.builder()
                 .id(id)
+                .ownerId(OWNER_ID)
                 .title(command.title())
                 .description(command.description())
                 .status(command.status())
@@ -264,6 +876,7 @@ class TaskServiceTest {
     private Task createTask(String id) {
         return Task.builder()
                 .id(id)
+                .ownerId(OWNER_ID)
                 .title("Task " + id)
                 .description("Description " + id)
                 .status(ETaskStatus.PENDING)
@@ -271,6 +884,7 @@ class TaskServiceTest {
                 .dueDate(LocalDateTime.now().plusDays(3))
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
+                .version(3L)
                 .deleted(false)
                 .build();
     }
@@ -278,6 +892,7 @@ class TaskServiceTest {
     private Task createTask(UpdateTaskCommand command) {
         return Task.builder()
                 .id("1")
+                .ownerId(OWNER_ID)
                 .title(command.title())
                 .description(command.description())
                 .status(command.status())
@@ -299,8 +914,11 @@ class TaskServiceTest {
                 task.getPriority(),
                 task.getDueDate(),
                 task.getCompletedAt(),
+                null,
+                task.getProgress(),
                 task.getCreatedAt(),
-                task.getUpdatedAt()
+                task.getUpdatedAt(),
+                task.getVersion()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package br.com.stepify.service;
+
+import br.com.stepify.command.task.outputs.StatsBucketDTO;
+import br.com.stepify.command.task.outputs.TaskStatsDTO;
+import br.com.stepify.config.TaskStatsProperties;
+import br.com.stepify.enums.EReadRoute;
+import br.com.stepify.enums.EStatsBucket;
+import br.com.stepify.enums.ETaskPriority;
+import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.exception.BadRequestException;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.mongo.routing.MongoReadRouter;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskStatsServiceTest {
+    private static final String OWNER_ID = "owner";
+
+    @Mock
+    private MongoReadRouter readRouter;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private TaskStatsService taskStatsService;
+
+    @BeforeEach
+    void setUp() {
+        taskStatsService = new TaskStatsService(readRouter, new TaskStatsProperties(Duration.ofSeconds(30), 100));
+    }
+
+    @Test
+    void shouldMapEveryFacetOfTheAggregation() {
+        LocalDateTime day = LocalDateTime.of(2025, 3, 1, 0, 0);
+        Date bucketStart = Date.from(day.atZone(ZoneId.systemDefault()).toInstant());
+        Document result = new Document("total", List.of(count(null, 5)))
+                .append("byStatus", List.of(count("PENDING", 3), count("COMPLETED", 2)))
+                .append("byPriority", List.of(count("HIGH", 5)))
+                .append("overdue", List.of(count(null, 1)))
+                .append("completionTime", List.of(count(null, 2).append("average", 1500.0).append("min", 1000L).append("max", 2000L)))
+                .append("created", List.of(count(bucketStart, 5)))
+                .append("completed", List.of(count(bucketStart, 2)));
+
+        when(readRouter.forRoute(EReadRoute.TASK_STATS)).thenReturn(mongoTemplate);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Task.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(result), new Document()));
+
+        TaskStatsDTO stats = taskStatsService.findTaskStats(OWNER_ID, null, null, EStatsBucket.DAY);
+
+        assertEquals(5, stats.total());
+        assertEquals(Map.of(ETaskStatus.PENDING, 3L, ETaskStatus.COMPLETED, 2L), stats.byStatus());
+        assertEquals(Map.of(ETaskPriority.HIGH, 5L), stats.byPriority());
+        assertEquals(1, stats.overdue());
+        assertEquals(2, stats.completionTime().completed());
+        assertEquals(1500L, stats.completionTime().averageMillis());
+        assertEquals(1000L, stats.completionTime().minMillis());
+        assertEquals(2000L, stats.completionTime().maxMillis());
+        assertEquals(List.of(new StatsBucketDTO(day, 5, 2)), stats.buckets());
+    }
+
+    @Test
+    void shouldReuseCachedStatsForTheSameOwnerAndRange() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        when(readRouter.forRoute(EReadRoute.TASK_STATS)).thenReturn(mongoTemplate);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Task.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        TaskStatsDTO first = taskStatsService.findTaskStats(OWNER_ID, from, null, null);
+        TaskStatsDTO second = taskStatsService.findTaskStats(OWNER_ID, from, null, null);
+        taskStatsService.findTaskStats("anotherOwner", from, null, null);
+
+        assertSame(first, second);
+        assertEquals(0, first.total());
+        assertNull(first.completionTime().averageMillis());
+        verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq(Task.class), eq(Document.class));
+    }
+
+    @Test
+    void shouldCutBucketsInTheServerTimezone() {
+        ArgumentCaptor<Aggregation> aggregationCaptor = ArgumentCaptor.forClass(Aggregation.class);
+
+        when(readRouter.forRoute(EReadRoute.TASK_STATS)).thenReturn(mongoTemplate);
+        when(mongoTemplate.aggregate(aggregationCaptor.capture(), eq(Task.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        taskStatsService.findTaskStats(OWNER_ID, null, null, EStatsBucket.WEEK);
+
+        Document facets = aggregationCaptor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(1).get("$facet", Document.class);
+        Document group = facets.getList("created", Document.class).get(0).get("$group", Document.class);
+        assertEquals(new Document("date", "$createdAt").append("unit", "week").append("timezone", ZoneId.systemDefault().getId()),
+                group.get("_id", Document.class).get("$dateTrunc", Document.class));
+    }
+
+    @Test
+    void shouldThrowBadRequestExceptionWhenRangeIsInverted() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(BadRequestException.class,
+                () -> taskStatsService.findTaskStats(OWNER_ID, now, now.minusDays(1), null));
+
+        verifyNoInteractions(readRouter);
+    }
+
+    private Document count(Object id, long count) {
+        return new Document("_id", id).append("count", count);
+    }
+}
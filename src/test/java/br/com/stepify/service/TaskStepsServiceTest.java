@@ -0,0 +1,208 @@
+package br.com.stepify.service;
+
+import br.com.stepify.command.common.outputs.PageDTO;
+import br.com.stepify.command.microtask.outputs.MicroTaskDTO;
+import br.com.stepify.command.task.outputs.TaskDTO;
+import br.com.stepify.command.task.outputs.TaskWithMicroTasksDTO;
+import br.com.stepify.enums.ETaskPriority;
+import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.exception.EntityNotFoundException;
+import br.com.stepify.mapper.MicroTaskMapper;
+import br.com.stepify.mapper.TaskMapper;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.Task;
+import br.com.stepify.mongo.repository.MicroTaskRepository;
+import br.com.stepify.service.archive.TaskArchive;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskStepsServiceTest {
+    private static final String OWNER_ID = "owner";
+
+    @Mock
+    private TaskService taskService;
+    @Mock
+    private MicroTaskRepository microTaskRepository;
+    @Mock
+    private MicroTaskMapper microTaskMapper;
+    @Mock
+    private TaskMapper taskMapper;
+    @Mock
+    private TaskArchive taskArchive;
+
+    @InjectMocks
+    private TaskStepsService taskStepsService;
+
+    @Nested
+    class FindMicroTasksByTaskId {
+        @Test
+        void shouldReturnMicroTasksOrderedWhenTaskExists() {
+            MicroTask microTask1 = createMicroTask("1", "taskId", 1);
+            MicroTask microTask2 = createMicroTask("2", "taskId", 2);
+
+            when(microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(OWNER_ID, "taskId")).thenReturn(List.of(microTask1, microTask2));
+            when(microTaskMapper.toDTO(any(MicroTask.class))).thenAnswer(invocation -> createMicroTaskDTO(invocation.getArgument(0)));
+
+            List<MicroTaskDTO> result = taskStepsService.findMicroTasksByTaskId(OWNER_ID, "taskId");
+
+            assertEquals(2, result.size());
+            assertEquals("1", result.get(0).id());
+            assertEquals("2", result.get(1).id());
+
+            verify(taskService).assertTaskExists(OWNER_ID, "taskId");
+        }
+
+        @Test
+        void shouldThrowEntityNotFoundExceptionWhenTaskDoesNotExists() {
+            doThrow(EntityNotFoundException.class).when(taskService).assertTaskExists(eq(OWNER_ID), anyString());
+
+            assertThrows(EntityNotFoundException.class, () -> taskStepsService.findMicroTasksByTaskId(OWNER_ID, "taskId"));
+
+            verify(microTaskRepository, never()).findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(anyString(), anyString());
+        }
+    }
+
+    @Nested
+    class FindTaskWithMicroTasks {
+        @Test
+        void shouldReturnTaskTogetherWithItsMicroTasks() {
+            TaskDTO task = createTaskDTO("taskId");
+            MicroTask microTask = createMicroTask("1", "taskId", 1);
+
+            when(taskService.findTaskById(OWNER_ID, "taskId")).thenReturn(task);
+            when(microTaskRepository.findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(OWNER_ID, "taskId")).thenReturn(List.of(microTask));
+            when(microTaskMapper.toDTO(microTask)).thenReturn(createMicroTaskDTO(microTask));
+
+            TaskWithMicroTasksDTO result = taskStepsService.findTaskWithMicroTasks(OWNER_ID, "taskId", false);
+
+            assertEquals(task, result.task());
+            assertEquals(1, result.microTasks().size());
+        }
+
+        @Test
+        void shouldFallBackToTheArchiveWhenIncludeArchivedIsSet() {
+            Task archivedTask = Task.builder().id("taskId").ownerId(OWNER_ID).build();
+            TaskDTO task = createTaskDTO("taskId");
+            MicroTask microTask = createMicroTask("1", "taskId", 1);
+
+            when(taskService.findTaskById(OWNER_ID, "taskId")).thenThrow(EntityNotFoundException.class);
+            when(taskArchive.findTask(OWNER_ID, "taskId")).thenReturn(Optional.of(archivedTask));
+            when(taskArchive.findMicroTasks(OWNER_ID, "taskId")).thenReturn(List.of(microTask));
+            when(taskMapper.toDTO(archivedTask)).thenReturn(task);
+            when(microTaskMapper.toDTO(microTask)).thenReturn(createMicroTaskDTO(microTask));
+
+            TaskWithMicroTasksDTO result = taskStepsService.findTaskWithMicroTasks(OWNER_ID, "taskId", true);
+
+            assertEquals(task, result.task());
+            assertEquals(1, result.microTasks().size());
+            verify(microTaskRepository, never()).findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(anyString(), anyString());
+        }
+
+        @Test
+        void shouldNotLookUpTheArchiveUnlessIncludeArchivedIsSet() {
+            when(taskService.findTaskById(OWNER_ID, "taskId")).thenThrow(EntityNotFoundException.class);
+
+            assertThrows(EntityNotFoundException.class, () -> taskStepsService.findTaskWithMicroTasks(OWNER_ID, "taskId", false));
+
+            verifyNoInteractions(taskArchive);
+        }
+    }
+
+    @Nested
+    class FindTasksWithMicroTasks {
+        @Test
+        void shouldLoadMicroTasksOfTheWholePageInOneQuery() {
+            TaskDTO task1 = createTaskDTO("task1");
+            TaskDTO task2 = createTaskDTO("task2");
+            MicroTask microTask1 = createMicroTask("1", "task1", 1);
+            MicroTask microTask2 = createMicroTask("2", "task1", 2);
+
+            when(taskService.findTasks(OWNER_ID, null, 10)).thenReturn(new PageDTO<>(List.of(task1, task2), "cursor", true));
+            when(microTaskRepository.findAllByOwnerIdAndTaskIdInAndDeletedFalseOrderByOrderAsc(OWNER_ID, List.of("task1", "task2")))
+                    .thenReturn(List.of(microTask1, microTask2));
+            when(microTaskMapper.toDTO(any(MicroTask.class))).thenAnswer(invocation -> createMicroTaskDTO(invocation.getArgument(0)));
+
+            PageDTO<TaskWithMicroTasksDTO> result = taskStepsService.findTasksWithMicroTasks(OWNER_ID, null, 10);
+
+            assertEquals(2, result.items().size());
+            assertEquals(List.of("1", "2"), result.items().get(0).microTasks().stream().map(MicroTaskDTO::id).toList());
+            assertTrue(result.items().get(1).microTasks().isEmpty());
+            assertEquals("cursor", result.nextCursor());
+            assertTrue(result.hasMore());
+
+            verify(microTaskRepository, times(1)).findAllByOwnerIdAndTaskIdInAndDeletedFalseOrderByOrderAsc(eq(OWNER_ID), any());
+            verify(microTaskRepository, never()).findAllByOwnerIdAndTaskIdAndDeletedFalseOrderByOrderAsc(anyString(), anyString());
+        }
+
+        @Test
+        void shouldNotQueryMicroTasksWhenPageIsEmpty() {
+            when(taskService.findTasks(OWNER_ID, null, null)).thenReturn(new PageDTO<>(List.of(), null, false));
+
+            PageDTO<TaskWithMicroTasksDTO> result = taskStepsService.findTasksWithMicroTasks(OWNER_ID, null, null);
+
+            assertTrue(result.items().isEmpty());
+
+            verify(microTaskRepository, never()).findAllByOwnerIdAndTaskIdInAndDeletedFalseOrderByOrderAsc(eq(OWNER_ID), any());
+        }
+    }
+
+    private MicroTask createMicroTask(String id, String taskId, int order) {
+        return MicroTask.builder()
+                .id(id)
+                .ownerId(OWNER_ID)
+                .taskId(taskId)
+                .title("title " + id)
+                .description("description")
+                .status(ETaskStatus.PENDING)
+                .order(order)
+                .deleted(false)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private MicroTaskDTO createMicroTaskDTO(MicroTask microTask) {
+        return new MicroTaskDTO(
+                microTask.getId(),
+                microTask.getTaskId(),
+                microTask.getTitle(),
+                microTask.getDescription(),
+                microTask.getStatus(),
+                microTask.getOrder(),
+                microTask.getCreatedAt(),
+                microTask.getUpdatedAt(),
+                microTask.getVersion()
+        );
+    }
+
+    private TaskDTO createTaskDTO(String id) {
+        return new TaskDTO(
+                id,
+                "Task Title",
+                "Task Description",
+                ETaskStatus.IN_PROGRESS,
+                ETaskPriority.HIGH,
+                LocalDateTime.now().plusDays(7),
+                null,
+                null,
+                0,
+                LocalDateTime.now(),
+                LocalDateTime.now(),
+                0L
+        );
+    }
+}
@@ -0,0 +1,107 @@
+package br.com.stepify.service.progress;
+
+import br.com.stepify.cache.TaskCache;
+import br.com.stepify.enums.ETaskStatus;
+import br.com.stepify.mongo.entity.MicroTask;
+import br.com.stepify.mongo.entity.MicroTaskCounts;
+import br.com.stepify.mongo.entity.Task;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskProgressCounterTest {
+    private static final String OWNER_ID = "owner";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private TaskCache taskCache;
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private TaskProgressCounter progressCounter;
+
+    @Test
+    void shouldBumpTheTaskVersionTogetherWithItsCounters() {
+        AggregationUpdate update = TaskProgressCounter.incrementUpdate(Map.of(ETaskStatus.COMPLETED, 1), LocalDateTime.now());
+
+        Document counters = update.toPipeline(null).get(0).get("$set", Document.class);
+        assertTrue(counters.containsKey("microTaskCounts.completed"));
+        assertTrue(counters.containsKey("version"));
+    }
+
+    @Test
+    void shouldOnlyReplaceTheCountsOfTheVersionReadBeforeCounting() {
+        Task task = Task.builder().id("task").ownerId(OWNER_ID).version(7L).microTaskCounts(new MicroTaskCounts()).build();
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()));
+
+        assertEquals(0, progressCounter.replace(List.of(task)));
+
+        verify(bulkOperations).updateOne(queryCaptor.capture(), any(Update.class));
+        assertEquals(7L, queryCaptor.getValue().getQueryObject().get("version"));
+    }
+
+    @Test
+    void shouldCountMicroTasksOfEachOwnerByOwnerAndTask() {
+        ArgumentCaptor<Aggregation> aggregationCaptor = ArgumentCaptor.forClass(Aggregation.class);
+
+        when(mongoTemplate.aggregate(aggregationCaptor.capture(), eq(MicroTask.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        progressCounter.count(List.of(
+                Task.builder().id("first").ownerId(OWNER_ID).build(),
+                Task.builder().id("second").ownerId(OWNER_ID).build(),
+                Task.builder().id("other").ownerId("anotherOwner").build()));
+
+        Document match = aggregationCaptor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$match", Document.class);
+        assertEquals(List.of(
+                new Document("ownerId", OWNER_ID).append("taskId", new Document("$in", List.of("first", "second"))).append("deleted", false),
+                new Document("ownerId", "anotherOwner").append("taskId", new Document("$in", List.of("other"))).append("deleted", false)
+        ), match.getList("$or", Document.class));
+    }
+
+    @Test
+    void shouldPropagateFailuresSoTheMicroTaskWriteRollsBack() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(AggregationUpdate.class), eq(Task.class)))
+                .thenThrow(new IllegalStateException("write conflict"));
+
+        assertThrows(IllegalStateException.class,
+                () -> progressCounter.apply(OWNER_ID, new ProgressDelta().added("task", ETaskStatus.PENDING)));
+    }
+
+    @Test
+    void shouldLeaveFailuresAfterABulkWriteToReconciliation() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(AggregationUpdate.class), eq(Task.class)))
+                .thenThrow(new IllegalStateException("write conflict"));
+
+        assertDoesNotThrow(() -> progressCounter.applyAfterBulk(OWNER_ID, new ProgressDelta().added("task", ETaskStatus.PENDING)));
+
+        verify(taskCache).evictAll(Set.of("task"));
+    }
+}